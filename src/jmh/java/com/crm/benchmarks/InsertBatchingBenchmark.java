@@ -0,0 +1,198 @@
+package com.crm.benchmarks;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the insert throughput of the DataInitializer chunks and the bulk training path with identity keys,
+ * which force Hibernate to execute every insert on its own to read the generated key, versus ids allocated
+ * from a sequence in blocks of {@code ALLOCATION_SIZE} with the inserts sent in JDBC batches of {@code JDBC_BATCH_SIZE}.
+ *
+ * A trainee registration inserts a users row and a trainees row, a training inserts one trainings row.
+ * Runs against an in-memory H2 database served over a loopback TCP connection, so every statement and batch
+ * pays a round trip; on PostgreSQL the batches are additionally rewritten to multi-row inserts by
+ * {@code reWriteBatchedInserts=true}.
+ * Run with {@code ./gradlew jmh -Pjmh.includes=InsertBatchingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OperationsPerInvocation(InsertBatchingBenchmark.CHUNK_SIZE)
+public class InsertBatchingBenchmark {
+    static final int CHUNK_SIZE = 500;
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int JDBC_BATCH_SIZE = 100;
+    private static final long TRAINER_ID = 1;
+
+    private Server server;
+    private Connection embeddedConnection;
+    private Connection connection;
+    private long nextUser;
+    private long traineeId;
+
+    @Setup(Level.Trial)
+    public void setUpSchema() throws SQLException {
+        embeddedConnection = DriverManager.getConnection("jdbc:h2:mem:insert_batching");
+        server = Server.createTcpServer("-tcpPort", "0").start();
+        connection = DriverManager.getConnection("jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:insert_batching");
+        try (var statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 3) PRIMARY KEY, username VARCHAR(255) NOT NULL UNIQUE)");
+            statement.execute("CREATE TABLE trainees (id BIGINT PRIMARY KEY REFERENCES users (id), address VARCHAR(255))");
+            statement.execute("CREATE TABLE trainers (id BIGINT PRIMARY KEY REFERENCES users (id))");
+            statement.execute("""
+                    CREATE TABLE trainings (
+                        id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                        trainee_id BIGINT NOT NULL REFERENCES trainees (id),
+                        trainer_id BIGINT NOT NULL REFERENCES trainers (id),
+                        name VARCHAR(255) NOT NULL,
+                        date TIMESTAMP(6) NOT NULL
+                    )
+                    """);
+            statement.execute("CREATE SEQUENCE users_seq START WITH 1000000000 INCREMENT BY " + ALLOCATION_SIZE);
+            statement.execute("CREATE SEQUENCE trainings_seq START WITH 1000000000 INCREMENT BY " + ALLOCATION_SIZE);
+            statement.execute("INSERT INTO users (id, username) VALUES (" + TRAINER_ID + ", 'trainer')");
+            statement.execute("INSERT INTO trainers (id) VALUES (" + TRAINER_ID + ")");
+            statement.execute("INSERT INTO users (id, username) VALUES (2, 'trainee')");
+            statement.execute("INSERT INTO trainees (id) VALUES (2)");
+        }
+        nextUser = 3;
+        traineeId = 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+        server.stop();
+        embeddedConnection.close();
+    }
+
+    @Benchmark
+    public long registerTraineesWithIdentity() throws SQLException {
+        long lastId = 0;
+        try (var insertUser = connection.prepareStatement("INSERT INTO users (username) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+             var insertTrainee = connection.prepareStatement("INSERT INTO trainees (id, address) VALUES (?, ?)")) {
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                insertUser.setString(1, "trainee" + nextUser++);
+                insertUser.executeUpdate();
+                try (var keys = insertUser.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+
+                insertTrainee.setLong(1, lastId);
+                insertTrainee.setString(2, "address");
+                insertTrainee.executeUpdate();
+            }
+        }
+
+        return lastId;
+    }
+
+    @Benchmark
+    public long registerTraineesWithPooledSequence() throws SQLException {
+        var ids = allocateIds("users_seq");
+        try (var insertUser = connection.prepareStatement("INSERT INTO users (id, username) VALUES (?, ?)");
+             var insertTrainee = connection.prepareStatement("INSERT INTO trainees (id, address) VALUES (?, ?)")) {
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                insertUser.setLong(1, ids[i]);
+                insertUser.setString(2, "trainee" + nextUser++);
+                insertUser.addBatch();
+                if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                    insertUser.executeBatch();
+                }
+            }
+            insertUser.executeBatch();
+
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                insertTrainee.setLong(1, ids[i]);
+                insertTrainee.setString(2, "address");
+                insertTrainee.addBatch();
+                if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                    insertTrainee.executeBatch();
+                }
+            }
+            insertTrainee.executeBatch();
+        }
+
+        return ids[CHUNK_SIZE - 1];
+    }
+
+    @Benchmark
+    public long insertTrainingsWithIdentity() throws SQLException {
+        long lastId = 0;
+        var date = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 10, 0));
+        try (var insert = connection.prepareStatement(
+                "INSERT INTO trainings (trainee_id, trainer_id, name, date) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                insert.setLong(1, traineeId);
+                insert.setLong(2, TRAINER_ID);
+                insert.setString(3, "training" + i);
+                insert.setTimestamp(4, date);
+                insert.executeUpdate();
+                try (var keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+            }
+        }
+
+        return lastId;
+    }
+
+    @Benchmark
+    public long insertTrainingsWithPooledSequence() throws SQLException {
+        var ids = allocateIds("trainings_seq");
+        var date = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 10, 0));
+        try (var insert = connection.prepareStatement("INSERT INTO trainings (id, trainee_id, trainer_id, name, date) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                insert.setLong(1, ids[i]);
+                insert.setLong(2, traineeId);
+                insert.setLong(3, TRAINER_ID);
+                insert.setString(4, "training" + i);
+                insert.setTimestamp(5, date);
+                insert.addBatch();
+                if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        return ids[CHUNK_SIZE - 1];
+    }
+
+    /**
+     * Mirrors the pooled optimizer: every sequence value is the upper bound of a block of {@code ALLOCATION_SIZE} ids.
+     */
+    private long[] allocateIds(String sequence) throws SQLException {
+        var ids = new long[CHUNK_SIZE];
+        try (var nextValue = connection.prepareStatement("SELECT NEXT VALUE FOR " + sequence)) {
+            for (int block = 0; block < CHUNK_SIZE; block += ALLOCATION_SIZE) {
+                long hi;
+                try (var resultSet = nextValue.executeQuery()) {
+                    resultSet.next();
+                    hi = resultSet.getLong(1);
+                }
+
+                for (int i = block; i < Math.min(block + ALLOCATION_SIZE, CHUNK_SIZE); i++) {
+                    ids[i] = hi - ALLOCATION_SIZE + 1 + (i - block);
+                }
+            }
+        }
+
+        return ids;
+    }
+}
@@ -0,0 +1,55 @@
+package com.crm.benchmarks;
+
+import com.crm.security.PasswordHasher;
+import com.crm.security.impl.Argon2PasswordHasher;
+import com.crm.security.impl.JBCryptPasswordHasher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hash and verify throughput of every {@link PasswordHasher} implementation per cost on the current host.
+ *
+ * For jbcrypt the cost is the log2 number of rounds; for argon2 it is the number of iterations
+ * with the memory configured in {@code gym.password.argon2.memory-kib} by default.
+ * Run with {@code ./gradlew jmh}; results are written to {@code build/results/jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+public class PasswordHasherBenchmark {
+    private static final String PASSWORD = "Pasw3456";
+    private static final int ARGON2_MEMORY_KIB = 19456;
+    private static final int ARGON2_PARALLELISM = 1;
+
+    @Param({JBCryptPasswordHasher.ID, Argon2PasswordHasher.ID})
+    private String algorithm;
+
+    @Param({"4", "8", "10", "12"})
+    private int cost;
+
+    private PasswordHasher passwordHasher;
+    private String passwordHash;
+
+    @Setup
+    public void setUp() {
+        passwordHasher = switch (algorithm) {
+            case JBCryptPasswordHasher.ID -> new JBCryptPasswordHasher(cost);
+            case Argon2PasswordHasher.ID -> new Argon2PasswordHasher(ARGON2_MEMORY_KIB, cost, ARGON2_PARALLELISM);
+            default -> throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+        };
+        passwordHash = passwordHasher.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public String hash() {
+        return passwordHasher.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return passwordHasher.matches(PASSWORD, passwordHash);
+    }
+}
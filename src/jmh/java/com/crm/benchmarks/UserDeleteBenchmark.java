@@ -0,0 +1,136 @@
+package com.crm.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the latency of deleting a trainee with many trainings: the cascading removal done by Hibernate,
+ * which loads every training and deletes them by id in JDBC batches of {@code hibernate.jdbc.batch_size},
+ * versus three set-based statements deleting the trainings, the trainee row and the users row.
+ *
+ * Every invocation deletes a freshly inserted trainee, so the benchmark runs in single shot mode.
+ * Runs against an in-memory H2 database; on a remote database the cascading removal additionally pays
+ * a round trip per batch. Run with {@code ./gradlew jmh -Pjmh.includes=UserDeleteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class UserDeleteBenchmark {
+    private static final int JDBC_BATCH_SIZE = 100;
+    private static final long TRAINER_ID = 1;
+
+    @Param({"100", "1000", "10000"})
+    private int trainings;
+
+    private Connection connection;
+    private long traineeId;
+
+    @Setup(Level.Trial)
+    public void setUpSchema() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:user_delete_" + trainings + ";DB_CLOSE_DELAY=-1");
+        try (var statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(255) NOT NULL UNIQUE)");
+            statement.execute("CREATE TABLE trainees (id BIGINT PRIMARY KEY REFERENCES users (id), address VARCHAR(255))");
+            statement.execute("CREATE TABLE trainers (id BIGINT PRIMARY KEY REFERENCES users (id))");
+            statement.execute("""
+                    CREATE TABLE trainings (
+                        id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                        trainee_id BIGINT NOT NULL REFERENCES trainees (id),
+                        trainer_id BIGINT NOT NULL REFERENCES trainers (id),
+                        name VARCHAR(255) NOT NULL,
+                        date TIMESTAMP(6) NOT NULL
+                    )
+                    """);
+            statement.execute("CREATE INDEX idx_trainings_trainee ON trainings (trainee_id)");
+            statement.execute("INSERT INTO users (id, username) VALUES (" + TRAINER_ID + ", 'trainer')");
+            statement.execute("INSERT INTO trainers (id) VALUES (" + TRAINER_ID + ")");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void insertTrainee() throws SQLException {
+        traineeId++;
+        var userId = TRAINER_ID + traineeId;
+        try (var statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (id, username) VALUES (" + userId + ", 'trainee" + userId + "')");
+            statement.execute("INSERT INTO trainees (id, address) VALUES (" + userId + ", 'address')");
+        }
+
+        try (var insert = connection.prepareStatement("INSERT INTO trainings (trainee_id, trainer_id, name, date) VALUES (?, ?, ?, ?)")) {
+            var date = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 10, 0));
+            for (int i = 0; i < trainings; i++) {
+                insert.setLong(1, userId);
+                insert.setLong(2, TRAINER_ID);
+                insert.setString(3, "training" + i);
+                insert.setTimestamp(4, date);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int cascadingRemove() throws SQLException {
+        var userId = TRAINER_ID + traineeId;
+        var trainingIds = new ArrayList<Long>();
+        try (var select = connection.prepareStatement("SELECT id, trainee_id, trainer_id, name, date FROM trainings WHERE trainee_id = ?")) {
+            select.setLong(1, userId);
+            try (var resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    trainingIds.add(resultSet.getLong(1));
+                }
+            }
+        }
+
+        try (var delete = connection.prepareStatement("DELETE FROM trainings WHERE id = ?")) {
+            for (int i = 0; i < trainingIds.size(); i++) {
+                delete.setLong(1, trainingIds.get(i));
+                delete.addBatch();
+                if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                    delete.executeBatch();
+                }
+            }
+            delete.executeBatch();
+        }
+
+        return deleteUserRows(userId);
+    }
+
+    @Benchmark
+    public int setBasedDelete() throws SQLException {
+        var userId = TRAINER_ID + traineeId;
+        try (var delete = connection.prepareStatement("DELETE FROM trainings WHERE trainee_id = ?")) {
+            delete.setLong(1, userId);
+            delete.executeUpdate();
+        }
+
+        return deleteUserRows(userId);
+    }
+
+    private int deleteUserRows(long userId) throws SQLException {
+        try (var deleteTrainee = connection.prepareStatement("DELETE FROM trainees WHERE id = ?");
+             var deleteUser = connection.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            deleteTrainee.setLong(1, userId);
+            deleteTrainee.executeUpdate();
+            deleteUser.setLong(1, userId);
+            return deleteUser.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.crm.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares lookup and registration latency of the current {@code JOINED} user mapping with the two alternatives:
+ * <ul>
+ *     <li>{@code SINGLE_TABLE} - role columns folded into users with a {@code role} discriminator,</li>
+ *     <li>{@code PER_ROLE} - self-contained trainee_accounts and trainer_accounts tables, with global username
+ *     uniqueness kept by a narrow usernames registry.</li>
+ * </ul>
+ *
+ * Every trial generates the joined schema with {@code users} users, one in ten of them a trainer, and converts it
+ * with the data migration of the measured layout, whose duration is logged. The statements mirror the SQL
+ * Hibernate generates for {@code findByUserName}, the cross-role name check and the registration of a trainee.
+ * Trainings are left out: the migrations would only repoint their foreign keys.
+ *
+ * Runs against an in-memory H2 database. Run with {@code ./gradlew jmh -Pjmh.includes=UserInheritanceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UserInheritanceBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(UserInheritanceBenchmark.class);
+    private static final int TRAINER_EVERY = 10;
+
+    private static final String JOINED_SCHEMA = """
+            CREATE TABLE users (
+                id         BIGINT PRIMARY KEY,
+                first_name VARCHAR(100) NOT NULL,
+                last_name  VARCHAR(100) NOT NULL,
+                username   VARCHAR(255) NOT NULL UNIQUE,
+                password   VARCHAR(255) NOT NULL,
+                active     BOOLEAN      NOT NULL,
+                version    BIGINT       NOT NULL
+            );
+            CREATE TABLE trainees (id BIGINT PRIMARY KEY REFERENCES users (id), date_of_birth DATE, address VARCHAR(255));
+            CREATE TABLE trainers (id BIGINT PRIMARY KEY REFERENCES users (id), specialization VARCHAR(255) NOT NULL);
+            CREATE INDEX idx_users_first_name_last_name ON users (first_name, last_name);
+            """;
+
+    private static final String SINGLE_TABLE_MIGRATION = """
+            ALTER TABLE users ADD COLUMN role VARCHAR(31);
+            ALTER TABLE users ADD COLUMN date_of_birth DATE;
+            ALTER TABLE users ADD COLUMN address VARCHAR(255);
+            ALTER TABLE users ADD COLUMN specialization VARCHAR(255);
+            MERGE INTO users u USING trainees t ON u.id = t.id
+                WHEN MATCHED THEN UPDATE SET role = 'TRAINEE', date_of_birth = t.date_of_birth, address = t.address;
+            MERGE INTO users u USING trainers t ON u.id = t.id
+                WHEN MATCHED THEN UPDATE SET role = 'TRAINER', specialization = t.specialization;
+            ALTER TABLE users ALTER COLUMN role SET NOT NULL;
+            DROP TABLE trainees;
+            DROP TABLE trainers;
+            DROP INDEX idx_users_first_name_last_name;
+            CREATE INDEX idx_users_role_first_name_last_name ON users (role, first_name, last_name);
+            """;
+
+    private static final String PER_ROLE_MIGRATION = """
+            CREATE TABLE usernames (username VARCHAR(255) PRIMARY KEY, role VARCHAR(31) NOT NULL);
+            CREATE TABLE trainee_accounts (
+                id            BIGINT PRIMARY KEY,
+                first_name    VARCHAR(100) NOT NULL,
+                last_name     VARCHAR(100) NOT NULL,
+                username      VARCHAR(255) NOT NULL UNIQUE REFERENCES usernames (username),
+                password      VARCHAR(255) NOT NULL,
+                active        BOOLEAN      NOT NULL,
+                version       BIGINT       NOT NULL,
+                date_of_birth DATE,
+                address       VARCHAR(255)
+            );
+            CREATE TABLE trainer_accounts (
+                id             BIGINT PRIMARY KEY,
+                first_name     VARCHAR(100) NOT NULL,
+                last_name      VARCHAR(100) NOT NULL,
+                username       VARCHAR(255) NOT NULL UNIQUE REFERENCES usernames (username),
+                password       VARCHAR(255) NOT NULL,
+                active         BOOLEAN      NOT NULL,
+                version        BIGINT       NOT NULL,
+                specialization VARCHAR(255) NOT NULL
+            );
+            INSERT INTO usernames (username, role)
+                SELECT u.username, CASE WHEN t.id IS NULL THEN 'TRAINER' ELSE 'TRAINEE' END
+                FROM users u LEFT JOIN trainees t ON t.id = u.id;
+            INSERT INTO trainee_accounts
+                SELECT u.id, u.first_name, u.last_name, u.username, u.password, u.active, u.version, t.date_of_birth, t.address
+                FROM users u JOIN trainees t ON t.id = u.id;
+            INSERT INTO trainer_accounts
+                SELECT u.id, u.first_name, u.last_name, u.username, u.password, u.active, u.version, t.specialization
+                FROM users u JOIN trainers t ON t.id = u.id;
+            CREATE INDEX idx_trainee_accounts_name ON trainee_accounts (first_name, last_name);
+            CREATE INDEX idx_trainer_accounts_name ON trainer_accounts (first_name, last_name);
+            DROP TABLE trainees;
+            DROP TABLE trainers;
+            DROP TABLE users;
+            """;
+
+    /**
+     * Statements of a layout; the inserts take the id, first name, last name and username as ?1 to ?4.
+     */
+    public enum Layout {
+        JOINED(
+                "",
+                "SELECT u.id, u.first_name, u.last_name, u.username, u.password, u.active, u.version, t.date_of_birth, t.address "
+                        + "FROM trainees t JOIN users u ON u.id = t.id WHERE u.username = ?",
+                "SELECT u.username FROM trainers t JOIN users u ON u.id = t.id WHERE u.first_name = ? AND u.last_name = ?",
+                new String[]{
+                        "INSERT INTO users (id, first_name, last_name, username, password, active, version) VALUES (?1, ?2, ?3, ?4, 'hash', TRUE, 0)",
+                        "INSERT INTO trainees (id, date_of_birth, address) VALUES (?1, DATE '1999-10-10', 'address')"
+                }
+        ),
+        SINGLE_TABLE(
+                SINGLE_TABLE_MIGRATION,
+                "SELECT id, first_name, last_name, username, password, active, version, date_of_birth, address "
+                        + "FROM users WHERE username = ? AND role = 'TRAINEE'",
+                "SELECT username FROM users WHERE role = 'TRAINER' AND first_name = ? AND last_name = ?",
+                new String[]{
+                        "INSERT INTO users (id, role, first_name, last_name, username, password, active, version, date_of_birth, address) "
+                                + "VALUES (?1, 'TRAINEE', ?2, ?3, ?4, 'hash', TRUE, 0, DATE '1999-10-10', 'address')"
+                }
+        ),
+        PER_ROLE(
+                PER_ROLE_MIGRATION,
+                "SELECT id, first_name, last_name, username, password, active, version, date_of_birth, address "
+                        + "FROM trainee_accounts WHERE username = ?",
+                "SELECT username FROM trainer_accounts WHERE first_name = ? AND last_name = ?",
+                new String[]{
+                        "INSERT INTO usernames (username, role) VALUES (?4, 'TRAINEE')",
+                        "INSERT INTO trainee_accounts (id, first_name, last_name, username, password, active, version, date_of_birth, address) "
+                                + "VALUES (?1, ?2, ?3, ?4, 'hash', TRUE, 0, DATE '1999-10-10', 'address')"
+                }
+        );
+
+        private final String migration;
+        private final String findTraineeByUsername;
+        private final String findTrainerUsernamesByName;
+        private final String[] insertTrainee;
+
+        Layout(String migration, String findTraineeByUsername, String findTrainerUsernamesByName, String[] insertTrainee) {
+            this.migration = migration;
+            this.findTraineeByUsername = findTraineeByUsername;
+            this.findTrainerUsernamesByName = findTrainerUsernamesByName;
+            this.insertTrainee = insertTrainee;
+        }
+    }
+
+    @Param({"JOINED", "SINGLE_TABLE", "PER_ROLE"})
+    private Layout layout;
+
+    @Param({"1000000"})
+    private int users;
+
+    private Connection connection;
+    private PreparedStatement findTraineeByUsername;
+    private PreparedStatement findTrainerUsernamesByName;
+    private PreparedStatement[] insertTrainee;
+    private int[] insertParameterCounts;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUpDataset() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:user_inheritance;DB_CLOSE_DELAY=-1");
+        try (var statement = connection.createStatement()) {
+            statement.execute(JOINED_SCHEMA);
+            statement.execute("""
+                    INSERT INTO users (id, first_name, last_name, username, password, active, version)
+                    SELECT x, 'first' || x, 'last' || x, 'first' || x || '.last' || x, 'hash', TRUE, 0
+                    FROM SYSTEM_RANGE(1, %d)
+                    """.formatted(users));
+            statement.execute("""
+                    INSERT INTO trainees (id, date_of_birth, address)
+                    SELECT x, DATE '1999-10-10', 'address' FROM SYSTEM_RANGE(1, %d) WHERE MOD(x, %d) <> 0
+                    """.formatted(users, TRAINER_EVERY));
+            statement.execute("""
+                    INSERT INTO trainers (id, specialization)
+                    SELECT x, 'FITNESS' FROM SYSTEM_RANGE(1, %d) WHERE MOD(x, %d) = 0
+                    """.formatted(users, TRAINER_EVERY));
+
+            if (!layout.migration.isEmpty()) {
+                var start = System.nanoTime();
+                statement.execute(layout.migration);
+                log.info("Migration of {} users to {} took {} ms", users, layout, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        }
+
+        findTraineeByUsername = connection.prepareStatement(layout.findTraineeByUsername);
+        findTrainerUsernamesByName = connection.prepareStatement(layout.findTrainerUsernamesByName);
+        insertTrainee = new PreparedStatement[layout.insertTrainee.length];
+        insertParameterCounts = new int[layout.insertTrainee.length];
+        for (int i = 0; i < insertTrainee.length; i++) {
+            insertTrainee[i] = connection.prepareStatement(layout.insertTrainee[i]);
+            insertParameterCounts[i] = insertTrainee[i].getParameterMetaData().getParameterCount();
+        }
+        nextId = users + 1L;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long findTraineeByUsername() throws SQLException {
+        var id = randomUserId(false);
+        findTraineeByUsername.setString(1, "first" + id + ".last" + id);
+        try (var resultSet = findTraineeByUsername.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    @Benchmark
+    public int findTrainerUsernamesByName() throws SQLException {
+        var id = randomUserId(true);
+        findTrainerUsernamesByName.setString(1, "first" + id);
+        findTrainerUsernamesByName.setString(2, "last" + id);
+        var found = 0;
+        try (var resultSet = findTrainerUsernamesByName.executeQuery()) {
+            while (resultSet.next()) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    @Benchmark
+    public int registerTrainee() throws SQLException {
+        var id = nextId++;
+        var values = new Object[]{id, "first" + id, "last" + id, "first" + id + ".last" + id};
+        var inserted = 0;
+        for (int i = 0; i < insertTrainee.length; i++) {
+            for (int index = 1; index <= insertParameterCounts[i]; index++) {
+                insertTrainee[i].setObject(index, values[index - 1]);
+            }
+            inserted += insertTrainee[i].executeUpdate();
+        }
+
+        return inserted;
+    }
+
+    private long randomUserId(boolean trainer) {
+        var id = ThreadLocalRandom.current().nextLong(1, users / TRAINER_EVERY + 1) * TRAINER_EVERY;
+        return trainer ? id : id - 1;
+    }
+}
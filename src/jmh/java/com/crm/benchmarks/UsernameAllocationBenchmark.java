@@ -0,0 +1,100 @@
+package com.crm.benchmarks;
+
+import com.crm.CrmApplication;
+import com.crm.repositories.TraineeRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.services.impl.UsernameAllocator;
+import com.crm.utils.UserUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the latency of allocating a username for a person with many existing homonyms
+ * ({@code John.Smith}, {@code John.Smith1}, ...) through the application's own beans: probing every candidate
+ * with {@code TraineeRepo.existsByUserName} versus {@link UsernameAllocator#allocateUsername}, which fetches all
+ * taken usernames with one prefix query through {@code UserRepo} and picks the free suffix in memory.
+ *
+ * Starts the application on a random port against an in-memory H2 database migrated by Flyway, with empty
+ * startup data files, and registers the homonyms through {@code TraineeRepo}. Every repository call runs in its
+ * own transaction, as it does on the registration path. On a remote database every probe additionally pays
+ * the network latency. Run with {@code ./gradlew jmh -Pjmh.includes=UsernameAllocationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+public class UsernameAllocationBenchmark {
+    private static final String FIRST_NAME = "John";
+    private static final String LAST_NAME = "Smith";
+
+    @Param({"10", "100", "1000"})
+    private int homonyms;
+
+    private ConfigurableApplicationContext context;
+    private UsernameAllocator usernameAllocator;
+    private TraineeRepo traineeRepo;
+    private Path emptyDataFile;
+    private Trainee newUser;
+
+    @Setup
+    public void setUp() throws IOException {
+        emptyDataFile = Files.writeString(Files.createTempFile("benchmark-data", ".json"), "[]");
+        context = new SpringApplicationBuilder(CrmApplication.class)
+                .run(
+                        "--APP_NAME=username-allocation-benchmark",
+                        "--APP_PORT=0",
+                        "--spring.datasource.url=jdbc:h2:mem:usernames_" + homonyms + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.docker.compose.enabled=false",
+                        "--data.file.trainee_data=" + emptyDataFile,
+                        "--data.file.trainer_data=" + emptyDataFile,
+                        "--data.file.training_data=" + emptyDataFile,
+                        "--gym.search.enabled=false",
+                        "--logging.level.root=WARN"
+                );
+        usernameAllocator = context.getBean(UsernameAllocator.class);
+        traineeRepo = context.getBean(TraineeRepo.class);
+
+        var baseUsername = UserUtils.generateBaseUsername(FIRST_NAME, LAST_NAME);
+        traineeRepo.saveAll(IntStream.range(0, homonyms)
+                .mapToObj(i -> Trainee.builder()
+                        .firstName(FIRST_NAME)
+                        .lastName(LAST_NAME)
+                        .userName(i == 0 ? baseUsername : baseUsername + i)
+                        .password("hash")
+                        .isActive(true)
+                        .build())
+                .toList());
+
+        newUser = Trainee.builder()
+                .firstName(FIRST_NAME)
+                .lastName(LAST_NAME)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(emptyDataFile);
+    }
+
+    @Benchmark
+    public String probeLoop() {
+        return UserUtils.generateUniqueUsername(newUser, traineeRepo::existsByUserName);
+    }
+
+    @Benchmark
+    public String prefixQuery() {
+        return usernameAllocator.allocateUsername(newUser);
+    }
+}
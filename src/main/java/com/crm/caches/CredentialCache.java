@@ -0,0 +1,89 @@
+package com.crm.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+/**
+ * Bounded cache of recently verified credentials, placed in front of the password hash check.
+ *
+ * Entries are keyed by username and hold an HMAC over the stored password hash and the inputted password,
+ * so neither the raw password nor a replayable digest is kept in memory. Binding the digest to the stored hash
+ * also means an entry stops matching as soon as the password hash changes, even if the change happened on
+ * another node. Entries expire after a configurable TTL and are evicted by size.
+ */
+@Slf4j
+@Component
+public class CredentialCache {
+    private static final String CACHE_NAME = "credentials";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int GENERATED_SECRET_LENGTH = 32;
+
+    private final Cache<String, byte[]> verifiedCredentials;
+    private final SecretKeySpec secretKey;
+
+    public CredentialCache(
+            @Value("${gym.credential-cache.max-size:10000}") long maxSize,
+            @Value("${gym.credential-cache.ttl:PT5M}") Duration ttl,
+            @Value("${gym.credential-cache.secret:}") String secret,
+            MeterRegistry meterRegistry
+    ) {
+        this.verifiedCredentials = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.secretKey = new SecretKeySpec(resolveSecret(secret), HMAC_ALGORITHM);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedCredentials, CACHE_NAME);
+    }
+
+    public boolean isVerified(String username, String passwordHash, String inputtedPassword) {
+        var cachedDigest = verifiedCredentials.getIfPresent(username);
+        return cachedDigest != null && MessageDigest.isEqual(cachedDigest, digest(passwordHash, inputtedPassword));
+    }
+
+    public void markVerified(String username, String passwordHash, String inputtedPassword) {
+        verifiedCredentials.put(username, digest(passwordHash, inputtedPassword));
+    }
+
+    public void invalidate(String username) {
+        log.debug("Invalidating verified credentials for username={}", username);
+        verifiedCredentials.invalidate(username);
+    }
+
+    private byte[] digest(String passwordHash, String inputtedPassword) {
+        try {
+            var mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            mac.update(passwordHash.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(inputtedPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to calculate credential digest", e);
+        }
+    }
+
+    private static byte[] resolveSecret(String secret) {
+        if (secret != null && !secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+
+        log.info("No credential cache secret configured, generating node-local secret");
+        var generated = new byte[GENERATED_SECRET_LENGTH];
+        new SecureRandom().nextBytes(generated);
+        return generated;
+    }
+}
@@ -0,0 +1,100 @@
+package com.crm.caches;
+
+import com.crm.dtos.trainer.TrainerSummary;
+import com.crm.enums.TrainingType;
+import com.crm.utils.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the pages of trainers not assigned to a trainee, grouped per trainee.
+ *
+ * All pages of a trainee are dropped together once a transaction changing the trainee's trainings commits,
+ * and all trainees are dropped when a trainer is added or changed. A page loaded concurrently with such a
+ * change is stored into the group that was just dropped, so it never outlives the invalidation. Entries also
+ * expire after a configurable TTL, which bounds the staleness caused by changes made on other nodes.
+ */
+@Slf4j
+@Component
+public class UnassignedTrainersCache {
+    private static final String CACHE_NAME = "unassigned-trainers";
+
+    private final Cache<Long, Map<PageKey, List<TrainerSummary>>> pagesByTrainee;
+    private final int maxPagesPerTrainee;
+
+    public UnassignedTrainersCache(
+            @Value("${gym.unassigned-trainers-cache.max-size:10000}") long maxSize,
+            @Value("${gym.unassigned-trainers-cache.max-pages-per-trainee:20}") int maxPagesPerTrainee,
+            @Value("${gym.unassigned-trainers-cache.ttl:PT10M}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.pagesByTrainee = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.maxPagesPerTrainee = maxPagesPerTrainee;
+
+        CaffeineCacheMetrics.monitor(meterRegistry, pagesByTrainee, CACHE_NAME);
+    }
+
+    /**
+     * @return the cached page of the trainee, or the page returned by the loader, which is cached for the next call
+     */
+    public List<TrainerSummary> get(
+            Long traineeId,
+            TrainingType specialization,
+            Long afterId,
+            int limit,
+            Supplier<List<TrainerSummary>> loader
+    ) {
+        var pages = pagesByTrainee.get(traineeId, id -> new ConcurrentHashMap<>());
+        var key = new PageKey(specialization, afterId, limit);
+
+        var page = pages.get(key);
+        if (page == null) {
+            page = List.copyOf(loader.get());
+            if (pages.size() < maxPagesPerTrainee) {
+                pages.putIfAbsent(key, page);
+            }
+        }
+
+        return page;
+    }
+
+    /**
+     * Drops the pages of the trainee once the current transaction commits, or right away outside a transaction.
+     */
+    public void invalidate(Long traineeId) {
+        if (traineeId != null) {
+            TransactionUtils.afterCommit(() -> {
+                log.debug("Invalidating unassigned trainers of trainee with id={}", traineeId);
+                pagesByTrainee.invalidate(traineeId);
+            });
+        }
+    }
+
+    /**
+     * Drops the pages of all trainees once the current transaction commits, or right away outside a transaction.
+     */
+    public void invalidateAll() {
+        TransactionUtils.afterCommit(() -> {
+            log.debug("Invalidating unassigned trainers of all trainees");
+            pagesByTrainee.invalidateAll();
+        });
+    }
+
+    private record PageKey(TrainingType specialization, Long afterId, int limit) {
+    }
+}
@@ -0,0 +1,258 @@
+package com.crm.caches;
+
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Node-local Bloom filter over usernames and per-role {@code firstName.lastName} pairs.
+ *
+ * A negative answer is definite, so lookups for names that never existed can skip the database.
+ * The filter is built from a streaming scan of the users table once the application is ready and
+ * until then it never reports a name as absent. Saved users are added right away; deleted users can
+ * not be removed from a Bloom filter and only raise the false-positive rate until the next rebuild,
+ * which also happens automatically when the expected number of insertions is exceeded.
+ *
+ * Users saved on other nodes or inserted by SQL are not seen until this node rebuilds its filter, so it is
+ * disabled by default and must only be enabled with {@code gym.username-filter.enabled=true} when a single
+ * node owns the database. While disabled, it never reports a name as absent.
+ */
+@Slf4j
+@Component
+public class UsernameBloomFilter {
+    private static final String USERNAME_KEY = "username:";
+    private static final String TRAINEE_NAME_KEY = "trainee-name:";
+    private static final String TRAINER_NAME_KEY = "trainer-name:";
+    private static final int KEYS_PER_USER = 2;
+
+    private final UserRepo userRepo;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final Counter skippedLookups;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile Filter filter;
+    private volatile Filter filterUnderConstruction;
+
+    public UsernameBloomFilter(
+            UserRepo userRepo,
+            PlatformTransactionManager transactionManager,
+            @Value("${gym.username-filter.enabled:false}") boolean enabled,
+            @Value("${gym.username-filter.expected-insertions:100000}") long expectedInsertions,
+            @Value("${gym.username-filter.fpp:0.01}") double falsePositiveProbability,
+            MeterRegistry meterRegistry
+    ) {
+        this.userRepo = userRepo;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+
+        this.skippedLookups = meterRegistry.counter("gym.username.filter.skipped.lookups");
+        Gauge.builder("gym.username.filter.fpp", this, bloomFilter -> bloomFilter.currentFilter().expectedFpp())
+                .description("Estimated false positive probability of the username filter")
+                .register(meterRegistry);
+        Gauge.builder("gym.username.filter.memory", this, bloomFilter -> bloomFilter.currentFilter().sizeInBytes())
+                .description("Memory used by the username filter bit array")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("gym.username.filter.insertions", this, bloomFilter -> bloomFilter.currentFilter().insertions())
+                .description("Keys inserted into the username filter")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        if (enabled && rebuilding.compareAndSet(false, true)) {
+            new SimpleAsyncTaskExecutor("username-filter-").execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.error("Username filter rebuild failed, lookups will go to the database", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Builds a new filter from all users and swaps it in. Users saved while the scan runs are added to both filters.
+     */
+    public void rebuild() {
+        var userCount = userRepo.count();
+        var newFilter = new Filter(Math.max(expectedInsertions, userCount * KEYS_PER_USER * 2), falsePositiveProbability);
+        filterUnderConstruction = newFilter;
+
+        log.info("Rebuilding username filter for {} users", userCount);
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (var userKeys = userRepo.streamUserKeys()) {
+                userKeys.forEach(row -> put(newFilter, (Class<?>) row[0], (String) row[1], (String) row[2], (String) row[3]));
+            }
+        });
+
+        filter = newFilter;
+        filterUnderConstruction = null;
+        log.info("Username filter rebuilt, keys={}, memory={} bytes", newFilter.insertions(), newFilter.sizeInBytes());
+    }
+
+    public void put(User user) {
+        if (!enabled) {
+            return;
+        }
+
+        for (var target : new Filter[]{filter, filterUnderConstruction}) {
+            if (target != null) {
+                put(target, user.getClass(), user.getUserName(), user.getFirstName(), user.getLastName());
+            }
+        }
+
+        var current = filter;
+        if (current != null && current.insertions() > current.expectedInsertions()) {
+            log.info("Username filter is over capacity, scheduling rebuild");
+            rebuildInBackground();
+        }
+    }
+
+    /**
+     * @return {@code true} only if no user with this username was ever saved on this node or found by the last scan
+     */
+    public boolean isUsernameAbsent(String username) {
+        return isAbsent(USERNAME_KEY + username);
+    }
+
+    /**
+     * @return {@code true} only if no user of the role with these names was ever saved on this node or found by the last scan
+     */
+    public boolean isNameAbsent(Class<? extends User> role, String firstName, String lastName) {
+        return isAbsent(nameKey(role, firstName, lastName));
+    }
+
+    private boolean isAbsent(String key) {
+        var current = filter;
+        if (!enabled || current == null || current.mightContain(key)) {
+            return false;
+        }
+
+        skippedLookups.increment();
+        return true;
+    }
+
+    private Filter currentFilter() {
+        var current = filter;
+        return current != null ? current : Filter.EMPTY;
+    }
+
+    private static void put(Filter target, Class<?> role, String userName, String firstName, String lastName) {
+        target.put(USERNAME_KEY + userName);
+        target.put(nameKey(role, firstName, lastName));
+    }
+
+    private static String nameKey(Class<?> role, String firstName, String lastName) {
+        var prefix = Trainee.class.isAssignableFrom(role) ? TRAINEE_NAME_KEY : TRAINER_NAME_KEY;
+        return prefix + firstName + "." + lastName;
+    }
+
+    /**
+     * Bloom filter over a lock-free bit array with double hashing of a 64-bit FNV-1a hash.
+     */
+    static final class Filter {
+        static final Filter EMPTY = new Filter(1, 0.5);
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashFunctions;
+        private final long expectedInsertions;
+        private final AtomicLong insertions = new AtomicLong();
+
+        Filter(long expectedInsertions, double falsePositiveProbability) {
+            var optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE));
+            this.bitCount = (long) bits.length() * Long.SIZE;
+            this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        void put(String key) {
+            var hash = hash(key);
+            var hash1 = (int) hash;
+            var hash2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashFunctions; i++) {
+                var bit = bitIndex(hash1 + i * hash2);
+                var word = (int) (bit >>> 6);
+                var mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+            insertions.incrementAndGet();
+        }
+
+        boolean mightContain(String key) {
+            var hash = hash(key);
+            var hash1 = (int) hash;
+            var hash2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashFunctions; i++) {
+                var bit = bitIndex(hash1 + i * hash2);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double expectedFpp() {
+            return Math.pow(1 - Math.exp(-(double) hashFunctions * insertions.get() / bitCount), hashFunctions);
+        }
+
+        long sizeInBytes() {
+            return bitCount / Byte.SIZE;
+        }
+
+        long insertions() {
+            return insertions.get();
+        }
+
+        long expectedInsertions() {
+            return expectedInsertions;
+        }
+
+        private long bitIndex(int combinedHash) {
+            return ((combinedHash & 0xFFFFFFFFL) % bitCount);
+        }
+
+        private static long hash(String key) {
+            var hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
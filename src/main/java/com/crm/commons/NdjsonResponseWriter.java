@@ -0,0 +1,90 @@
+package com.crm.commons;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes rows as newline-delimited JSON while they are produced, so the response never holds the whole result.
+ *
+ * The output is flushed every {@code gym.export.flush-size} rows, which lets the client start reading before
+ * the source query has finished. Responses are streamed on the export executor, so a request arriving while all of its
+ * threads are busy is rejected with a {@link TaskRejectedException}. It is thrown on the request thread before the
+ * response is started, and by the executor itself when another export took the last thread in the meantime.
+ */
+@Slf4j
+@Component
+public class NdjsonResponseWriter {
+    private final ThreadPoolTaskExecutor exportExecutor;
+    private final ObjectWriter objectWriter;
+    private final int flushSize;
+
+    public NdjsonResponseWriter(
+            @Qualifier("exportExecutor") ThreadPoolTaskExecutor exportExecutor,
+            ObjectMapper objectMapper,
+            @Value("${gym.export.flush-size:500}") int flushSize
+    ) {
+        this.exportExecutor = exportExecutor;
+        this.objectWriter = objectMapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .withRootValueSeparator("");
+        this.flushSize = flushSize;
+    }
+
+    /**
+     * Must be called on the request thread, it replaces the executor of the current asynchronous request.
+     *
+     * @param source pushes every row to the given consumer; it is called on the export thread once streaming starts
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(Consumer<Consumer<T>> source) {
+        if (exportExecutor.getActiveCount() >= exportExecutor.getMaxPoolSize()) {
+            throw new TaskRejectedException("All " + exportExecutor.getMaxPoolSize() + " export threads are busy");
+        }
+
+        var request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        WebAsyncUtils.getAsyncManager(request).setTaskExecutor(exportExecutor);
+
+        StreamingResponseBody body = outputStream -> {
+            try (var generator = objectWriter.createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+                var rowCount = new long[1];
+                source.accept(row -> {
+                    try {
+                        generator.writeObject(row);
+                        generator.writeRaw('\n');
+                        if (++rowCount[0] % flushSize == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                generator.flush();
+                log.info("Streamed {} rows as NDJSON", rowCount[0]);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
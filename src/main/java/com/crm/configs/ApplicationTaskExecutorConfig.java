@@ -0,0 +1,22 @@
+package com.crm.configs;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor running Spring MVC asynchronous work, such as {@code Callable} and {@code StreamingResponseBody} results.
+ *
+ * Boot only creates it when the context has no other {@code Executor}, so it is declared here next to the hashing,
+ * database and health check executors. It is sized by {@code spring.task.execution.pool}, and requests it can not
+ * accept are rejected instead of falling back to a thread per task.
+ */
+@Configuration
+public class ApplicationTaskExecutorConfig {
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.crm.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor continuing asynchronous requests with their database work once the password hashing is done,
+ * so that the hashing threads are never blocked on connections or queries.
+ */
+@Configuration
+public class DbExecutorConfig {
+    @Bean
+    public ThreadPoolTaskExecutor dbExecutor(
+            @Value("${gym.db.pool-size:10}") int poolSize,
+            @Value("${gym.db.queue-capacity:100}") int queueCapacity
+    ) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("db-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+
+        return executor;
+    }
+}
@@ -0,0 +1,27 @@
+package com.crm.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Executor streaming NDJSON exports. Every export holds a thread and a database connection until its last row is
+ * written, so only {@code gym.export.max-concurrent} exports run at once and the others are rejected, not queued.
+ */
+@Configuration
+public class ExportExecutorConfig {
+    @Bean
+    public ThreadPoolTaskExecutor exportExecutor(@Value("${gym.export.max-concurrent:2}") int maxConcurrent) {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("export-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+
+        return executor;
+    }
+}
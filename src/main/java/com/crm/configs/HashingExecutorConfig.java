@@ -0,0 +1,29 @@
+package com.crm.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class HashingExecutorConfig {
+    @Bean
+    public ThreadPoolTaskExecutor hashingExecutor(
+            @Value("${gym.hashing.pool-size:0}") int poolSize,
+            @Value("${gym.hashing.queue-capacity:64}") int queueCapacity
+    ) {
+        var threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+
+        return executor;
+    }
+}
@@ -0,0 +1,39 @@
+package com.crm.configs;
+
+import com.crm.security.PasswordHasher;
+import com.crm.security.impl.Argon2PasswordHasher;
+import com.crm.security.impl.DelegatingPasswordHasher;
+import com.crm.security.impl.JBCryptPasswordHasher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+
+@Configuration
+public class PasswordHasherConfig {
+    @Bean
+    public JBCryptPasswordHasher jbcryptPasswordHasher(@Value("${gym.password.bcrypt.cost:10}") int cost) {
+        return new JBCryptPasswordHasher(cost);
+    }
+
+    @Bean
+    public Argon2PasswordHasher argon2PasswordHasher(
+            @Value("${gym.password.argon2.memory-kib:19456}") int memoryKib,
+            @Value("${gym.password.argon2.iterations:2}") int iterations,
+            @Value("${gym.password.argon2.parallelism:1}") int parallelism
+    ) {
+        return new Argon2PasswordHasher(memoryKib, iterations, parallelism);
+    }
+
+    @Bean
+    @Primary
+    public PasswordHasher passwordHasher(
+            @Value("${gym.password.algorithm:jbcrypt}") String algorithm,
+            JBCryptPasswordHasher jbcryptPasswordHasher,
+            Argon2PasswordHasher argon2PasswordHasher
+    ) {
+        return new DelegatingPasswordHasher(algorithm, List.of(jbcryptPasswordHasher, argon2PasswordHasher));
+    }
+}
@@ -1,42 +1,47 @@
 package com.crm.converters.mappers;
 
 import com.crm.dtos.trainee.TraineeDto;
+import com.crm.dtos.trainee.TraineePatchDto;
 import com.crm.dtos.trainee.TraineeView;
 import com.crm.repositories.entities.Trainee;
-import com.crm.repositories.entities.Trainer;
-import com.crm.repositories.entities.Training;
 import org.mapstruct.*;
 
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
-
 @Mapper(componentModel = "spring")
 public interface TraineeMapper {
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "trainings", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Trainee toTrainee(TraineeDto traineeDto);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "isActive", source = "active")
     TraineeDto toDto(Trainee trainee);
 
-    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    /**
+     * Replaces the profile fields and the status, clearing the fields missing in the update.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "userName", ignore = true)
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "trainings", ignore = true)
     void updateTrainee(@MappingTarget Trainee existingTrainee, Trainee updatedTrainee);
 
+    /**
+     * Copies only the profile fields present in the patch.
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "userName", ignore = true)
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "active", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "trainings", ignore = true)
+    void patchTrainee(@MappingTarget Trainee existingTrainee, TraineePatchDto patchDto);
+
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(source = "active", target = "isActive")
-    @Mapping(target = "trainersList", source = "trainings", qualifiedByName = "mapTrainingsToTrainers")
+    @Mapping(target = "trainersList", ignore = true)
+    @Mapping(target = "trainingCounts", ignore = true)
     TraineeView toTraineeView(Trainee trainee);
-
-    @Named("mapTrainingsToTrainers")
-    default Set<TraineeView.TrainerListView> mapTrainingsToTrainers(List<Training> trainings) {
-        if (trainings == null) return null;
-        return trainings.stream()
-                .map(training -> toTrainerView(training.getTrainer()))
-                .collect(Collectors.toSet());
-    }
-
-    TraineeView.TrainerListView toTrainerView(Trainer trainer);
 }
@@ -1,6 +1,7 @@
 package com.crm.converters.mappers;
 
 import com.crm.dtos.trainer.TrainerDto;
+import com.crm.dtos.trainer.TrainerPatchDto;
 import com.crm.dtos.trainer.TrainerView;
 import com.crm.dtos.training.TrainingView;
 import com.crm.repositories.entities.Trainer;
@@ -11,7 +12,8 @@ import org.mapstruct.*;
 public interface TrainerMapper {
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(source = "active", target = "isActive")
-    @Mapping(target = "trainingViews", source = "trainings")
+    @Mapping(target = "trainingViews", ignore = true)
+    @Mapping(target = "trainingCounts", ignore = true)
     TrainerView toTrainerView(Trainer trainer);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
@@ -21,12 +23,31 @@ public interface TrainerMapper {
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "trainings", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Trainer toTrainer(TrainerDto trainerDto);
 
-    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    /**
+     * Replaces the profile fields and the status, clearing the fields missing in the update.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "userName", ignore = true)
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "trainings", ignore = true)
     void updateTrainer(@MappingTarget Trainer existingTrainer, Trainer updatedTrainer);
 
+    /**
+     * Copies only the profile fields present in the patch.
+     */
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "userName", ignore = true)
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "active", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "trainings", ignore = true)
+    void patchTrainer(@MappingTarget Trainer existingTrainer, TrainerPatchDto patchDto);
+
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "isActive", source = "active")
     TrainerDto toDto(Trainer trainer);
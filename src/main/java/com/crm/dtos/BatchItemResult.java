@@ -0,0 +1,30 @@
+package com.crm.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchItemResult<T> {
+    private int index;
+    private Status status;
+    private T result;
+    private String error;
+
+    public static <T> BatchItemResult<T> created(int index, T result) {
+        return new BatchItemResult<>(index, Status.CREATED, result, null);
+    }
+
+    public static <T> BatchItemResult<T> failed(int index, String error) {
+        return new BatchItemResult<>(index, Status.FAILED, null, error);
+    }
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+}
@@ -0,0 +1,7 @@
+package com.crm.dtos;
+
+/**
+ * Rows removed by the set-based delete of a user together with its trainings.
+ */
+public record DeletedRows(int users, int trainings) {
+}
@@ -36,4 +36,5 @@ public abstract class UserDto {
     private String password;
 
     private Boolean isActive;
+    private Long version;
 }
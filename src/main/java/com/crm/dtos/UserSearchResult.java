@@ -0,0 +1,24 @@
+package com.crm.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserSearchResult {
+    private Long id;
+    private String userName;
+    private String firstName;
+    private String lastName;
+    private Role role;
+    private float score;
+
+    public enum Role {
+        TRAINEE,
+        TRAINER
+    }
+}
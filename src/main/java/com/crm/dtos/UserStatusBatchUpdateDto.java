@@ -0,0 +1,24 @@
+package com.crm.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserStatusBatchUpdateDto {
+    @NotEmpty(message = "User names must not be empty")
+    @Builder.Default
+    private List<String> userNames = new ArrayList<>();
+
+    @NotNull(message = "isActive must not be null")
+    private Boolean isActive;
+}
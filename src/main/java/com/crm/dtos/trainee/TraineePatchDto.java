@@ -0,0 +1,43 @@
+package com.crm.dtos.trainee;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Partial update of a trainee profile: absent (null) fields are left unchanged, present ones are validated
+ * like on registration.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TraineePatchDto {
+    @NotBlank(message = "User name is mandatory")
+    private String userName;
+
+    @Size(min = 2, max = 255, message = "First name must be between 2 and 255 characters")
+    @Pattern(regexp = "^[A-Za-z]+$", message = "First name must contain only letters")
+    private String firstName;
+
+    @Size(min = 2, max = 255, message = "Last name must be between 2 and 255 characters")
+    @Pattern(regexp = "^[A-Za-z]+$", message = "Last name must contain only letters")
+    private String lastName;
+
+    @Past(message = "Date of birth must be in the past")
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private LocalDate dateOfBirth;
+
+    @Size(min = 5, max = 255, message = "Address must be between 5 and 255 characters")
+    private String address;
+
+    private Long version;
+}
@@ -1,5 +1,6 @@
 package com.crm.dtos.trainee;
 
+import com.crm.dtos.training.TrainingCounts;
 import com.crm.enums.TrainingType;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.AllArgsConstructor;
@@ -23,9 +24,11 @@ public class TraineeView {
     private LocalDate dateOfBirth;
     private String address;
     private Boolean isActive;
+    private Long version;
 
     @Builder.Default
     private Set<TrainerListView> trainersList = new HashSet<>();
+    private TrainingCounts trainingCounts;
 
     @Data
     @AllArgsConstructor
@@ -0,0 +1,31 @@
+package com.crm.dtos.trainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last returned trainer in the {@code id} order, passed to clients as an opaque token.
+ */
+public record TrainerCursor(Long id) {
+    public static String encode(TrainerSummary trainer) {
+        var position = String.valueOf(trainer.getId());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded position or {@code null} for a missing token, which means the first page
+     * @throws IllegalArgumentException if the token was not issued by {@link #encode}
+     */
+    public static TrainerCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            var position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return new TrainerCursor(Long.valueOf(position));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor is invalid: " + token);
+        }
+    }
+}
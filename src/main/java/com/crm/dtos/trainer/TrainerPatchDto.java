@@ -0,0 +1,35 @@
+package com.crm.dtos.trainer;
+
+import com.crm.enums.TrainingType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Partial update of a trainer profile: absent (null) fields are left unchanged, present ones are validated
+ * like on registration.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TrainerPatchDto {
+    @NotBlank(message = "User name is mandatory")
+    private String userName;
+
+    @Size(min = 2, max = 255, message = "First name must be between 2 and 255 characters")
+    @Pattern(regexp = "^[A-Za-z]+$", message = "First name must contain only letters")
+    private String firstName;
+
+    @Size(min = 2, max = 255, message = "Last name must be between 2 and 255 characters")
+    @Pattern(regexp = "^[A-Za-z]+$", message = "Last name must contain only letters")
+    private String lastName;
+
+    private TrainingType specialization;
+
+    private Long version;
+}
@@ -0,0 +1,20 @@
+package com.crm.dtos.trainer;
+
+import com.crm.enums.TrainingType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TrainerSummary {
+    private Long id;
+    private String userName;
+    private String firstName;
+    private String lastName;
+    private TrainingType specialization;
+    private Boolean isActive;
+}
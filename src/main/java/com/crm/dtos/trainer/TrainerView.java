@@ -1,5 +1,6 @@
 package com.crm.dtos.trainer;
 
+import com.crm.dtos.training.TrainingCounts;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import lombok.AllArgsConstructor;
@@ -7,8 +8,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -20,7 +21,9 @@ public class TrainerView {
     private String userName;
     private TrainingType specialization;
     private Boolean isActive;
+    private Long version;
 
     @Builder.Default
-    private Set<TrainingView> trainingViews = new HashSet<>();
+    private List<TrainingView> trainingViews = new ArrayList<>();
+    private TrainingCounts trainingCounts;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.crm.dtos.training;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregate numbers of a user's trainings, shown in profiles instead of the whole training history.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TrainingCounts {
+    private Long total;
+    private Long upcoming;
+}
@@ -0,0 +1,38 @@
+package com.crm.dtos.training;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last returned training in the {@code (trainingDate, id)} order, passed to clients as an opaque token.
+ */
+public record TrainingCursor(LocalDateTime trainingDate, Long id) {
+    private static final String SEPARATOR = "|";
+
+    public static String encode(TrainingView training) {
+        var position = training.getTrainingDate() + SEPARATOR + training.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the decoded position or {@code null} for a missing token, which means the first page
+     * @throws IllegalArgumentException if the token was not issued by {@link #encode}
+     */
+    public static TrainingCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            var position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var separatorIndex = position.lastIndexOf(SEPARATOR);
+            return new TrainingCursor(
+                    LocalDateTime.parse(position.substring(0, separatorIndex)),
+                    Long.valueOf(position.substring(separatorIndex + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor is invalid: " + token);
+        }
+    }
+}
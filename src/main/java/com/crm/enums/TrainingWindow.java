@@ -0,0 +1,15 @@
+package com.crm.enums;
+
+/**
+ * Which trainings a profile view embeds; the full history is paged through the trainings endpoints.
+ */
+public enum TrainingWindow {
+    /**
+     * The nearest trainings from now on, earliest first.
+     */
+    UPCOMING,
+    /**
+     * The latest trainings by date, including upcoming ones, latest first.
+     */
+    RECENT
+}
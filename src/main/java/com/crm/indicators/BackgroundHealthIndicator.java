@@ -0,0 +1,102 @@
+package com.crm.indicators;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Health indicator evaluated on a background schedule, so that a health request only reads the last result.
+ *
+ * The result is UNKNOWN until the first check completes. A check that does not complete within
+ * {@code gym.health.timeout} is reported DOWN, and no new check is started until it returns, so a hanging
+ * database holds at most one thread per indicator. A result older than {@code gym.health.max-staleness}
+ * is reported DOWN as well, since it means the checks stopped running.
+ */
+@Slf4j
+public abstract class BackgroundHealthIndicator implements HealthIndicator {
+    private final HealthCheckRunner healthCheckRunner;
+    private final AtomicBoolean checking = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    protected BackgroundHealthIndicator(HealthCheckRunner healthCheckRunner) {
+        this.healthCheckRunner = healthCheckRunner;
+    }
+
+    /**
+     * Evaluates the health; runs on the health check executor.
+     */
+    protected abstract Health check();
+
+    @Override
+    public Health health() {
+        var current = snapshot;
+        if (current == null) {
+            return Health.unknown().withDetail("message", "Not checked yet").build();
+        }
+
+        var stale = Duration.between(current.checkedAt(), Instant.now()).compareTo(healthCheckRunner.getMaxStaleness()) > 0;
+        var builder = stale
+                ? Health.down().withDetail("message", "Last check is older than " + healthCheckRunner.getMaxStaleness())
+                : Health.status(current.health().getStatus());
+
+        return builder.withDetails(current.health().getDetails())
+                .withDetail("checkedAt", current.checkedAt())
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${gym.health.refresh-interval:PT10S}")
+    public void refresh() {
+        refreshAsync();
+    }
+
+    CompletableFuture<Void> refreshAsync() {
+        if (!checking.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return healthCheckRunner.run(this::checkAndRelease)
+                .handle((health, failure) -> failure == null ? health : failed(failure))
+                .thenAccept(this::store);
+    }
+
+    private Health checkAndRelease() {
+        try {
+            return check();
+        } finally {
+            checking.set(false);
+        }
+    }
+
+    private Health failed(Throwable failure) {
+        var cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof TimeoutException) {
+            return Health.down().withDetail("error", "Timed out after " + healthCheckRunner.getTimeout()).build();
+        }
+        if (cause instanceof TaskRejectedException) {
+            // never started, so the check did not release the flag
+            checking.set(false);
+        }
+
+        return Health.down(cause).build();
+    }
+
+    private void store(Health health) {
+        var previous = snapshot;
+        if (previous == null || !previous.health().getStatus().equals(health.getStatus())) {
+            log.info("{} is {} {}", getClass().getSimpleName(), health.getStatus(), health.getDetails());
+        }
+        snapshot = new Snapshot(health, Instant.now());
+    }
+
+    private record Snapshot(Health health, Instant checkedAt) {
+    }
+}
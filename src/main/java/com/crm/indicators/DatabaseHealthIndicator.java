@@ -1,18 +1,20 @@
 package com.crm.indicators;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
-@RequiredArgsConstructor
-public class DatabaseHealthIndicator implements HealthIndicator {
+public class DatabaseHealthIndicator extends BackgroundHealthIndicator {
     private final JdbcTemplate jdbcTemplate;
 
+    public DatabaseHealthIndicator(JdbcTemplate jdbcTemplate, HealthCheckRunner healthCheckRunner) {
+        super(healthCheckRunner);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
     @Override
-    public Health health() {
+    protected Health check() {
         try {
             var result = jdbcTemplate.queryForObject("SELECT 1", Integer.class);
             if (result == 1) {
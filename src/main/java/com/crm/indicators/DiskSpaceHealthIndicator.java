@@ -1,17 +1,20 @@
 package com.crm.indicators;
 
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 
 @Component
-public class DiskSpaceHealthIndicator implements HealthIndicator {
+public class DiskSpaceHealthIndicator extends BackgroundHealthIndicator {
     private static final long THRESHOLD_BYTES = 100 * 1024 * 1024;
 
+    public DiskSpaceHealthIndicator(HealthCheckRunner healthCheckRunner) {
+        super(healthCheckRunner);
+    }
+
     @Override
-    public Health health() {
+    protected Health check() {
         var diskPartition = new File("/");
         long freeSpace = diskPartition.getFreeSpace();
 
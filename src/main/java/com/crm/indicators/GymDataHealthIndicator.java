@@ -2,19 +2,22 @@ package com.crm.indicators;
 
 import com.crm.repositories.TraineeRepo;
 import com.crm.repositories.TrainerRepo;
-import lombok.RequiredArgsConstructor;
 import org.springframework.boot.actuate.health.Health;
-import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 
 @Component
-@RequiredArgsConstructor
-public class GymDataHealthIndicator implements HealthIndicator {
+public class GymDataHealthIndicator extends BackgroundHealthIndicator {
     private final TraineeRepo traineeRepository;
     private final TrainerRepo trainerRepository;
 
+    public GymDataHealthIndicator(TraineeRepo traineeRepository, TrainerRepo trainerRepository, HealthCheckRunner healthCheckRunner) {
+        super(healthCheckRunner);
+        this.traineeRepository = traineeRepository;
+        this.trainerRepository = trainerRepository;
+    }
+
     @Override
-    public Health health() {
+    protected Health check() {
         long trainees = traineeRepository.count();
         long trainers = trainerRepository.count();
 
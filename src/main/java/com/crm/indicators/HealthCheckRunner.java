@@ -0,0 +1,49 @@
+package com.crm.indicators;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs health checks on the health check executor, so that a check stuck on the database never holds
+ * a probe thread, and fails the checks not completed within the timeout.
+ */
+@Component
+public class HealthCheckRunner {
+    private final ThreadPoolTaskExecutor healthCheckExecutor;
+    @Getter
+    private final Duration timeout;
+    @Getter
+    private final Duration maxStaleness;
+
+    public HealthCheckRunner(
+            @Qualifier("healthCheckExecutor") ThreadPoolTaskExecutor healthCheckExecutor,
+            @Value("${gym.health.timeout:PT2S}") Duration timeout,
+            @Value("${gym.health.max-staleness:PT30S}") Duration maxStaleness
+    ) {
+        this.healthCheckExecutor = healthCheckExecutor;
+        this.timeout = timeout;
+        this.maxStaleness = maxStaleness;
+    }
+
+    /**
+     * @return the result of the check, completed with a {@link java.util.concurrent.TimeoutException} when the check
+     * does not complete within the timeout, or with a {@link TaskRejectedException} when no thread is available
+     */
+    <T> CompletableFuture<T> run(Supplier<T> check) {
+        try {
+            return CompletableFuture.supplyAsync(check, healthCheckExecutor)
+                    .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
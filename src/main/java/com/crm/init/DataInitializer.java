@@ -1,73 +1,310 @@
 package com.crm.init;
 
+import com.crm.dtos.BatchItemResult;
+import com.crm.metrics.DataImportMetrics;
+import com.crm.repositories.DataImportRepo;
+import com.crm.repositories.TraineeRepo;
+import com.crm.repositories.TrainerRepo;
+import com.crm.repositories.TrainingRepo;
+import com.crm.repositories.entities.DataImport;
 import com.crm.repositories.entities.Trainee;
 import com.crm.repositories.entities.Trainer;
 import com.crm.repositories.entities.Training;
+import com.crm.repositories.entities.User;
 import com.crm.services.TraineeService;
 import com.crm.services.TrainerService;
 import com.crm.services.TrainingService;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Imports the initial trainees, trainers and trainings in background once the application is ready.
+ *
+ * Files are read with the Jackson streaming parser and imported chunk by chunk; only the database ids of
+ * the imported users are kept in memory. A SHA-256 checksum of the files is stored after a successful import
+ * and an unchanged dataset is skipped on the next start.
+ *
+ * The import is idempotent, so a changed dataset or a rerun after a failure does not duplicate records:
+ * trainees are matched by first name, last name and date of birth, trainers by first name, last name and
+ * specialization, and trainings by trainee, trainer, name and date, and only the missing ones are saved.
+ * The training file refers to users by their position in the trainee file followed by the trainer file,
+ * which is resolved to the id of the matched or saved user.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class DataInitializer {
+    private static final String DATASET = "init";
+
     @Value("${data.file.trainee_data}")
     private String traineeDataFilePath;
     @Value("${data.file.trainer_data}")
     private String trainerDataFilePath;
     @Value("${data.file.training_data}")
     private String trainingDataFilePath;
+    @Value("${data.import.chunk-size:500}")
+    private int chunkSize;
 
     private final TraineeService traineeService;
     private final TrainerService trainerService;
     private final TrainingService trainingService;
+    private final TraineeRepo traineeRepo;
+    private final TrainerRepo trainerRepo;
+    private final TrainingRepo trainingRepo;
+    private final DataImportRepo dataImportRepo;
+    private final DataImportMetrics dataImportMetrics;
     private final ObjectMapper objectMapper;
 
-    @PostConstruct
-    public void initializeData() {
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeDataInBackground() {
+        new SimpleAsyncTaskExecutor("data-import-").execute(() -> {
+            try {
+                initializeData();
+            } catch (RuntimeException e) {
+                log.error("Background data initialization failed", e);
+            }
+        });
+    }
+
+    public synchronized void initializeData() {
         try {
+            var checksum = calculateChecksum();
+            var isImported = dataImportRepo.findById(DATASET)
+                    .map(dataImport -> dataImport.getChecksum().equals(checksum))
+                    .orElse(false);
+
+            if (isImported) {
+                log.info("Data with checksum={} was already imported, skipping initialization", checksum);
+                dataImportMetrics.recordSkipped();
+                return;
+            }
+
+            var traineeIds = new ArrayList<Long>();
+            var trainerIds = new ArrayList<Long>();
+
             log.info("TraineeData`s initialization started ...");
-            initializeTraineeData();
+            importFile(traineeDataFilePath, "trainee", Trainee.class, trainees -> importTrainees(trainees, traineeIds));
             log.info("TraineeData`s initialization successfully completed");
 
             log.info("TrainerData`s initialization started ...");
-            initializeTrainerData();
+            importFile(trainerDataFilePath, "trainer", Trainer.class, trainers -> importTrainers(trainers, trainerIds));
             log.info("TrainerData`s initialization successfully completed");
 
             log.info("TrainingData`s initialization started ...");
-            initializeTrainingData();
+            importFile(trainingDataFilePath, "training", Training.class, trainings -> importTrainings(trainings, traineeIds, trainerIds));
             log.info("TrainingData`s initialization successfully completed");
+
+            dataImportRepo.save(new DataImport(DATASET, checksum, LocalDateTime.now()));
         } catch (Exception e) {
             log.error("Data initialization failed ...");
             throw new RuntimeException("Something went wrong with file deserialization", e);
         }
     }
 
-    private void initializeTraineeData() throws Exception {
-        List<Trainee> trainees = objectMapper.readValue(new File(traineeDataFilePath), new TypeReference<>() {
-        });
-        trainees.forEach(traineeService::save);
+    private <T> void importFile(String filePath, String dataset, Class<T> type, Function<List<T>, ChunkOutcome> chunkImporter) throws IOException {
+        var file = new File(filePath);
+        var fileSize = Math.max(file.length(), 1);
+        var sample = dataImportMetrics.startImport(dataset);
+
+        try (var parser = objectMapper.createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("File " + filePath + " must contain a JSON array");
+            }
+
+            var chunk = new ArrayList<T>(chunkSize);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                chunk.add(objectMapper.readValue(parser, type));
+
+                if (chunk.size() == chunkSize) {
+                    var outcome = chunkImporter.apply(chunk);
+                    var progress = (double) parser.currentLocation().getByteOffset() / fileSize;
+                    dataImportMetrics.recordChunk(dataset, outcome.imported(), outcome.failed(), progress);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                var outcome = chunkImporter.apply(chunk);
+                dataImportMetrics.recordChunk(dataset, outcome.imported(), outcome.failed(), 1.0);
+            }
+        }
+
+        dataImportMetrics.finishImport(dataset, sample);
     }
 
-    private void initializeTrainerData() throws Exception {
-        List<Trainer> trainers = objectMapper.readValue(new File(trainerDataFilePath), new TypeReference<>() {
-        });
-        trainers.forEach(trainerService::save);
+    private ChunkOutcome importTrainees(List<Trainee> trainees, List<Long> traineeIds) {
+        return importUsers(trainees, traineeIds, DataInitializer::naturalKey, traineeRepo::findAllByFirstNameInAndLastNameIn, traineeService::saveAll);
     }
 
-    private void initializeTrainingData() throws Exception {
-        List<Training> trainings = objectMapper.readValue(new File(trainingDataFilePath), new TypeReference<>() {
-        });
-        trainings.forEach(trainingService::save);
+    private ChunkOutcome importTrainers(List<Trainer> trainers, List<Long> trainerIds) {
+        return importUsers(trainers, trainerIds, DataInitializer::naturalKey, trainerRepo::findAllByFirstNameInAndLastNameIn, trainerService::saveAll);
+    }
+
+    /**
+     * Saves the users that are not in the database yet and appends the ids of all users of the chunk,
+     * {@code null} for the failed ones, to {@code userIds}.
+     */
+    private <T extends User> ChunkOutcome importUsers(
+            List<T> users,
+            List<Long> userIds,
+            Function<T, List<Object>> naturalKey,
+            BiFunction<Set<String>, Set<String>, List<T>> findByNames,
+            Function<List<T>, CompletableFuture<List<BatchItemResult<T>>>> saveAll
+    ) {
+        var firstNames = users.stream().map(User::getFirstName).collect(Collectors.toSet());
+        var lastNames = users.stream().map(User::getLastName).collect(Collectors.toSet());
+        var existingIds = findByNames.apply(firstNames, lastNames)
+                .stream()
+                .collect(Collectors.toMap(naturalKey, User::getId, (first, second) -> first));
+
+        var chunkIds = new ArrayList<Long>(Collections.nCopies(users.size(), null));
+        var newUsers = new ArrayList<T>();
+        var newUserIndexes = new ArrayList<Integer>();
+        for (int index = 0; index < users.size(); index++) {
+            var existingId = existingIds.get(naturalKey.apply(users.get(index)));
+            if (existingId != null) {
+                chunkIds.set(index, existingId);
+            } else {
+                newUsers.add(users.get(index));
+                newUserIndexes.add(index);
+            }
+        }
+
+        if (newUsers.size() < users.size()) {
+            log.info("{} of {} records in chunk were already imported, skipping them", users.size() - newUsers.size(), users.size());
+        }
+
+        var failed = 0L;
+        if (!newUsers.isEmpty()) {
+            var results = saveAll.apply(newUsers).join();
+            failed = countFailed(results);
+            results.stream()
+                    .filter(result -> result.getStatus() == BatchItemResult.Status.CREATED)
+                    .forEach(result -> chunkIds.set(newUserIndexes.get(result.getIndex()), result.getResult().getId()));
+        }
+
+        userIds.addAll(chunkIds);
+        return new ChunkOutcome(newUsers.size() - failed, failed);
+    }
+
+    private ChunkOutcome importTrainings(List<Training> trainings, List<Long> traineeIds, List<Long> trainerIds) {
+        var failed = 0L;
+        var resolved = new ArrayList<Training>(trainings.size());
+        for (int index = 0; index < trainings.size(); index++) {
+            var training = trainings.get(index);
+            var traineeId = resolveFileId(training.getTrainee(), traineeIds, 0);
+            var trainerId = resolveFileId(training.getTrainer(), trainerIds, traineeIds.size());
+
+            if (traineeId == null || trainerId == null) {
+                log.warn("Import of record #{} in chunk failed: its trainee or trainer was not imported", index);
+                failed++;
+            } else {
+                training.getTrainee().setId(traineeId);
+                training.getTrainer().setId(trainerId);
+                resolved.add(training);
+            }
+        }
+
+        var traineeIdsInChunk = resolved.stream().map(training -> training.getTrainee().getId()).collect(Collectors.toSet());
+        var datesInChunk = resolved.stream().map(Training::getTrainingDate).collect(Collectors.toSet());
+        var existing = resolved.isEmpty()
+                ? Set.<List<Object>>of()
+                : trainingRepo.findAllByTraineeIdInAndTrainingDateIn(traineeIdsInChunk, datesInChunk)
+                        .stream()
+                        .map(DataInitializer::naturalKey)
+                        .collect(Collectors.toSet());
+
+        var newTrainings = resolved.stream()
+                .filter(training -> !existing.contains(naturalKey(training)))
+                .toList();
+        if (newTrainings.size() < resolved.size()) {
+            log.info("{} of {} records in chunk were already imported, skipping them", resolved.size() - newTrainings.size(), trainings.size());
+        }
+
+        var failedNew = newTrainings.isEmpty() ? 0L : countFailed(trainingService.importAll(newTrainings));
+
+        return new ChunkOutcome(newTrainings.size() - failedNew, failed + failedNew);
+    }
+
+    /**
+     * @param user   a user referenced by its 1-based position in the trainee file followed by the trainer file
+     * @param ids    database ids of the users of one file by their position in it
+     * @param offset number of users in the files before this one
+     * @return the database id of the user or {@code null} if it is not in this file or was not imported
+     */
+    private static Long resolveFileId(User user, List<Long> ids, int offset) {
+        if (user == null || user.getId() == null) {
+            return null;
+        }
+
+        var position = user.getId() - offset - 1;
+        return position >= 0 && position < ids.size() ? ids.get((int) position) : null;
+    }
+
+    private static List<Object> naturalKey(Trainee trainee) {
+        return Arrays.asList(trainee.getFirstName(), trainee.getLastName(), trainee.getDateOfBirth());
+    }
+
+    private static List<Object> naturalKey(Trainer trainer) {
+        return Arrays.asList(trainer.getFirstName(), trainer.getLastName(), trainer.getSpecialization());
+    }
+
+    private static List<Object> naturalKey(Training training) {
+        return Arrays.asList(
+                training.getTrainee().getId(),
+                training.getTrainer().getId(),
+                training.getTrainingName(),
+                training.getTrainingDate()
+        );
+    }
+
+    private static long countFailed(List<? extends BatchItemResult<?>> results) {
+        var failedResults = results.stream()
+                .filter(result -> result.getStatus() == BatchItemResult.Status.FAILED)
+                .toList();
+
+        failedResults.forEach(result -> log.warn("Import of record #{} in chunk failed: {}", result.getIndex(), result.getError()));
+        return failedResults.size();
+    }
+
+    private String calculateChecksum() throws IOException, NoSuchAlgorithmException {
+        var digest = MessageDigest.getInstance("SHA-256");
+        for (var filePath : List.of(traineeDataFilePath, trainerDataFilePath, trainingDataFilePath)) {
+            try (InputStream in = new DigestInputStream(Files.newInputStream(Path.of(filePath)), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @param imported number of records saved, records found already imported are not counted
+     * @param failed   number of records that could not be imported
+     */
+    private record ChunkOutcome(long imported, long failed) {
     }
 }
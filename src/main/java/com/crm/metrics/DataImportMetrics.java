@@ -0,0 +1,53 @@
+package com.crm.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Progress and throughput of the startup data import, per dataset file.
+ *
+ * {@code gym.data.import.progress} is the share of the file already parsed (0..1),
+ * the throughput is the rate of {@code gym.data.import.records}.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataImportMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Double> progressByDataset = new ConcurrentHashMap<>();
+
+    public Timer.Sample startImport(String dataset) {
+        progressByDataset.put(dataset, 0.0);
+        Gauge.builder("gym.data.import.progress", progressByDataset, progress -> progress.getOrDefault(dataset, 0.0))
+                .tag("dataset", dataset)
+                .description("Share of the dataset file already imported")
+                .register(meterRegistry);
+
+        return Timer.start(meterRegistry);
+    }
+
+    public void recordChunk(String dataset, long imported, long failed, double progress) {
+        recordsCounter(dataset, "imported").increment(imported);
+        recordsCounter(dataset, "failed").increment(failed);
+        progressByDataset.put(dataset, progress);
+    }
+
+    public void finishImport(String dataset, Timer.Sample sample) {
+        progressByDataset.put(dataset, 1.0);
+        sample.stop(meterRegistry.timer("gym.data.import.duration", "dataset", dataset));
+    }
+
+    public void recordSkipped() {
+        meterRegistry.counter("gym.data.import.skipped").increment();
+    }
+
+    private Counter recordsCounter(String dataset, String outcome) {
+        return meterRegistry.counter("gym.data.import.records", "dataset", dataset, "outcome", outcome);
+    }
+}
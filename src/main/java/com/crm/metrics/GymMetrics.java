@@ -3,23 +3,142 @@ package com.crm.metrics;
 import com.crm.repositories.TraineeRepo;
 import com.crm.repositories.TrainerRepo;
 import com.crm.repositories.TrainingRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Trainer;
+import com.crm.repositories.entities.Training;
+import com.crm.utils.TransactionUtils;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
-import lombok.RequiredArgsConstructor;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Number of trainers, trainees and trainings served from in-memory counters, so that a scrape costs nothing
+ * on the database.
+ *
+ * The counters are loaded by the first reconciliation right after startup and report NaN until then. Committed
+ * inserts and deletes of entities are counted by a Hibernate post-commit listener; set-based deletes bypass it
+ * and are reported with {@link #recordDeleted}. A background reconciliation periodically corrects the counters
+ * with {@code COUNT(*)}, which covers rows changed on other nodes and changes racing with the previous count.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
-public class GymMetrics {
-    private final TrainerRepo trainerRepository;
-    private final TraineeRepo traineeRepository;
-    private final TrainingRepo trainingRepository;
-    private final MeterRegistry meterRegistry;
+public class GymMetrics implements PostCommitInsertEventListener, PostCommitDeleteEventListener {
+    private final EntityManagerFactory entityManagerFactory;
+    private final Map<Class<?>, EntityCounter> counters;
+
+    public GymMetrics(
+            TrainerRepo trainerRepository,
+            TraineeRepo traineeRepository,
+            TrainingRepo trainingRepository,
+            EntityManagerFactory entityManagerFactory,
+            MeterRegistry meterRegistry
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.counters = Map.of(
+                Trainer.class, new EntityCounter("gym.trainers.count", trainerRepository::count),
+                Trainee.class, new EntityCounter("gym.trainees.count", traineeRepository::count),
+                Training.class, new EntityCounter("gym.trainings.count", trainingRepository::count)
+        );
+
+        counters.values().forEach(counter -> Gauge.builder(counter.name, counter, EntityCounter::value)
+                .register(meterRegistry));
+    }
 
     @PostConstruct
-    public void registerMetrics() {
-        meterRegistry.gauge("gym.trainers.count", trainerRepository, TrainerRepo::count);
-        meterRegistry.gauge("gym.trainees.count", traineeRepository, TraineeRepo::count);
-        meterRegistry.gauge("gym.trainings.count", trainingRepository, TrainingRepo::count);
+    public void registerListeners() {
+        var listenerRegistry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        listenerRegistry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listenerRegistry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Scheduled(fixedDelayString = "${gym.metrics.reconcile-interval:PT5M}")
+    public void reconcile() {
+        counters.values().forEach(EntityCounter::reconcile);
+    }
+
+    /**
+     * Counts entities deleted by set-based statements once the current transaction commits.
+     */
+    public void recordDeleted(Class<?> entityClass, long count) {
+        if (count > 0) {
+            TransactionUtils.afterCommit(() -> add(entityClass, -count));
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        add(event.getPersister().getMappedClass(), 1);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        add(event.getPersister().getMappedClass(), -1);
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return counters.containsKey(persister.getMappedClass());
+    }
+
+    private void add(Class<?> entityClass, long delta) {
+        var counter = counters.get(entityClass);
+        if (counter != null) {
+            counter.count.add(delta);
+        }
+    }
+
+    private static final class EntityCounter {
+        private final String name;
+        private final LongSupplier databaseCount;
+        private final LongAdder count = new LongAdder();
+        private volatile boolean loaded;
+
+        private EntityCounter(String name, LongSupplier databaseCount) {
+            this.name = name;
+            this.databaseCount = databaseCount;
+        }
+
+        private void reconcile() {
+            try {
+                var drift = databaseCount.getAsLong() - count.sum();
+                count.add(drift);
+                if (loaded && drift != 0) {
+                    log.info("Counter {} drifted by {} from the database, corrected", name, drift);
+                }
+                loaded = true;
+            } catch (RuntimeException e) {
+                log.warn("Reconciliation of counter {} failed: {}", name, e.getMessage());
+            }
+        }
+
+        private double value() {
+            return loaded ? count.sum() : Double.NaN;
+        }
     }
-}
\ No newline at end of file
+}
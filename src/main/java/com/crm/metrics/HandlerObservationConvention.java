@@ -0,0 +1,28 @@
+package com.crm.metrics;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Adds the controller method handling the request to {@code http.server.requests} as the {@code handler} tag,
+ * e.g. {@code TraineeController.register}, so that the latency of each endpoint is attributed to its method.
+ * Histogram buckets and SLO boundaries are set with {@code management.metrics.distribution.*[http.server.requests]}.
+ */
+@Component
+public class HandlerObservationConvention extends DefaultServerRequestObservationConvention {
+    private static final String HANDLER = "handler";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        var handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        var value = handler instanceof HandlerMethod method
+                ? method.getBeanType().getSimpleName() + "." + method.getMethod().getName()
+                : "none";
+
+        return super.getLowCardinalityKeyValues(context).and(HANDLER, value);
+    }
+}
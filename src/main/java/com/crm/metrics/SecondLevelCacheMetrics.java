@@ -0,0 +1,45 @@
+package com.crm.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hit ratio of every Hibernate second-level cache region, including the natural id regions.
+ *
+ * Raw hit, miss and put counts per region are exported by Hibernate itself as
+ * {@code hibernate.second.level.cache.requests} and {@code hibernate.second.level.cache.puts}.
+ * All of them need {@code hibernate.generate_statistics}, which the prod profile turns off, so there the ratio is NaN.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (var region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("gym.hibernate.cache.hit.ratio", statistics, stats -> hitRatio(stats, region))
+                    .tag("region", region)
+                    .description("Share of second-level cache lookups served from the region")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+
+        var requests = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return requests == 0 ? Double.NaN : (double) regionStatistics.getHitCount() / requests;
+    }
+}
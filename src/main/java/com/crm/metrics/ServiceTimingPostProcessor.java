@@ -0,0 +1,83 @@
+package com.crm.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Times every public method of the beans in {@code com.crm.services.impl} with the {@code gym.service} timer,
+ * tagged by class, method, outcome and exception class.
+ *
+ * The advice is added in front of the transactional one, so the time includes the commit. Methods returning
+ * a {@link CompletionStage} are timed until the stage completes. Histogram buckets and SLO boundaries are set
+ * with {@code management.metrics.distribution.*[gym.service]}.
+ */
+@Component
+public class ServiceTimingPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+    static final String TIMER_NAME = "gym.service";
+    private static final String SERVICES_PACKAGE = "com.crm.services.impl";
+
+    public ServiceTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        // the registry is resolved lazily, so that it is still customized by the meter filters
+        this.advisor = new DefaultPointcutAdvisor(new PublicServiceMethods(), new TimingInterceptor(meterRegistry));
+        setBeforeExistingAdvisors(true);
+        setProxyTargetClass(true);
+    }
+
+    private static final class PublicServiceMethods extends StaticMethodMatcherPointcut {
+        private PublicServiceMethods() {
+            setClassFilter(type -> SERVICES_PACKAGE.equals(type.getPackageName()));
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+        }
+    }
+
+    private record TimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) implements MethodInterceptor {
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            var registry = meterRegistry.getObject();
+            var sample = Timer.start(registry);
+            Object result;
+            try {
+                result = invocation.proceed();
+            } catch (Throwable e) {
+                stop(registry, sample, invocation, e);
+                throw e;
+            }
+
+            if (result instanceof CompletionStage<?> stage) {
+                stage.whenComplete((value, failure) -> stop(registry, sample, invocation, failure));
+            } else {
+                stop(registry, sample, invocation, null);
+            }
+
+            return result;
+        }
+
+        private static void stop(MeterRegistry registry, Timer.Sample sample, MethodInvocation invocation, Throwable failure) {
+            var cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            sample.stop(Timer.builder(TIMER_NAME)
+                    .description("Time spent in service methods")
+                    .tag("class", AopUtils.getTargetClass(invocation.getThis()).getSimpleName())
+                    .tag("method", invocation.getMethod().getName())
+                    .tag("outcome", cause == null ? "SUCCESS" : "ERROR")
+                    .tag("exception", cause == null ? "none" : cause.getClass().getSimpleName())
+                    .register(registry));
+        }
+    }
+}
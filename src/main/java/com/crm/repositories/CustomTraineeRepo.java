@@ -1,10 +1,15 @@
 package com.crm.repositories;
 
+import com.crm.dtos.DeletedRows;
 import com.crm.enums.TrainingType;
-import com.crm.repositories.entities.Training;
+import com.crm.dtos.training.TrainingCursor;
+import com.crm.dtos.training.TrainingView;
+import com.crm.repositories.entities.Trainee;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Custom repository interface for fetching trainee-specific training sessions based on dynamic criteria.
@@ -13,6 +18,32 @@ import java.util.List;
  * The search criteria are flexible, allowing filtering based on optional parameters such as date range, trainer username, and training type.
  */
 public interface CustomTraineeRepo {
+    /**
+     * Finds a trainee by the {@code userName} natural id, served from the second-level cache when possible.
+     *
+     * @param userName the username of the trainee
+     * @return the trainee, or empty if there is no user with this username or the user is a trainer
+     */
+    Optional<Trainee> findByUserName(String userName);
+
+    /**
+     * Finds a trainee by username in the database, bypassing the second-level cache, so that a password or status
+     * changed on another node is seen at once. Used by the credential checks.
+     *
+     * @param userName the username of the trainee
+     * @return the trainee, or empty if there is no trainee with this username
+     */
+    Optional<Trainee> findByUserNameUncached(String userName);
+
+    /**
+     * Deletes the trainee and all of its trainings with three set-based statements instead of cascading
+     * the removal over every loaded training, and evicts the trainee from the second-level cache.
+     *
+     * @param trainee the trainee to delete, managed or detached
+     * @return the number of deleted trainees, 0 if the trainee did not exist, and of their deleted trainings
+     */
+    DeletedRows deleteWithTrainings(Trainee trainee);
+
     /**
      * Retrieves a list of training sessions for a given trainee, applying optional filters as needed.
      *
@@ -21,9 +52,44 @@ public interface CustomTraineeRepo {
      * @param toDate the end date for filtering training sessions (optional, can be null)
      * @param trainerUserName the username of the trainer (optional, can be null)
      * @param trainingType the type of training (optional, can be null)
-     * @return a list of {@link Training} entities matching the given criteria
+     * @return a list of {@link TrainingView} projections matching the given criteria, selected in a single statement
+     * without loading any entity
+     */
+    List<TrainingView> getTraineeTrainingsByCriteria(
+            String traineeUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String trainerUserName,
+            TrainingType trainingType
+    );
+
+    /**
+     * Retrieves one page of the training sessions matching {@link #getTraineeTrainingsByCriteria} in the
+     * {@code (trainingDate, id)} order. The page starts right after the given position with a seek predicate
+     * instead of an offset, so every page costs the same.
+     *
+     * @param after the position of the last training of the previous page (optional, null for the first page)
+     * @param limit the maximum number of trainings to return
+     * @return a list of {@link TrainingView} projections ordered by training date and id
+     */
+    List<TrainingView> getTraineeTrainingsPage(
+            String traineeUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String trainerUserName,
+            TrainingType trainingType,
+            TrainingCursor after,
+            int limit
+    );
+
+    /**
+     * Streams the training sessions matching {@link #getTraineeTrainingsByCriteria} from a forward-only cursor in the
+     * {@code (trainingDate, id)} order. Rows are fetched from the database in batches of {@code gym.export.fetch-size},
+     * so the caller must consume and close the stream inside a transaction.
+     *
+     * @return a stream of {@link TrainingView} projections ordered by training date and id
      */
-    List<Training> getTraineeTrainingsByCriteria(
+    Stream<TrainingView> streamTraineeTrainingsByCriteria(
             String traineeUsername,
             LocalDate fromDate,
             LocalDate toDate,
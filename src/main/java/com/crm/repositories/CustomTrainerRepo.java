@@ -1,10 +1,17 @@
 package com.crm.repositories;
 
+import com.crm.dtos.DeletedRows;
+import com.crm.dtos.trainer.TrainerCursor;
+import com.crm.dtos.trainer.TrainerSummary;
 import com.crm.enums.TrainingType;
-import com.crm.repositories.entities.Training;
+import com.crm.dtos.training.TrainingCursor;
+import com.crm.dtos.training.TrainingView;
+import com.crm.repositories.entities.Trainer;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Custom repository for fetching trainer-specific training sessions based on dynamic criteria.
@@ -13,6 +20,32 @@ import java.util.List;
  * The search criteria are flexible, allowing filtering based on optional parameters such as date range, trainee username, and training type.
  */
 public interface CustomTrainerRepo {
+    /**
+     * Finds a trainer by the {@code userName} natural id, served from the second-level cache when possible.
+     *
+     * @param userName the username of the trainer
+     * @return the trainer, or empty if there is no user with this username or the user is a trainee
+     */
+    Optional<Trainer> findByUserName(String userName);
+
+    /**
+     * Finds a trainer by username in the database, bypassing the second-level cache, so that a password or status
+     * changed on another node is seen at once. Used by the credential checks.
+     *
+     * @param userName the username of the trainer
+     * @return the trainer, or empty if there is no trainer with this username
+     */
+    Optional<Trainer> findByUserNameUncached(String userName);
+
+    /**
+     * Deletes the trainer and all of its trainings with three set-based statements instead of cascading
+     * the removal over every loaded training, and evicts the trainer from the second-level cache.
+     *
+     * @param trainer the trainer to delete, managed or detached
+     * @return the number of deleted trainers, 0 if the trainer did not exist, and of their deleted trainings
+     */
+    DeletedRows deleteWithTrainings(Trainer trainer);
+
     /**
      * Retrieves a list of training sessions conducted by a given trainer, applying optional filters as needed.
      *
@@ -21,13 +54,66 @@ public interface CustomTrainerRepo {
      * @param toDate the end date for filtering training sessions (optional, can be null)
      * @param traineeUserName the username of the trainee (optional, can be null)
      * @param trainingType the type of training (optional, can be null)
-     * @return a list of {@link Training} entities matching the given criteria
+     * @return a list of {@link TrainingView} projections matching the given criteria, selected in a single statement
+     * without loading any entity
+     */
+    List<TrainingView> getTrainerTrainingsByCriteria(
+            String trainerUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String traineeUserName,
+            TrainingType trainingType
+    );
+
+    /**
+     * Retrieves one page of the training sessions matching {@link #getTrainerTrainingsByCriteria} in the
+     * {@code (trainingDate, id)} order. The page starts right after the given position with a seek predicate
+     * instead of an offset, so every page costs the same.
+     *
+     * @param after the position of the last training of the previous page (optional, null for the first page)
+     * @param limit the maximum number of trainings to return
+     * @return a list of {@link TrainingView} projections ordered by training date and id
+     */
+    List<TrainingView> getTrainerTrainingsPage(
+            String trainerUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String traineeUserName,
+            TrainingType trainingType,
+            TrainingCursor after,
+            int limit
+    );
+
+    /**
+     * Streams the training sessions matching {@link #getTrainerTrainingsByCriteria} from a forward-only cursor in the
+     * {@code (trainingDate, id)} order. Rows are fetched from the database in batches of {@code gym.export.fetch-size},
+     * so the caller must consume and close the stream inside a transaction.
+     *
+     * @return a stream of {@link TrainingView} projections ordered by training date and id
      */
-    List<Training> getTrainerTrainingsByCriteria(
+    Stream<TrainingView> streamTrainerTrainingsByCriteria(
             String trainerUsername,
             LocalDate fromDate,
             LocalDate toDate,
             String traineeUserName,
             TrainingType trainingType
     );
-}
\ No newline at end of file
+
+    /**
+     * Retrieves one page of the trainers who have no training with the given trainee, in the {@code id} order.
+     * Assigned trainers are excluded with a {@code NOT EXISTS} anti-join probing the {@code (trainee_id, trainer_id)}
+     * index, and the page starts right after the given position with a seek predicate.
+     *
+     * @param traineeId the id of the trainee (required)
+     * @param specialization the specialization of the trainers (optional, can be null)
+     * @param after the position of the last trainer of the previous page (optional, null for the first page)
+     * @param limit the maximum number of trainers to return
+     * @return a list of {@link TrainerSummary} projections ordered by id, selected without loading any entity
+     */
+    List<TrainerSummary> getUnassignedTrainersPage(
+            Long traineeId,
+            TrainingType specialization,
+            TrainerCursor after,
+            int limit
+    );
+}
@@ -0,0 +1,7 @@
+package com.crm.repositories;
+
+import com.crm.repositories.entities.DataImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DataImportRepo extends JpaRepository<DataImport, String> {
+}
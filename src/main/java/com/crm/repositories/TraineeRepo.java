@@ -1,17 +1,69 @@
 package com.crm.repositories;
 
+import com.crm.dtos.trainee.TraineeView;
+import com.crm.dtos.training.TrainingCounts;
 import com.crm.repositories.entities.Trainee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public interface TraineeRepo extends JpaRepository<Trainee, Long>, CustomTraineeRepo {
-    Optional<Trainee> findByUserName(String userName);
-
     boolean existsByUserName(String userName);
 
+    List<Trainee> findAllByFirstNameInAndLastNameIn(Collection<String> firstNames, Collection<String> lastNames);
+
     @Query("SELECT COUNT(t) > 0 FROM Trainer t WHERE t.firstName = :firstName AND t.lastName = :lastName")
     boolean existsTrainerByFirstAndLastName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    @Query("SELECT CONCAT(t.firstName, '.', t.lastName) FROM Trainer t WHERE t.firstName IN :firstNames AND t.lastName IN :lastNames")
+    Set<String> findTrainerBaseUsernames(@Param("firstNames") Collection<String> firstNames, @Param("lastNames") Collection<String> lastNames);
+
+    @Query("""
+            SELECT DISTINCT new com.crm.dtos.trainee.TraineeView$TrainerListView(
+                tr.userName, tr.firstName, tr.lastName, tr.specialization
+            )
+            FROM Training t
+            JOIN t.trainer tr
+            WHERE t.trainee.id = :traineeId
+            ORDER BY tr.userName
+            """)
+    List<TraineeView.TrainerListView> getTrainersOfTrainee(@Param("traineeId") Long traineeId);
+
+    @Query("""
+            SELECT new com.crm.dtos.training.TrainingCounts(
+                COUNT(t), COALESCE(SUM(CASE WHEN t.trainingDate >= :from THEN 1L ELSE 0L END), 0L)
+            )
+            FROM Training t
+            WHERE t.trainee.id = :traineeId
+            """)
+    TrainingCounts countTrainings(@Param("traineeId") Long traineeId, @Param("from") LocalDateTime from);
+
+    /**
+     * Sets the status of the trainee in one statement; the cached users are evicted through the {@code users} query space.
+     * The statement is the {@code Trainee.updateStatus} named native query, as it depends on the table layout of the users.
+     *
+     * @return the number of updated rows, 0 if there is no trainee with this username
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    int updateStatus(@Param("userName") String userName, @Param("active") boolean active);
+
+    /**
+     * Sets the status of the trainees with the given usernames whose status differs, in one statement.
+     * The statement is the {@code Trainee.updateStatuses} named native query.
+     *
+     * @return the number of trainees whose status was changed
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    int updateStatuses(@Param("userNames") Collection<String> userNames, @Param("active") boolean active);
 }
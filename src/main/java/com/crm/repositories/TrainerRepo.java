@@ -1,27 +1,83 @@
 package com.crm.repositories;
 
+import com.crm.dtos.training.TrainingCounts;
+import com.crm.dtos.training.TrainingView;
 import com.crm.repositories.entities.Trainer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface TrainerRepo extends JpaRepository<Trainer, Long>, CustomTrainerRepo {
-    Optional<Trainer> findByUserName(String userName);
-
     boolean existsByUserName(String userName);
 
+    List<Trainer> findAllByFirstNameInAndLastNameIn(Collection<String> firstNames, Collection<String> lastNames);
+
+    @Query("SELECT t.id FROM Trainee t WHERE t.userName = :userName")
+    Optional<Long> findTraineeIdByUserName(@Param("userName") String userName);
+
+    @Query("SELECT COUNT(t) > 0 FROM Trainee t WHERE t.firstName = :firstName AND t.lastName = :lastName")
+    boolean existsTraineeByFirstAndLastName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    @Query("SELECT CONCAT(t.firstName, '.', t.lastName) FROM Trainee t WHERE t.firstName IN :firstNames AND t.lastName IN :lastNames")
+    Set<String> findTraineeBaseUsernames(@Param("firstNames") Collection<String> firstNames, @Param("lastNames") Collection<String> lastNames);
+
     @Query("""
-             SELECT tr FROM Trainer tr
-             WHERE tr.id NOT IN (
-               SELECT t.trainer.id FROM Training t
-               WHERE t.trainee.userName = :traineeUsername
+            SELECT new com.crm.dtos.training.TrainingView(
+                t.id, t.trainee.id, t.trainer.id, t.trainingName, t.trainingType, t.trainingDate, t.trainingDuration
             )
+            FROM Training t
+            WHERE t.trainer.id = :trainerId AND t.trainingDate >= :from
+            ORDER BY t.trainingDate, t.id
             """)
-    List<Trainer> getUnassignedTrainersByTraineeUsername(@Param("traineeUsername") String traineeUsername);
+    List<TrainingView> getUpcomingTrainings(@Param("trainerId") Long trainerId, @Param("from") LocalDateTime from, Limit limit);
 
-    @Query("SELECT COUNT(t) > 0 FROM Trainee t WHERE t.firstName = :firstName AND t.lastName = :lastName")
-    boolean existsTraineeByFirstAndLastName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+    @Query("""
+            SELECT new com.crm.dtos.training.TrainingView(
+                t.id, t.trainee.id, t.trainer.id, t.trainingName, t.trainingType, t.trainingDate, t.trainingDuration
+            )
+            FROM Training t
+            WHERE t.trainer.id = :trainerId
+            ORDER BY t.trainingDate DESC, t.id DESC
+            """)
+    List<TrainingView> getRecentTrainings(@Param("trainerId") Long trainerId, Limit limit);
+
+    @Query("""
+            SELECT new com.crm.dtos.training.TrainingCounts(
+                COUNT(t), COALESCE(SUM(CASE WHEN t.trainingDate >= :from THEN 1L ELSE 0L END), 0L)
+            )
+            FROM Training t
+            WHERE t.trainer.id = :trainerId
+            """)
+    TrainingCounts countTrainings(@Param("trainerId") Long trainerId, @Param("from") LocalDateTime from);
+
+    /**
+     * Sets the status of the trainer in one statement; the cached users are evicted through the {@code users} query space.
+     * The statement is the {@code Trainer.updateStatus} named native query, as it depends on the table layout of the users.
+     *
+     * @return the number of updated rows, 0 if there is no trainer with this username
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    int updateStatus(@Param("userName") String userName, @Param("active") boolean active);
+
+    /**
+     * Sets the status of the trainers with the given usernames whose status differs, in one statement.
+     * The statement is the {@code Trainer.updateStatuses} named native query.
+     *
+     * @return the number of trainers whose status was changed
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users"))
+    int updateStatuses(@Param("userNames") Collection<String> userNames, @Param("active") boolean active);
 }
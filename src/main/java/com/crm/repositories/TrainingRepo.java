@@ -3,5 +3,10 @@ package com.crm.repositories;
 import com.crm.repositories.entities.Training;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 public interface TrainingRepo extends JpaRepository<Training, Long> {
+    List<Training> findAllByTraineeIdInAndTrainingDateIn(Collection<Long> traineeIds, Collection<LocalDateTime> trainingDates);
 }
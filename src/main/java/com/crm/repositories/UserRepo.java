@@ -0,0 +1,49 @@
+package com.crm.repositories;
+
+import com.crm.repositories.entities.User;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface UserRepo extends JpaRepository<User, Long> {
+    @Query("SELECT u.userName FROM User u WHERE u.userName IN :userNames")
+    Set<String> findExistingUserNames(@Param("userNames") Collection<String> userNames);
+
+    @Query("SELECT u.userName FROM User u WHERE u.userName LIKE :pattern ESCAPE '!'")
+    Set<String> findUserNamesLike(@Param("pattern") String pattern);
+
+    /**
+     * Streams role, username, first and last name of every user; must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT TYPE(u), u.userName, u.firstName, u.lastName FROM User u")
+    Stream<Object[]> streamUserKeys();
+
+    /**
+     * Streams id, role, username, first and last name of every user; must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.id, TYPE(u), u.userName, u.firstName, u.lastName FROM User u")
+    Stream<Object[]> streamUserSearchRows();
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE User u SET u.password = :newPasswordHash
+            WHERE u.userName = :userName AND u.password = :currentPasswordHash
+            """)
+    int updatePasswordHash(
+            @Param("userName") String userName,
+            @Param("currentPasswordHash") String currentPasswordHash,
+            @Param("newPasswordHash") String newPasswordHash
+    );
+}
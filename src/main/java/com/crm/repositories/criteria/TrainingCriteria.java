@@ -0,0 +1,77 @@
+package com.crm.repositories.criteria;
+
+import com.crm.dtos.training.TrainingCursor;
+import com.crm.enums.TrainingType;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Composes {@link TrainingFilter}s; every method adds its filter only when the value is present.
+ */
+public class TrainingCriteria {
+    private final List<TrainingFilter> filters = new ArrayList<>();
+
+    public static TrainingCriteria create() {
+        return new TrainingCriteria();
+    }
+
+    public TrainingCriteria traineeUsername(String username) {
+        return isPresent(username) ? with(new TrainingFilter.TraineeUsername(username)) : this;
+    }
+
+    public TrainingCriteria trainerUsername(String username) {
+        return isPresent(username) ? with(new TrainingFilter.TrainerUsername(username)) : this;
+    }
+
+    public TrainingCriteria traineeName(String name) {
+        return isPresent(name) ? with(new TrainingFilter.TraineeName(name)) : this;
+    }
+
+    public TrainingCriteria fromDate(LocalDate date) {
+        return date != null ? with(new TrainingFilter.FromDate(date)) : this;
+    }
+
+    public TrainingCriteria toDate(LocalDate date) {
+        return date != null ? with(new TrainingFilter.ToDate(date)) : this;
+    }
+
+    public TrainingCriteria trainingType(TrainingType trainingType) {
+        return trainingType != null ? with(new TrainingFilter.OfType(trainingType)) : this;
+    }
+
+    public TrainingCriteria after(TrainingCursor cursor) {
+        return cursor != null ? with(new TrainingFilter.After(cursor)) : this;
+    }
+
+    public TrainingCriteria with(TrainingFilter filter) {
+        filters.add(filter);
+        return this;
+    }
+
+    /**
+     * @return the key of the query shape, equal for all criteria with the same filter types in the same order
+     */
+    String shape() {
+        return filters.stream()
+                .map(filter -> filter.getClass().getName())
+                .collect(Collectors.joining(","));
+    }
+
+    String where() {
+        return filters.isEmpty()
+                ? ""
+                : filters.stream().map(TrainingFilter::predicate).collect(Collectors.joining(" AND ", " WHERE ", ""));
+    }
+
+    void bind(TypedQuery<?> query) {
+        filters.forEach(filter -> filter.bind(query));
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
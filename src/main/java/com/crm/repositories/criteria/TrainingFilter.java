@@ -0,0 +1,116 @@
+package com.crm.repositories.criteria;
+
+import com.crm.dtos.training.TrainingCursor;
+import com.crm.enums.TrainingType;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDate;
+
+/**
+ * A typed predicate over {@code Training t}.
+ *
+ * The predicate text must depend only on the filter type, never on the bound values, because it is part of the
+ * query shape that {@link TrainingQueryEngine} caches. Values are bound as named parameters unique to the filter.
+ */
+public interface TrainingFilter {
+    /**
+     * @return JPQL predicate over the alias {@code t}
+     */
+    String predicate();
+
+    void bind(TypedQuery<?> query);
+
+    record TraineeUsername(String username) implements TrainingFilter {
+        @Override
+        public String predicate() {
+            return "t.trainee.userName = :traineeUsername";
+        }
+
+        @Override
+        public void bind(TypedQuery<?> query) {
+            query.setParameter("traineeUsername", username);
+        }
+    }
+
+    record TrainerUsername(String username) implements TrainingFilter {
+        @Override
+        public String predicate() {
+            return "t.trainer.userName = :trainerUsername";
+        }
+
+        @Override
+        public void bind(TypedQuery<?> query) {
+            query.setParameter("trainerUsername", username);
+        }
+    }
+
+    record TraineeName(String name) implements TrainingFilter {
+        @Override
+        public String predicate() {
+            return "(t.trainee.firstName LIKE :traineeName OR t.trainee.lastName LIKE :traineeName)";
+        }
+
+        @Override
+        public void bind(TypedQuery<?> query) {
+            query.setParameter("traineeName", "%" + name + "%");
+        }
+    }
+
+    /**
+     * Trainings on or after the start of the given day.
+     */
+    record FromDate(LocalDate date) implements TrainingFilter {
+        @Override
+        public String predicate() {
+            return "t.trainingDate >= :fromDate";
+        }
+
+        @Override
+        public void bind(TypedQuery<?> query) {
+            query.setParameter("fromDate", date.atStartOfDay());
+        }
+    }
+
+    /**
+     * Trainings up to the end of the given day.
+     */
+    record ToDate(LocalDate date) implements TrainingFilter {
+        @Override
+        public String predicate() {
+            return "t.trainingDate < :toDateExclusive";
+        }
+
+        @Override
+        public void bind(TypedQuery<?> query) {
+            query.setParameter("toDateExclusive", date.plusDays(1).atStartOfDay());
+        }
+    }
+
+    record OfType(TrainingType trainingType) implements TrainingFilter {
+        @Override
+        public String predicate() {
+            return "t.trainingType = :trainingType";
+        }
+
+        @Override
+        public void bind(TypedQuery<?> query) {
+            query.setParameter("trainingType", trainingType);
+        }
+    }
+
+    /**
+     * Seek predicate for keyset pagination in the {@code (trainingDate, id)} order.
+     */
+    record After(TrainingCursor cursor) implements TrainingFilter {
+        @Override
+        public String predicate() {
+            return "(t.trainingDate, t.id) > (:afterDate, :afterId)";
+        }
+
+        @Override
+        public void bind(TypedQuery<?> query) {
+            query.setParameter("afterDate", cursor.trainingDate());
+            query.setParameter("afterId", cursor.id());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.crm.repositories.criteria;
+
+import com.crm.dtos.training.TrainingView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds {@link TrainingView} projection queries for both trainee and trainer searches.
+ *
+ * The JPQL of every filter combination is composed once and cached by its shape. Because the text of a shape never
+ * changes, Hibernate parses and translates it once as well and serves later calls from its query plan cache, and the
+ * JDBC driver sees the same SQL and can reuse its prepared statement. {@code gym.training.query.shape.cache} counts hits
+ * and misses of the shape cache itself; the plan compilations show as misses of Hibernate's query plan cache, published
+ * as {@code hibernate.cache.query.plan}.
+ */
+@Slf4j
+@Component
+public class TrainingQueryEngine {
+    private static final String PROJECTION = """
+            SELECT new com.crm.dtos.training.TrainingView(
+                t.id, t.trainee.id, t.trainer.id, t.trainingName, t.trainingType, t.trainingDate, t.trainingDuration
+            )
+            FROM Training t""";
+    private static final String ORDER_BY = " ORDER BY t.trainingDate, t.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<String, String> jpqlByShape = new ConcurrentHashMap<>();
+    private final Counter shapeCacheHits;
+    private final Counter shapeCacheMisses;
+
+    public TrainingQueryEngine(MeterRegistry meterRegistry) {
+        this.shapeCacheHits = meterRegistry.counter("gym.training.query.shape.cache", "result", "hit");
+        this.shapeCacheMisses = meterRegistry.counter("gym.training.query.shape.cache", "result", "miss");
+        Gauge.builder("gym.training.query.shapes", jpqlByShape, Map::size)
+                .description("Cached training query shapes")
+                .register(meterRegistry);
+    }
+
+    public TypedQuery<TrainingView> createQuery(TrainingCriteria criteria) {
+        var shape = criteria.shape();
+        var jpql = jpqlByShape.get(shape);
+
+        TypedQuery<TrainingView> query;
+        if (jpql != null) {
+            shapeCacheHits.increment();
+            query = entityManager.createQuery(jpql, TrainingView.class);
+        } else {
+            shapeCacheMisses.increment();
+            var newJpql = jpqlByShape.computeIfAbsent(shape, key -> PROJECTION + criteria.where() + ORDER_BY);
+            log.debug("Compiling training query shape [{}]", shape);
+            query = entityManager.createQuery(newJpql, TrainingView.class);
+        }
+
+        criteria.bind(query);
+        return query;
+    }
+}
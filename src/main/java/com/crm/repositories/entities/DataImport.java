@@ -0,0 +1,30 @@
+package com.crm.repositories.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "data_imports")
+public class DataImport {
+    @Id
+    @Column(name = "dataset", length = 100)
+    private String dataset;
+
+    @Column(name = "checksum", nullable = false, length = 64)
+    private String checksum;
+
+    @Column(name = "imported_at", nullable = false)
+    private LocalDateTime importedAt;
+}
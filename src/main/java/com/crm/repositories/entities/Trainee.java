@@ -15,6 +15,15 @@ import java.util.List;
 @SuperBuilder
 @Entity
 @Table(name = "trainees")
+@NamedNativeQuery(name = "Trainee.updateStatus", query = """
+        UPDATE users SET active = :active, version = version + 1
+        WHERE username = :userName AND EXISTS (SELECT 1 FROM trainees r WHERE r.id = users.id)
+        """)
+@NamedNativeQuery(name = "Trainee.updateStatuses", query = """
+        UPDATE users SET active = :active, version = version + 1
+        WHERE username IN (:userNames) AND active <> :active
+          AND EXISTS (SELECT 1 FROM trainees r WHERE r.id = users.id)
+        """)
 @DynamicUpdate
 @ToString(exclude = "trainings")
 public class Trainee extends User {
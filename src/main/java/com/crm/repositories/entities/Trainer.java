@@ -15,6 +15,15 @@ import java.util.List;
 @SuperBuilder
 @Entity
 @Table(name = "trainers")
+@NamedNativeQuery(name = "Trainer.updateStatus", query = """
+        UPDATE users SET active = :active, version = version + 1
+        WHERE username = :userName AND EXISTS (SELECT 1 FROM trainers r WHERE r.id = users.id)
+        """)
+@NamedNativeQuery(name = "Trainer.updateStatuses", query = """
+        UPDATE users SET active = :active, version = version + 1
+        WHERE username IN (:userNames) AND active <> :active
+          AND EXISTS (SELECT 1 FROM trainers r WHERE r.id = users.id)
+        """)
 @DynamicUpdate
 @ToString(exclude = "trainings")
 public class Trainer extends User {
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 @DynamicUpdate
 public class Training {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainings_seq")
+    @SequenceGenerator(name = "trainings_seq", sequenceName = "trainings_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Data
 @NoArgsConstructor
@@ -13,9 +17,15 @@ import org.hibernate.annotations.DynamicUpdate;
 @Table(name = "users")
 @Inheritance(strategy = InheritanceType.JOINED)
 @DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
 public abstract class User {
+    public static final String CACHE_REGION = "users";
+    public static final String NATURAL_ID_CACHE_REGION = "users-by-username";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -25,6 +35,7 @@ public abstract class User {
     @Column(name = "last_name", nullable = false, length = 100)
     private String lastName;
 
+    @NaturalId(mutable = true)
     @Column(name = "username", unique = true, nullable = false)
     private String userName;
 
@@ -33,4 +44,8 @@ public abstract class User {
 
     @Column(name = "active", nullable = false)
     private boolean isActive;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
 }
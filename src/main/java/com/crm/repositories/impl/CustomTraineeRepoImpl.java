@@ -1,53 +1,107 @@
 package com.crm.repositories.impl;
 
+import com.crm.dtos.DeletedRows;
+import com.crm.dtos.training.TrainingCursor;
+import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import com.crm.repositories.CustomTraineeRepo;
-import com.crm.repositories.entities.Training;
+import com.crm.repositories.criteria.TrainingCriteria;
+import com.crm.repositories.criteria.TrainingFilter;
+import com.crm.repositories.criteria.TrainingQueryEngine;
+import com.crm.repositories.entities.Trainee;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@RequiredArgsConstructor
 public class CustomTraineeRepoImpl implements CustomTraineeRepo {
+    private final TrainingQueryEngine trainingQueryEngine;
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Value("${gym.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    @Override
+    public Optional<Trainee> findByUserName(String userName) {
+        return UserNaturalIdLookup.findByUserName(entityManager, Trainee.class, userName);
+    }
+
     @Override
-    public List<Training> getTraineeTrainingsByCriteria(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType) {
-        var dynamicJpqlQuery = "SELECT t FROM Training t WHERE t.trainee.userName = :traineeUsername";
-
-        if (fromDate != null) {
-            dynamicJpqlQuery += " AND t.trainingDate >= :fromDate";
-        }
-        if (toDate != null) {
-            dynamicJpqlQuery += " AND t.trainingDate <= :toDate";
-        }
-        if (trainerUserName != null && !trainerUserName.isEmpty()) {
-            dynamicJpqlQuery += " AND t.trainer.userName = :trainerUserName";
-        }
-        if (trainingType != null) {
-            dynamicJpqlQuery += " AND t.trainingType = :trainingType";
-        }
-
-        var query = entityManager.createQuery(dynamicJpqlQuery, Training.class);
-        query.setParameter("traineeUsername", traineeUsername);
-
-        if (fromDate != null) {
-            query.setParameter("fromDate", fromDate);
-        }
-        if (toDate != null) {
-            query.setParameter("toDate", toDate);
-        }
-        if (trainerUserName != null && !trainerUserName.isEmpty()) {
-            query.setParameter("trainerUserName", trainerUserName);
-        }
-        if (trainingType != null) {
-            query.setParameter("trainingType", trainingType);
-        }
-
-        return query.getResultList();
+    public Optional<Trainee> findByUserNameUncached(String userName) {
+        return UserNaturalIdLookup.findByUserNameUncached(entityManager, Trainee.class, userName);
+    }
+
+    @Override
+    public DeletedRows deleteWithTrainings(Trainee trainee) {
+        return UserBulkDelete.delete(entityManager, trainee, "trainee_id");
+    }
+
+    @Override
+    public List<TrainingView> getTraineeTrainingsByCriteria(
+            String traineeUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String trainerUserName,
+            TrainingType trainingType
+    ) {
+        var criteria = criteria(traineeUsername, fromDate, toDate, trainerUserName, trainingType);
+        return trainingQueryEngine.createQuery(criteria).getResultList();
+    }
+
+    @Override
+    public List<TrainingView> getTraineeTrainingsPage(
+            String traineeUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String trainerUserName,
+            TrainingType trainingType,
+            TrainingCursor after,
+            int limit
+    ) {
+        var criteria = criteria(traineeUsername, fromDate, toDate, trainerUserName, trainingType).after(after);
+        return trainingQueryEngine.createQuery(criteria)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<TrainingView> streamTraineeTrainingsByCriteria(
+            String traineeUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String trainerUserName,
+            TrainingType trainingType
+    ) {
+        var criteria = criteria(traineeUsername, fromDate, toDate, trainerUserName, trainingType);
+        return trainingQueryEngine.createQuery(criteria)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private static TrainingCriteria criteria(
+            String traineeUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String trainerUserName,
+            TrainingType trainingType
+    ) {
+        return TrainingCriteria.create()
+                .with(new TrainingFilter.TraineeUsername(traineeUsername))
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .trainerUsername(trainerUserName)
+                .trainingType(trainingType);
     }
 }
@@ -1,59 +1,145 @@
 package com.crm.repositories.impl;
 
+import com.crm.dtos.DeletedRows;
+import com.crm.dtos.trainer.TrainerCursor;
+import com.crm.dtos.trainer.TrainerSummary;
+import com.crm.dtos.training.TrainingCursor;
+import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import com.crm.repositories.CustomTrainerRepo;
-import com.crm.repositories.entities.Training;
+import com.crm.repositories.criteria.TrainingCriteria;
+import com.crm.repositories.criteria.TrainingFilter;
+import com.crm.repositories.criteria.TrainingQueryEngine;
+import com.crm.repositories.entities.Trainer;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
+@RequiredArgsConstructor
 public class CustomTrainerRepoImpl implements CustomTrainerRepo {
+    private static final String UNASSIGNED_TRAINERS = """
+            SELECT new com.crm.dtos.trainer.TrainerSummary(
+                tr.id, tr.userName, tr.firstName, tr.lastName, tr.specialization, tr.isActive
+            )
+            FROM Trainer tr
+            WHERE tr.id > :afterId
+              AND NOT EXISTS (
+                SELECT 1 FROM Training t
+                WHERE t.trainee.id = :traineeId AND t.trainer.id = tr.id
+              )
+            """;
+    private static final String SPECIALIZATION_FILTER = " AND tr.specialization = :specialization";
+    private static final String BY_ID = " ORDER BY tr.id";
+
     @PersistenceContext
     private EntityManager entityManager;
 
+    private final TrainingQueryEngine trainingQueryEngine;
+
+    @Value("${gym.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    @Override
+    public Optional<Trainer> findByUserName(String userName) {
+        return UserNaturalIdLookup.findByUserName(entityManager, Trainer.class, userName);
+    }
+
+    @Override
+    public Optional<Trainer> findByUserNameUncached(String userName) {
+        return UserNaturalIdLookup.findByUserNameUncached(entityManager, Trainer.class, userName);
+    }
+
+    @Override
+    public DeletedRows deleteWithTrainings(Trainer trainer) {
+        return UserBulkDelete.delete(entityManager, trainer, "trainer_id");
+    }
+
     @Override
-    public List<Training> getTrainerTrainingsByCriteria(
+    public List<TrainingView> getTrainerTrainingsByCriteria(
             String trainerUsername,
             LocalDate fromDate,
             LocalDate toDate,
             String traineeUserName,
             TrainingType trainingType
     ) {
-        var dynamicJpqlQuery = "SELECT t FROM Training t WHERE t.trainer.userName = :trainerUsername";
+        var criteria = criteria(trainerUsername, fromDate, toDate, traineeUserName, trainingType);
+        return trainingQueryEngine.createQuery(criteria).getResultList();
+    }
 
-        if (fromDate != null) {
-            dynamicJpqlQuery += " AND t.trainingDate >= :fromDate";
-        }
-        if (toDate != null) {
-            dynamicJpqlQuery += " AND t.trainingDate <= :toDate";
-        }
-        if (traineeUserName != null && !traineeUserName.isEmpty()) {
-            dynamicJpqlQuery += " AND (t.trainee.firstName LIKE :traineeName OR t.trainee.lastName LIKE :traineeName)";
-        }
-        if (trainingType != null) {
-            dynamicJpqlQuery += " AND t.trainingType = :trainingType";
-        }
+    @Override
+    public List<TrainingView> getTrainerTrainingsPage(
+            String trainerUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String traineeUserName,
+            TrainingType trainingType,
+            TrainingCursor after,
+            int limit
+    ) {
+        var criteria = criteria(trainerUsername, fromDate, toDate, traineeUserName, trainingType).after(after);
+        return trainingQueryEngine.createQuery(criteria)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 
-        var query = entityManager.createQuery(dynamicJpqlQuery, Training.class);
-        query.setParameter("trainerUsername", trainerUsername);
+    @Override
+    public Stream<TrainingView> streamTrainerTrainingsByCriteria(
+            String trainerUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String traineeUserName,
+            TrainingType trainingType
+    ) {
+        var criteria = criteria(trainerUsername, fromDate, toDate, traineeUserName, trainingType);
+        return trainingQueryEngine.createQuery(criteria)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
 
-        if (fromDate != null) {
-            query.setParameter("fromDate", fromDate);
-        }
-        if (toDate != null) {
-            query.setParameter("toDate", toDate);
-        }
-        if (traineeUserName != null && !traineeUserName.isEmpty()) {
-            query.setParameter("traineeName", "%" + traineeUserName + "%");
-        }
-        if (trainingType != null) {
-            query.setParameter("trainingType", trainingType);
+    @Override
+    public List<TrainerSummary> getUnassignedTrainersPage(
+            Long traineeId,
+            TrainingType specialization,
+            TrainerCursor after,
+            int limit
+    ) {
+        var jpql = specialization != null
+                ? UNASSIGNED_TRAINERS + SPECIALIZATION_FILTER + BY_ID
+                : UNASSIGNED_TRAINERS + BY_ID;
+
+        var query = entityManager.createQuery(jpql, TrainerSummary.class)
+                .setParameter("traineeId", traineeId)
+                .setParameter("afterId", after != null ? after.id() : 0L)
+                .setMaxResults(limit);
+        if (specialization != null) {
+            query.setParameter("specialization", specialization);
         }
 
         return query.getResultList();
     }
+
+    private static TrainingCriteria criteria(
+            String trainerUsername,
+            LocalDate fromDate,
+            LocalDate toDate,
+            String traineeUserName,
+            TrainingType trainingType
+    ) {
+        return TrainingCriteria.create()
+                .with(new TrainingFilter.TrainerUsername(trainerUsername))
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .traineeName(traineeUserName)
+                .trainingType(trainingType);
+    }
 }
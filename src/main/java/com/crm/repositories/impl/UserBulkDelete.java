@@ -0,0 +1,63 @@
+package com.crm.repositories.impl;
+
+import com.crm.dtos.DeletedRows;
+import com.crm.repositories.entities.Training;
+import com.crm.repositories.entities.User;
+import jakarta.persistence.EntityManager;
+import lombok.experimental.UtilityClass;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Deletes a user with all of its trainings in set-based statements: the trainings, the role row and the users row.
+ * The role row only exists in the {@code JOINED} layout, with the single-table layout the user is deleted in two statements.
+ *
+ * Cascading {@code remove} would load every training into the persistence context and delete them one by one.
+ * The statements are synchronized with the deleted entity classes only, so Hibernate evicts just the cached users
+ * instead of the whole second-level cache. Pending changes are flushed first and the deleted user is detached,
+ * together with its loaded trainings, so that the persistence context never flushes it again.
+ */
+@UtilityClass
+class UserBulkDelete {
+    private static final String USERS_TABLE = "users";
+
+    /**
+     * @param trainingsColumn  column of the trainings table referencing the user
+     * @return the number of deleted users, 0 if the user did not exist, and of their deleted trainings
+     */
+    static DeletedRows delete(EntityManager entityManager, User user, String trainingsColumn) {
+        entityManager.flush();
+
+        var trainings = execute(entityManager, "DELETE FROM trainings WHERE " + trainingsColumn + " = :id", Training.class, user.getId());
+        var roleTable = roleTable(entityManager, user.getClass());
+        if (!roleTable.equals(USERS_TABLE)) {
+            execute(entityManager, "DELETE FROM " + roleTable + " WHERE id = :id", user.getClass(), user.getId());
+        }
+        var users = execute(entityManager, "DELETE FROM users WHERE id = :id", user.getClass(), user.getId());
+
+        if (entityManager.contains(user)) {
+            entityManager.detach(user);
+        }
+        return new DeletedRows(users, trainings);
+    }
+
+    /**
+     * @return the table of the given role as mapped by the active layout, {@code users} in the single-table layout
+     */
+    private static String roleTable(EntityManager entityManager, Class<? extends User> userClass) {
+        var persister = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(userClass);
+        return ((AbstractEntityPersister) persister).getTableName();
+    }
+
+    private static int execute(EntityManager entityManager, String sql, Class<?> synchronizedEntity, Long id) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(synchronizedEntity)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,48 @@
+package com.crm.repositories.impl;
+
+import com.crm.repositories.entities.User;
+import jakarta.persistence.EntityManager;
+import lombok.experimental.UtilityClass;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Optional;
+
+/**
+ * Resolves users by their {@code userName} natural id through the second-level cache, or bypassing it for credentials.
+ *
+ * The natural id is declared on the {@link User} root, so the lookup goes through the root and filters by role:
+ * a cached username of a trainer must resolve to nothing when a trainee is requested, not to a wrong-class error.
+ * A cache hit costs no statement; a miss selects the id by username and then loads the user by id.
+ */
+@UtilityClass
+class UserNaturalIdLookup {
+    static <T extends User> Optional<T> findByUserName(EntityManager entityManager, Class<T> role, String userName) {
+        if (userName == null) {
+            return Optional.empty();
+        }
+
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(userName)
+                .filter(role::isInstance)
+                .map(role::cast);
+    }
+
+    /**
+     * Selects the user from the database without reading or writing the second-level cache, for credential checks
+     * that must see password and status changes made on other nodes right away.
+     */
+    static <T extends User> Optional<T> findByUserNameUncached(EntityManager entityManager, Class<T> role, String userName) {
+        if (userName == null) {
+            return Optional.empty();
+        }
+
+        return entityManager.createQuery("SELECT u FROM " + role.getSimpleName() + " u WHERE u.userName = :userName", role)
+                .setParameter("userName", userName)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE)
+                .getResultStream()
+                .findFirst();
+    }
+}
@@ -0,0 +1,54 @@
+package com.crm.resources;
+
+import com.crm.dtos.UserSearchResult;
+import com.crm.search.UserSearchIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+@Tag(name = "REST API for Search", description = "Provides full-text search over trainees and trainers")
+public class SearchController {
+    private final UserSearchIndex userSearchIndex;
+
+    @Operation(
+            summary = "Search trainees and trainers",
+            description = "Finds users by first name, last name or username with prefix and fuzzy matching, best match first.",
+            parameters = {
+                    @Parameter(name = "q", description = "Search text.", required = true),
+                    @Parameter(name = "role", description = "TRAINEE or TRAINER, both if omitted."),
+                    @Parameter(name = "limit", description = "Maximum number of results, capped by the server.")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Search results"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "503", description = "Search index is not built yet or disabled"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @GetMapping
+    public ResponseEntity<List<UserSearchResult>> search(
+            @RequestParam("q") String query,
+            @RequestParam(name = "role", required = false) UserSearchResult.Role role,
+            @RequestParam(name = "limit", defaultValue = "20") int limit
+    ) {
+        if (!userSearchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        return ResponseEntity.ok(userSearchIndex.search(query, role, limit));
+    }
+}
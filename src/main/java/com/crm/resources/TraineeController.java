@@ -1,12 +1,18 @@
 package com.crm.resources;
 
+import com.crm.commons.NdjsonResponseWriter;
+import com.crm.dtos.BatchItemResult;
+import com.crm.dtos.CursorPage;
 import com.crm.dtos.UserLoginDto;
+import com.crm.dtos.UserStatusBatchUpdateDto;
 import com.crm.dtos.UserStatusUpdateDto;
 import com.crm.dtos.trainee.TraineeDto;
+import com.crm.dtos.trainee.TraineePatchDto;
 import com.crm.dtos.trainee.TraineeTrainingUpdateDto;
 import com.crm.dtos.trainee.TraineeView;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
+import com.crm.services.PasswordHashingService;
 import com.crm.services.TraineeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,13 +20,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/trainee")
@@ -28,6 +40,10 @@ import java.util.Set;
 @Tag(name = "REST API for Trainee", description = "Provides resource methods for managing trainees")
 public class TraineeController {
     private final TraineeService traineeService;
+    private final PasswordHashingService passwordHashingService;
+    @Qualifier("dbExecutor")
+    private final ThreadPoolTaskExecutor dbExecutor;
+    private final NdjsonResponseWriter ndjsonResponseWriter;
 
     @Operation(
             summary = "Register a new trainee",
@@ -40,12 +56,34 @@ public class TraineeController {
                     @ApiResponse(responseCode = "400", description = "Bad request"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "404", description = "Not found"),
+                    @ApiResponse(responseCode = "429", description = "Too many password hashing requests"),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error")
             }
     )
     @PostMapping
-    public ResponseEntity<TraineeDto> registerTrainee(@RequestBody @Valid TraineeDto traineeDto) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(traineeService.addTrainee(traineeDto));
+    public CompletableFuture<ResponseEntity<TraineeDto>> registerTrainee(@RequestBody @Valid TraineeDto traineeDto) {
+        return passwordHashingService.hashPasswordAsync(traineeDto.getPassword())
+                .thenApplyAsync(passwordHash -> traineeService.addTrainee(traineeDto, passwordHash), dbExecutor)
+                .thenApply(savedTrainee -> ResponseEntity.status(HttpStatus.CREATED).body(savedTrainee));
+    }
+
+    @Operation(
+            summary = "Register a batch of trainees",
+            description = "Creates trainee accounts in bulk and returns a result with credentials or an error per item.",
+            parameters = {
+                    @Parameter(name = "traineeDtos", description = "List of TraineeDto objects", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "429", description = "Too many password hashing requests"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<List<BatchItemResult<TraineeDto>>>> registerTrainees(@RequestBody List<TraineeDto> traineeDtos) {
+        return traineeService.addTrainees(traineeDtos).thenApply(ResponseEntity::ok);
     }
 
     @Operation(
@@ -59,13 +97,14 @@ public class TraineeController {
                     @ApiResponse(responseCode = "400", description = "Bad request"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "404", description = "Not found"),
+                    @ApiResponse(responseCode = "429", description = "Too many password hashing requests"),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error")
             }
     )
     @PutMapping("/password")
-    public ResponseEntity<String> changePassword(@RequestBody @Valid UserLoginDto loginDto) {
-        traineeService.changePassword(loginDto);
-        return ResponseEntity.ok("Password successfully changed");
+    public CompletableFuture<ResponseEntity<String>> changePassword(@RequestBody @Valid UserLoginDto loginDto) {
+        return passwordHashingService.changePasswordAsync(traineeService, loginDto)
+                .thenApply(ignored -> ResponseEntity.ok("Password successfully changed"));
     }
 
     @Operation(
@@ -89,7 +128,8 @@ public class TraineeController {
 
     @Operation(
             summary = "Update trainee`s profile",
-            description = "Modifies trainee details.",
+            description = "Replaces trainee details and status; optional details missing in the request are cleared "
+                    + "and a missing isActive deactivates the trainee. A request carrying a stale profile version is rejected.",
             parameters = {
                     @Parameter(name = "updateDto", description = "TraineeUpdateDto object.", required = true),
                     @Parameter(name = "id", description = "Trainee`s id.", required = true),
@@ -99,6 +139,7 @@ public class TraineeController {
                     @ApiResponse(responseCode = "400", description = "Bad request"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "404", description = "Not found"),
+                    @ApiResponse(responseCode = "409", description = "Profile was modified concurrently"),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error")
             }
     )
@@ -110,6 +151,31 @@ public class TraineeController {
         return ResponseEntity.ok(traineeService.updateTraineeProfile(id, updateDto));
     }
 
+    @Operation(
+            summary = "Partially update trainee`s profile",
+            description = "Modifies only the given trainee details, each validated like on registration. "
+                    + "A request carrying a stale profile version is rejected.",
+            parameters = {
+                    @Parameter(name = "patchDto", description = "TraineePatchDto object with the changed fields, the username and optionally the version.", required = true),
+                    @Parameter(name = "id", description = "Trainee`s id.", required = true),
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Profile updated successfully"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "404", description = "Not found"),
+                    @ApiResponse(responseCode = "409", description = "Profile was modified concurrently"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @PatchMapping("/{id}")
+    public ResponseEntity<TraineeView> patchTrainee(
+            @PathVariable("id") Long id,
+            @RequestBody @Valid TraineePatchDto patchDto
+    ) {
+        return ResponseEntity.ok(traineeService.patchTraineeProfile(id, patchDto));
+    }
+
     @Operation(
             summary = "Delete trainee profile",
             description = "Removes a trainee account.",
@@ -135,7 +201,8 @@ public class TraineeController {
     }
 
     @Operation(
-            summary = "Update trainee's training list",
+            summary = "Add trainings to trainee's training list",
+            description = "Returns only the added trainings.",
             parameters = {
                     @Parameter(name = "updateDto", description = "TraineeUpdateDto object.", required = true)
             },
@@ -160,7 +227,9 @@ public class TraineeController {
                     @Parameter(name = "periodFrom", description = "Criteria - period from."),
                     @Parameter(name = "periodTo", description = "Criteria - period to."),
                     @Parameter(name = "trainerUserName", description = "Trainer`s user name."),
-                    @Parameter(name = "trainingType", description = "Training type.")
+                    @Parameter(name = "trainingType", description = "Training type."),
+                    @Parameter(name = "cursor", description = "Continuation token from the previous page."),
+                    @Parameter(name = "limit", description = "Page size, capped by the server.")
             },
             responses = {
                     @ApiResponse(responseCode = "200", description = "Trainee profile deleted successfully"),
@@ -171,24 +240,60 @@ public class TraineeController {
             }
     )
     @GetMapping("/trainings")
-    public ResponseEntity<Set<TrainingView>> getTraineeTrainings(
+    public ResponseEntity<CursorPage<TrainingView>> getTraineeTrainings(
             @RequestParam("username") String username,
             @RequestParam(name = "period-from", required = false) LocalDate periodFrom,
             @RequestParam(name = "period-to", required = false) LocalDate periodTo,
             @RequestParam(name = "trainer-user-name", required = false) String trainerUserName,
-            @RequestParam(name = "training-type", required = false) String trainingType
+            @RequestParam(name = "training-type", required = false) String trainingType,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit
     ) {
         return ResponseEntity.ok(
-                traineeService.findTraineeTrainingsByCriteria(
+                traineeService.findTraineeTrainingsPage(
                         username,
                         periodFrom,
                         periodTo,
                         trainerUserName,
-                        Optional.ofNullable(trainingType).map(TrainingType::valueOf).orElse(null)
+                        Optional.ofNullable(trainingType).map(TrainingType::valueOf).orElse(null),
+                        cursor,
+                        limit
                 )
         );
     }
 
+    @Operation(
+            summary = "Export trainee trainings list",
+            description = "Streams all trainings matching the criteria as newline-delimited JSON while they are read from the database.",
+            parameters = {
+                    @Parameter(name = "username", description = "Trainee`s username.", required = true),
+                    @Parameter(name = "periodFrom", description = "Criteria - period from."),
+                    @Parameter(name = "periodTo", description = "Criteria - period to."),
+                    @Parameter(name = "trainerUserName", description = "Trainer`s user name."),
+                    @Parameter(name = "trainingType", description = "Training type.")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Trainings are streamed"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "429", description = "Too many concurrent exports"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @GetMapping(value = "/trainings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTraineeTrainings(
+            @RequestParam("username") String username,
+            @RequestParam(name = "period-from", required = false) LocalDate periodFrom,
+            @RequestParam(name = "period-to", required = false) LocalDate periodTo,
+            @RequestParam(name = "trainer-user-name", required = false) String trainerUserName,
+            @RequestParam(name = "training-type", required = false) String trainingType
+    ) {
+        var type = Optional.ofNullable(trainingType).map(TrainingType::valueOf).orElse(null);
+        return ndjsonResponseWriter.<TrainingView>stream(
+                consumer -> traineeService.streamTraineeTrainingsByCriteria(username, periodFrom, periodTo, trainerUserName, type, consumer)
+        );
+    }
+
     @Operation(
             summary = "Activate/De-Activate Trainee",
             description = "Toggle current trainee`s status to chosen.",
@@ -205,14 +310,35 @@ public class TraineeController {
     )
     @PatchMapping("/status")
     public ResponseEntity<String> updateTraineeStatus(@RequestBody @Valid UserStatusUpdateDto statusUpdateDto) {
-        var foundTrainee = traineeService.findByUsernameOrThrow(statusUpdateDto.getUserName());
-        var isActive = statusUpdateDto.getIsActive()
-                ? traineeService.activateStatus(foundTrainee.getId())
-                : traineeService.deactivateStatus(foundTrainee.getId());
+        var userName = statusUpdateDto.getUserName();
+        traineeService.updateStatus(userName, statusUpdateDto.getIsActive());
+
+        return ResponseEntity.ok(
+                "Trainee with username=" + userName +
+                        (statusUpdateDto.getIsActive() ? " was activated." : " was deactivated.")
+        );
+    }
+
+    @Operation(
+            summary = "Activate/De-Activate a batch of trainees",
+            description = "Sets the chosen status of all trainees with the given user names and returns how many of them changed.",
+            parameters = {
+                    @Parameter(name = "statusUpdateDto", description = "UserStatusBatchUpdateDto object", required = true),
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statuses updated"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @PatchMapping("/status/batch")
+    public ResponseEntity<String> updateTraineeStatuses(@RequestBody @Valid UserStatusBatchUpdateDto statusUpdateDto) {
+        var updatedCount = traineeService.updateStatuses(statusUpdateDto.getUserNames(), statusUpdateDto.getIsActive());
 
         return ResponseEntity.ok(
-                "Trainee with username=" + foundTrainee.getUserName() +
-                        (isActive ? " was activated." : " was deactivated.")
+                updatedCount + " trainees were" +
+                        (statusUpdateDto.getIsActive() ? " activated." : " deactivated.")
         );
     }
 }
@@ -1,11 +1,18 @@
 package com.crm.resources;
 
+import com.crm.commons.NdjsonResponseWriter;
+import com.crm.dtos.BatchItemResult;
+import com.crm.dtos.CursorPage;
 import com.crm.dtos.UserLoginDto;
+import com.crm.dtos.UserStatusBatchUpdateDto;
 import com.crm.dtos.UserStatusUpdateDto;
 import com.crm.dtos.trainer.TrainerDto;
+import com.crm.dtos.trainer.TrainerPatchDto;
+import com.crm.dtos.trainer.TrainerSummary;
 import com.crm.dtos.trainer.TrainerView;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
+import com.crm.services.PasswordHashingService;
 import com.crm.services.TrainerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,13 +20,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/trainer")
@@ -27,6 +39,10 @@ import java.util.Set;
 @Tag(name = "REST API for Trainer", description = "Provides resource methods for managing trainers")
 public class TrainerController {
     private final TrainerService trainerService;
+    private final PasswordHashingService passwordHashingService;
+    @Qualifier("dbExecutor")
+    private final ThreadPoolTaskExecutor dbExecutor;
+    private final NdjsonResponseWriter ndjsonResponseWriter;
 
     @Operation(
             summary = "Register a new trainer",
@@ -39,12 +55,34 @@ public class TrainerController {
                     @ApiResponse(responseCode = "400", description = "Bad request"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "404", description = "Not found"),
+                    @ApiResponse(responseCode = "429", description = "Too many password hashing requests"),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error")
             }
     )
     @PostMapping
-    public ResponseEntity<TrainerDto> registerTrainer(@RequestBody @Valid TrainerDto trainerDto) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(trainerService.addTrainer(trainerDto));
+    public CompletableFuture<ResponseEntity<TrainerDto>> registerTrainer(@RequestBody @Valid TrainerDto trainerDto) {
+        return passwordHashingService.hashPasswordAsync(trainerDto.getPassword())
+                .thenApplyAsync(passwordHash -> trainerService.addTrainer(trainerDto, passwordHash), dbExecutor)
+                .thenApply(savedTrainer -> ResponseEntity.status(HttpStatus.CREATED).body(savedTrainer));
+    }
+
+    @Operation(
+            summary = "Register a batch of trainers",
+            description = "Creates trainer accounts in bulk and returns a result with credentials or an error per item.",
+            parameters = {
+                    @Parameter(name = "trainerDtos", description = "List of TrainerDto objects", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "429", description = "Too many password hashing requests"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<List<BatchItemResult<TrainerDto>>>> registerTrainers(@RequestBody List<TrainerDto> trainerDtos) {
+        return trainerService.addTrainers(trainerDtos).thenApply(ResponseEntity::ok);
     }
 
     @Operation(
@@ -58,13 +96,14 @@ public class TrainerController {
                     @ApiResponse(responseCode = "400", description = "Bad request"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "404", description = "Not found"),
+                    @ApiResponse(responseCode = "429", description = "Too many password hashing requests"),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error")
             }
     )
     @PutMapping("/password")
-    public ResponseEntity<String> changePassword(@RequestBody @Valid UserLoginDto loginDto) {
-        trainerService.changePassword(loginDto);
-        return ResponseEntity.ok("Password successfully changed");
+    public CompletableFuture<ResponseEntity<String>> changePassword(@RequestBody @Valid UserLoginDto loginDto) {
+        return passwordHashingService.changePasswordAsync(trainerService, loginDto)
+                .thenApply(ignored -> ResponseEntity.ok("Password successfully changed"));
     }
 
     @Operation(
@@ -88,7 +127,8 @@ public class TrainerController {
 
     @Operation(
             summary = "Update trainer`s profile",
-            description = "Modifies trainer details.",
+            description = "Replaces trainer details and status; a missing isActive deactivates the trainer. "
+                    + "A request carrying a stale profile version is rejected.",
             parameters = {
                     @Parameter(name = "updateDto", description = "TrainerUpdateDto object.", required = true)
             },
@@ -97,6 +137,7 @@ public class TrainerController {
                     @ApiResponse(responseCode = "400", description = "Bad request"),
                     @ApiResponse(responseCode = "403", description = "Forbidden"),
                     @ApiResponse(responseCode = "404", description = "Not found"),
+                    @ApiResponse(responseCode = "409", description = "Profile was modified concurrently"),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error")
             }
     )
@@ -108,10 +149,62 @@ public class TrainerController {
         return ResponseEntity.ok(trainerService.updateTrainerProfile(id, updateDto));
     }
 
+    @Operation(
+            summary = "Partially update trainer`s profile",
+            description = "Modifies only the given trainer details, each validated like on registration. "
+                    + "A request carrying a stale profile version is rejected.",
+            parameters = {
+                    @Parameter(name = "patchDto", description = "TrainerPatchDto object with the changed fields, the username and optionally the version.", required = true),
+                    @Parameter(name = "id", description = "Trainer`s id.", required = true),
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Profile updated successfully"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "404", description = "Not found"),
+                    @ApiResponse(responseCode = "409", description = "Profile was modified concurrently"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @PatchMapping("/{id}")
+    public ResponseEntity<TrainerView> patchTrainer(
+            @PathVariable("id") Long id,
+            @RequestBody @Valid TrainerPatchDto patchDto
+    ) {
+        return ResponseEntity.ok(trainerService.patchTrainerProfile(id, patchDto));
+    }
+
+    @Operation(
+            summary = "Delete trainer profile",
+            description = "Removes a trainer account together with its trainings.",
+            parameters = {
+                    @Parameter(name = "username", description = "Trainer`s username.", required = true)
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Trainer profile deleted successfully"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "404", description = "Not found"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @DeleteMapping("/{username}")
+    public ResponseEntity<String> deleteTrainer(@PathVariable("username") String username) {
+        var foundTrainer = trainerService.findByUsernameOrThrow(username);
+
+        trainerService.delete(foundTrainer);
+        return ResponseEntity.ok(
+                String.format("Trainer with userName=%s was deleted", username)
+        );
+    }
+
     @Operation(
             summary = "Get not assigned active trainers for a trainee",
             parameters = {
-                    @Parameter(name = "username", description = "Trainee`s username", required = true)
+                    @Parameter(name = "username", description = "Trainee`s username", required = true),
+                    @Parameter(name = "specialization", description = "Trainer`s specialization."),
+                    @Parameter(name = "cursor", description = "Continuation token from the previous page."),
+                    @Parameter(name = "limit", description = "Page size, capped by the server.")
             },
             responses = {
                     @ApiResponse(responseCode = "200", description = "List was found successfully"),
@@ -122,8 +215,13 @@ public class TrainerController {
             }
     )
     @GetMapping("/unassigned/{username}")
-    public ResponseEntity<Set<TrainerDto>> findNotAssignedTrainers(@PathVariable("username") String username) {
-        return ResponseEntity.ok(trainerService.findNotAssignedTrainersByTraineeUserName(username));
+    public ResponseEntity<CursorPage<TrainerSummary>> findNotAssignedTrainers(
+            @PathVariable("username") String username,
+            @RequestParam(name = "specialization", required = false) TrainingType specialization,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit
+    ) {
+        return ResponseEntity.ok(trainerService.findNotAssignedTrainersPage(username, specialization, cursor, limit));
     }
 
     @Operation(
@@ -132,7 +230,9 @@ public class TrainerController {
                     @Parameter(name = "username", description = "Trainer`s username", required = true),
                     @Parameter(name = "periodFrom", description = "Criteria - period from."),
                     @Parameter(name = "periodTo", description = "Criteria - period to."),
-                    @Parameter(name = "traineeName", description = "Trainee`s username")
+                    @Parameter(name = "traineeName", description = "Trainee`s username"),
+                    @Parameter(name = "cursor", description = "Continuation token from the previous page."),
+                    @Parameter(name = "limit", description = "Page size, capped by the server.")
             },
             responses = {
                     @ApiResponse(responseCode = "200", description = "List was found successfully"),
@@ -143,24 +243,60 @@ public class TrainerController {
             }
     )
     @GetMapping("/trainings")
-    public ResponseEntity<Set<TrainingView>> getTrainerTrainings(
+    public ResponseEntity<CursorPage<TrainingView>> getTrainerTrainings(
             @RequestParam("username") String username,
             @RequestParam(value = "period-from", required = false) LocalDate periodFrom,
             @RequestParam(value = "period-to", required = false) LocalDate periodTo,
             @RequestParam(value = "trainee-username", required = false) String traineeUserName,
-            @RequestParam(name = "training-type", required = false) String trainingType
+            @RequestParam(name = "training-type", required = false) String trainingType,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit
     ) {
         return ResponseEntity.ok(
-                trainerService.findTrainerTrainingsByCriteria(
+                trainerService.findTrainerTrainingsPage(
                         username,
                         periodFrom,
                         periodTo,
                         traineeUserName,
-                        Optional.ofNullable(trainingType).map(TrainingType::valueOf).orElse(null)
+                        Optional.ofNullable(trainingType).map(TrainingType::valueOf).orElse(null),
+                        cursor,
+                        limit
                 )
         );
     }
 
+    @Operation(
+            summary = "Export trainer trainings list",
+            description = "Streams all trainings matching the criteria as newline-delimited JSON while they are read from the database.",
+            parameters = {
+                    @Parameter(name = "username", description = "Trainer`s username.", required = true),
+                    @Parameter(name = "periodFrom", description = "Criteria - period from."),
+                    @Parameter(name = "periodTo", description = "Criteria - period to."),
+                    @Parameter(name = "traineeUserName", description = "Trainee`s user name."),
+                    @Parameter(name = "trainingType", description = "Training type.")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Trainings are streamed"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "429", description = "Too many concurrent exports"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @GetMapping(value = "/trainings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTrainerTrainings(
+            @RequestParam("username") String username,
+            @RequestParam(name = "period-from", required = false) LocalDate periodFrom,
+            @RequestParam(name = "period-to", required = false) LocalDate periodTo,
+            @RequestParam(name = "trainee-username", required = false) String traineeUserName,
+            @RequestParam(name = "training-type", required = false) String trainingType
+    ) {
+        var type = Optional.ofNullable(trainingType).map(TrainingType::valueOf).orElse(null);
+        return ndjsonResponseWriter.<TrainingView>stream(
+                consumer -> trainerService.streamTrainerTrainingsByCriteria(username, periodFrom, periodTo, traineeUserName, type, consumer)
+        );
+    }
+
     @Operation(
             summary = "Activate/De-Activate Trainer",
             description = "Toggle current trainer`s status to chosen.",
@@ -177,14 +313,35 @@ public class TrainerController {
     )
     @PatchMapping("/status")
     public ResponseEntity<String> updateTraineeStatus(@RequestBody @Valid UserStatusUpdateDto statusUpdateDto) {
-        var foundTrainer = trainerService.findByUsernameOrThrow(statusUpdateDto.getUserName());
-        var isActive = statusUpdateDto.getIsActive()
-                ? trainerService.activateStatus(foundTrainer.getId())
-                : trainerService.deactivateStatus(foundTrainer.getId());
+        var userName = statusUpdateDto.getUserName();
+        trainerService.updateStatus(userName, statusUpdateDto.getIsActive());
+
+        return ResponseEntity.ok(
+                "Trainer with userName=" + userName +
+                        (statusUpdateDto.getIsActive() ? " was activated." : " was deactivated.")
+        );
+    }
+
+    @Operation(
+            summary = "Activate/De-Activate a batch of trainers",
+            description = "Sets the chosen status of all trainers with the given user names and returns how many of them changed.",
+            parameters = {
+                    @Parameter(name = "statusUpdateDto", description = "UserStatusBatchUpdateDto object", required = true),
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Statuses updated"),
+                    @ApiResponse(responseCode = "400", description = "Bad request"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden"),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error")
+            }
+    )
+    @PatchMapping("/status/batch")
+    public ResponseEntity<String> updateTrainerStatuses(@RequestBody @Valid UserStatusBatchUpdateDto statusUpdateDto) {
+        var updatedCount = trainerService.updateStatuses(statusUpdateDto.getUserNames(), statusUpdateDto.getIsActive());
 
         return ResponseEntity.ok(
-                "Trainer with userName=" + foundTrainer.getUserName() +
-                        (isActive ? " was activated." : " was deactivated.")
+                updatedCount + " trainers were" +
+                        (statusUpdateDto.getIsActive() ? " activated." : " deactivated.")
         );
     }
 }
@@ -0,0 +1,329 @@
+package com.crm.search;
+
+import com.crm.dtos.UserSearchResult;
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.User;
+import com.crm.utils.TransactionUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Node-local Lucene index over the names and usernames of trainees and trainers.
+ *
+ * Every query term must match a first name, last name or username exactly, as a prefix or within a small edit
+ * distance; exact matches rank above prefix matches and those above fuzzy ones. The index lives in memory and
+ * is built from a streaming scan of the users table once the application is ready. Changes are applied after
+ * the surrounding transaction commits and are visible to the next search. Until the first build completes
+ * the index reports itself as not ready and the search endpoint answers 503.
+ *
+ * Like the username filter, it only sees changes made on this node, so it is disabled unless
+ * {@code gym.search.enabled=true}, which only suits a single node owning the database. It backs only the search
+ * endpoint; filters by name keep their database semantics.
+ */
+@Slf4j
+@Component
+public class UserSearchIndex {
+    private static final String ID = "id";
+    private static final String ID_POINT = "id_point";
+    private static final String ROLE = "role";
+    private static final String USERNAME = "username";
+    private static final String FIRST_NAME = "first_name";
+    private static final String LAST_NAME = "last_name";
+    private static final String[] NAME_FIELDS = {FIRST_NAME, LAST_NAME, USERNAME};
+    private static final int PREFIX_MIN_LENGTH = 2;
+    private static final int FUZZY_MIN_LENGTH = 4;
+
+    private final UserRepo userRepo;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final boolean enabled;
+    private final int maxResults;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter indexWriter;
+    private final SearcherManager searcherManager;
+    private final Timer buildTimer;
+    private final Timer refreshTimer;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private volatile boolean ready;
+
+    public UserSearchIndex(
+            UserRepo userRepo,
+            PlatformTransactionManager transactionManager,
+            @Value("${gym.search.enabled:false}") boolean enabled,
+            @Value("${gym.search.max-results:100}") int maxResults,
+            MeterRegistry meterRegistry
+    ) throws IOException {
+        this.userRepo = userRepo;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxResults = maxResults;
+        this.indexWriter = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(indexWriter, null);
+
+        this.buildTimer = Timer.builder("gym.search.index.build")
+                .description("Time to build the user search index from the database")
+                .register(meterRegistry);
+        this.refreshTimer = Timer.builder("gym.search.index.refresh")
+                .description("Time until a user change becomes searchable")
+                .register(meterRegistry);
+        Gauge.builder("gym.search.index.documents", indexWriter, writer -> writer.getDocStats().numDocs)
+                .description("Users in the search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        if (enabled && rebuilding.compareAndSet(false, true)) {
+            new SimpleAsyncTaskExecutor("user-search-index-").execute(() -> {
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.error("User search index build failed, search stays unavailable", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Replaces the index content with all users. Users saved while the scan runs are indexed by their own update.
+     */
+    public void rebuild() {
+        buildTimer.record(() -> {
+            log.info("Building user search index");
+            try {
+                indexWriter.deleteAll();
+                readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                    try (var rows = userRepo.streamUserSearchRows()) {
+                        rows.forEach(row -> write(
+                                (Long) row[0], roleOf((Class<?>) row[1]), (String) row[2], (String) row[3], (String) row[4]
+                        ));
+                    }
+                });
+                indexWriter.commit();
+                searcherManager.maybeRefreshBlocking();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        ready = true;
+        log.info("User search index built, documents={}", indexWriter.getDocStats().numDocs);
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Indexes the user once the current transaction commits, or right away outside a transaction.
+     */
+    public void index(User user) {
+        if (enabled) {
+            TransactionUtils.afterCommit(() -> {
+                write(user.getId(), roleOf(user.getClass()), user.getUserName(), user.getFirstName(), user.getLastName());
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Indexes all users with a single refresh, once the current transaction commits or right away outside a transaction.
+     */
+    public void indexAll(Collection<? extends User> users) {
+        if (enabled && !users.isEmpty()) {
+            TransactionUtils.afterCommit(() -> {
+                users.forEach(user -> write(user.getId(), roleOf(user.getClass()), user.getUserName(), user.getFirstName(), user.getLastName()));
+                refresh();
+            });
+        }
+    }
+
+    public void remove(User user) {
+        if (enabled) {
+            TransactionUtils.afterCommit(() -> {
+                try {
+                    indexWriter.deleteDocuments(LongPoint.newExactQuery(ID_POINT, user.getId()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * @param text  free text matched against first names, last names and usernames
+     * @param role  restricts results to one role, or {@code null} for both
+     * @param limit the maximum number of results, capped at {@code gym.search.max-results}
+     * @return matching users, best match first; empty if the text contains no searchable term
+     */
+    public List<UserSearchResult> search(String text, UserSearchResult.Role role, int limit) {
+        return search(text, role, limit, maxResults);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+    }
+
+    private List<UserSearchResult> search(String text, UserSearchResult.Role role, int limit, int maxLimit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive, but was " + limit);
+        }
+
+        var query = buildQuery(text, role);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            var searcher = searcherManager.acquire();
+            try {
+                return collect(searcher, query.get(), Math.min(limit, maxLimit));
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Long id, UserSearchResult.Role role, String userName, String firstName, String lastName) {
+        var document = new Document();
+        document.add(new StringField(ID, id.toString(), Field.Store.YES));
+        document.add(new LongPoint(ID_POINT, id));
+        document.add(new StringField(ROLE, role.name(), Field.Store.YES));
+        document.add(new StringField(USERNAME, userName.toLowerCase(), Field.Store.NO));
+        document.add(new StoredField(USERNAME + "_stored", userName));
+        document.add(new TextField(FIRST_NAME, firstName, Field.Store.YES));
+        document.add(new TextField(LAST_NAME, lastName, Field.Store.YES));
+
+        try {
+            indexWriter.updateDocument(new Term(ID, id.toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void refresh() {
+        refreshTimer.record(() -> {
+            try {
+                searcherManager.maybeRefreshBlocking();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private Optional<Query> buildQuery(String text, UserSearchResult.Role role) {
+        var terms = analyze(text);
+        if (terms.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var query = new BooleanQuery.Builder();
+        for (var term : terms) {
+            var termQuery = new BooleanQuery.Builder();
+            for (var field : NAME_FIELDS) {
+                termQuery.add(new BoostQuery(new TermQuery(new Term(field, term)), 3), BooleanClause.Occur.SHOULD);
+                if (term.length() >= PREFIX_MIN_LENGTH) {
+                    termQuery.add(new BoostQuery(new PrefixQuery(new Term(field, term)), 2), BooleanClause.Occur.SHOULD);
+                }
+                if (term.length() >= FUZZY_MIN_LENGTH) {
+                    termQuery.add(new FuzzyQuery(new Term(field, term), term.length() > 6 ? 2 : 1), BooleanClause.Occur.SHOULD);
+                }
+            }
+            query.add(termQuery.build(), BooleanClause.Occur.MUST);
+        }
+        if (role != null) {
+            query.add(new TermQuery(new Term(ROLE, role.name())), BooleanClause.Occur.FILTER);
+        }
+
+        return Optional.of(query.build());
+    }
+
+    private List<String> analyze(String text) {
+        var terms = new ArrayList<String>();
+        try (var tokens = analyzer.tokenStream(FIRST_NAME, text)) {
+            var termAttribute = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                terms.add(termAttribute.toString());
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return terms;
+    }
+
+    private static List<UserSearchResult> collect(IndexSearcher searcher, Query query, int limit) throws IOException {
+        var topDocs = searcher.search(query, limit);
+        var storedFields = searcher.storedFields();
+        var results = new ArrayList<UserSearchResult>(topDocs.scoreDocs.length);
+
+        for (var scoreDoc : topDocs.scoreDocs) {
+            var document = storedFields.document(scoreDoc.doc);
+            results.add(new UserSearchResult(
+                    Long.valueOf(document.get(ID)),
+                    document.get(USERNAME + "_stored"),
+                    document.get(FIRST_NAME),
+                    document.get(LAST_NAME),
+                    UserSearchResult.Role.valueOf(document.get(ROLE)),
+                    scoreDoc.score
+            ));
+        }
+
+        return results;
+    }
+
+    private static UserSearchResult.Role roleOf(Class<?> role) {
+        return Trainee.class.isAssignableFrom(role) ? UserSearchResult.Role.TRAINEE : UserSearchResult.Role.TRAINER;
+    }
+}
@@ -0,0 +1,40 @@
+package com.crm.security;
+
+/**
+ * Service provider interface for password hashing algorithms.
+ *
+ * Each implementation is identified by {@link #id()}, which is stored together with the hash
+ * so that the algorithm used for a password can be resolved on verification.
+ * Algorithm parameters (cost, memory, iterations) are expected to be encoded in the hash itself.
+ */
+public interface PasswordHasher {
+    /**
+     * @return unique identifier of the algorithm, e.g. {@code jbcrypt} or {@code argon2}
+     */
+    String id();
+
+    /**
+     * Hashes the password using the algorithm and the currently configured parameters.
+     *
+     * @param password raw password
+     * @return encoded hash including algorithm parameters
+     */
+    String hash(String password);
+
+    /**
+     * Checks the raw password against the encoded hash.
+     *
+     * @param password     raw password
+     * @param passwordHash encoded hash produced by {@link #hash(String)}
+     * @return {@code true} if password matches the hash
+     */
+    boolean matches(String password, String passwordHash);
+
+    /**
+     * Checks whether the hash was produced with weaker or different parameters than currently configured.
+     *
+     * @param passwordHash encoded hash produced by {@link #hash(String)}
+     * @return {@code true} if the password should be hashed again on the next successful login
+     */
+    boolean needsRehash(String passwordHash);
+}
@@ -0,0 +1,123 @@
+package com.crm.security.impl;
+
+import com.crm.security.PasswordHasher;
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Argon2id hasher backed by Bouncy Castle.
+ *
+ * Hashes are stored in the PHC string format, e.g. {@code $argon2id$v=19$m=19456,t=2,p=1$<salt>$<hash>},
+ * so memory, iterations and parallelism used for a password can always be read back from the hash.
+ */
+public class Argon2PasswordHasher implements PasswordHasher {
+    public static final String ID = "argon2";
+
+    private static final String ALGORITHM_NAME = "argon2id";
+    private static final String PHC_SEPARATOR = "$";
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final int memoryKib;
+    private final int iterations;
+    private final int parallelism;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public Argon2PasswordHasher(int memoryKib, int iterations, int parallelism) {
+        this.memoryKib = memoryKib;
+        this.iterations = iterations;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public String hash(String password) {
+        var salt = new byte[SALT_LENGTH];
+        secureRandom.nextBytes(salt);
+
+        var hash = generate(password, salt, memoryKib, iterations, parallelism, HASH_LENGTH);
+        return PHC_SEPARATOR + ALGORITHM_NAME
+                + PHC_SEPARATOR + "v=" + Argon2Parameters.ARGON2_VERSION_13
+                + PHC_SEPARATOR + "m=" + memoryKib + ",t=" + iterations + ",p=" + parallelism
+                + PHC_SEPARATOR + ENCODER.encodeToString(salt)
+                + PHC_SEPARATOR + ENCODER.encodeToString(hash);
+    }
+
+    @Override
+    public boolean matches(String password, String passwordHash) {
+        var encoded = EncodedHash.parse(passwordHash);
+        var actualHash = generate(
+                password,
+                encoded.salt(),
+                encoded.memoryKib(),
+                encoded.iterations(),
+                encoded.parallelism(),
+                encoded.hash().length
+        );
+
+        return MessageDigest.isEqual(encoded.hash(), actualHash);
+    }
+
+    @Override
+    public boolean needsRehash(String passwordHash) {
+        var encoded = EncodedHash.parse(passwordHash);
+        return encoded.memoryKib() < memoryKib
+                || encoded.iterations() < iterations
+                || encoded.parallelism() != parallelism;
+    }
+
+    private static byte[] generate(String password, byte[] salt, int memoryKib, int iterations, int parallelism, int hashLength) {
+        var parameters = new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                .withMemoryAsKB(memoryKib)
+                .withIterations(iterations)
+                .withParallelism(parallelism)
+                .withSalt(salt)
+                .build();
+
+        var generator = new Argon2BytesGenerator();
+        generator.init(parameters);
+
+        var hash = new byte[hashLength];
+        generator.generateBytes(password.getBytes(StandardCharsets.UTF_8), hash);
+        return hash;
+    }
+
+    private record EncodedHash(int memoryKib, int iterations, int parallelism, byte[] salt, byte[] hash) {
+        static EncodedHash parse(String passwordHash) {
+            try {
+                var parts = passwordHash.split("\\" + PHC_SEPARATOR);
+                if (parts.length != 6 || !ALGORITHM_NAME.equals(parts[1])) {
+                    throw new IllegalArgumentException("Not an " + ALGORITHM_NAME + " hash");
+                }
+
+                int memory = 0, time = 0, lanes = 0;
+                for (var parameter : parts[3].split(",")) {
+                    var value = Integer.parseInt(parameter.substring(2));
+                    switch (parameter.charAt(0)) {
+                        case 'm' -> memory = value;
+                        case 't' -> time = value;
+                        case 'p' -> lanes = value;
+                        default -> throw new IllegalArgumentException("Unknown parameter " + parameter);
+                    }
+                }
+
+                return new EncodedHash(memory, time, lanes, DECODER.decode(parts[4]), DECODER.decode(parts[5]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid Argon2 hash format", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.crm.security.impl;
+
+import com.crm.security.PasswordHasher;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Password hasher that delegates to one of the registered algorithms.
+ *
+ * New hashes are produced by the configured default algorithm and prefixed with its id,
+ * e.g. {@code {jbcrypt}$2a$10$...}. On verification the prefix selects the algorithm;
+ * hashes without a prefix were created before the prefix existed and are treated as jbcrypt.
+ */
+public class DelegatingPasswordHasher implements PasswordHasher {
+    private static final String ID_PREFIX = "{";
+    private static final String ID_SUFFIX = "}";
+
+    private final PasswordHasher defaultHasher;
+    private final Map<String, PasswordHasher> hashersById;
+
+    public DelegatingPasswordHasher(String defaultId, Collection<? extends PasswordHasher> hashers) {
+        this.hashersById = hashers.stream()
+                .collect(Collectors.toUnmodifiableMap(PasswordHasher::id, Function.identity()));
+        this.defaultHasher = resolveHasher(defaultId);
+    }
+
+    @Override
+    public String id() {
+        return defaultHasher.id();
+    }
+
+    @Override
+    public String hash(String password) {
+        return ID_PREFIX + defaultHasher.id() + ID_SUFFIX + defaultHasher.hash(password);
+    }
+
+    @Override
+    public boolean matches(String password, String passwordHash) {
+        return resolveHasher(extractId(passwordHash)).matches(password, extractHash(passwordHash));
+    }
+
+    @Override
+    public boolean needsRehash(String passwordHash) {
+        return !defaultHasher.id().equals(extractId(passwordHash))
+                || defaultHasher.needsRehash(extractHash(passwordHash));
+    }
+
+    private PasswordHasher resolveHasher(String id) {
+        var hasher = hashersById.get(id);
+        if (hasher == null) {
+            throw new IllegalArgumentException("No password hasher registered for id=" + id);
+        }
+
+        return hasher;
+    }
+
+    private static String extractId(String passwordHash) {
+        if (!passwordHash.startsWith(ID_PREFIX)) {
+            return JBCryptPasswordHasher.ID;
+        }
+
+        return passwordHash.substring(ID_PREFIX.length(), passwordHash.indexOf(ID_SUFFIX));
+    }
+
+    private static String extractHash(String passwordHash) {
+        if (!passwordHash.startsWith(ID_PREFIX)) {
+            return passwordHash;
+        }
+
+        return passwordHash.substring(passwordHash.indexOf(ID_SUFFIX) + ID_SUFFIX.length());
+    }
+}
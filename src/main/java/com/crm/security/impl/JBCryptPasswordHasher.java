@@ -0,0 +1,45 @@
+package com.crm.security.impl;
+
+import com.crm.security.PasswordHasher;
+import com.crm.utils.UserUtils;
+
+public class JBCryptPasswordHasher implements PasswordHasher {
+    public static final String ID = "jbcrypt";
+
+    private static final int COST_OFFSET = 4;
+    private static final int COST_LENGTH = 2;
+
+    private final int cost;
+
+    public JBCryptPasswordHasher(int cost) {
+        this.cost = cost;
+    }
+
+    @Override
+    public String id() {
+        return ID;
+    }
+
+    @Override
+    public String hash(String password) {
+        return UserUtils.hashPassword(password, cost);
+    }
+
+    @Override
+    public boolean matches(String password, String passwordHash) {
+        return UserUtils.matchesPasswordHash(password, passwordHash);
+    }
+
+    @Override
+    public boolean needsRehash(String passwordHash) {
+        return extractCost(passwordHash) < cost;
+    }
+
+    private static int extractCost(String passwordHash) {
+        try {
+            return Integer.parseInt(passwordHash.substring(COST_OFFSET, COST_OFFSET + COST_LENGTH));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid BCrypt hash format", e);
+        }
+    }
+}
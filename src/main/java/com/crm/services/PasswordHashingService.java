@@ -0,0 +1,50 @@
+package com.crm.services;
+
+import com.crm.dtos.UserLoginDto;
+import com.crm.repositories.entities.User;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs password hashing off the request threads on a dedicated, bounded executor.
+ *
+ * Implementations must not hold a transaction or a database connection while hashing, and continue with
+ * database work on the database executor rather than on a hashing thread.
+ * When the executor is saturated the returned future is not created and a
+ * {@link org.springframework.core.task.TaskRejectedException} is thrown instead.
+ */
+public interface PasswordHashingService {
+    CompletableFuture<String> hashPasswordAsync(String password);
+
+    /**
+     * Hashes many passwords at once, spreading them in chunks over all hashing threads.
+     *
+     * @param passwords raw passwords
+     * @return a future of hashes in the same order as the passwords
+     */
+    CompletableFuture<List<String>> hashPasswordsAsync(List<String> passwords);
+
+    CompletableFuture<Boolean> matchesPasswordHashAsync(String inputtedPassword, String passwordHash);
+
+    /**
+     * Verifies the old password and stores the hash of the new one.
+     *
+     * @param userService the service owning the user whose password is changed
+     * @param loginDto    username, old and new passwords
+     * @return a future completed when the new hash is stored, or completed exceptionally with
+     * {@link com.crm.exceptions.PasswordNotMatchException} when the old password is wrong
+     */
+    <T extends User> CompletableFuture<Void> changePasswordAsync(UserService<T> userService, UserLoginDto loginDto);
+
+    /**
+     * Re-hashes the password in background when the stored hash was produced by an outdated algorithm or cost.
+     * The new hash is stored only if the stored hash is still the same; failures and saturation are logged
+     * and never propagated to the caller.
+     *
+     * @param userName            user whose password was just verified
+     * @param password            verified raw password
+     * @param currentPasswordHash stored hash the password was verified against
+     */
+    void upgradePasswordHashAsync(String userName, String password, String currentPasswordHash);
+}
@@ -1,6 +1,9 @@
 package com.crm.services;
 
+import com.crm.dtos.BatchItemResult;
+import com.crm.dtos.CursorPage;
 import com.crm.dtos.trainee.TraineeDto;
+import com.crm.dtos.trainee.TraineePatchDto;
 import com.crm.dtos.trainee.TraineeTrainingUpdateDto;
 import com.crm.dtos.trainee.TraineeView;
 import com.crm.dtos.training.TrainingView;
@@ -8,7 +11,10 @@ import com.crm.enums.TrainingType;
 import com.crm.repositories.entities.Trainee;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface TraineeService extends UserService<Trainee> {
     Trainee save(String firstName, String lastName, String password, String address, LocalDate dateOfBirth);
@@ -19,11 +25,34 @@ public interface TraineeService extends UserService<Trainee> {
 
     Set<TrainingView> findTraineeTrainingsByCriteria(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType);
 
+    CursorPage<TrainingView> findTraineeTrainingsPage(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType, String cursor, Integer limit);
+
+    void streamTraineeTrainingsByCriteria(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType, Consumer<TrainingView> consumer);
+
     TraineeDto addTrainee(TraineeDto traineeDto);
 
+    TraineeDto addTrainee(TraineeDto traineeDto, String passwordHash);
+
+    CompletableFuture<List<BatchItemResult<TraineeDto>>> addTrainees(List<TraineeDto> traineeDtos);
+
+    CompletableFuture<List<BatchItemResult<Trainee>>> saveAll(List<Trainee> trainees);
+
     TraineeView findProfileByUserName(String username);
 
+    /**
+     * Replaces the profile and the status of the trainee; optional fields missing in the update are cleared.
+     */
     TraineeView updateTraineeProfile(Long id, TraineeDto updateDto);
 
+    /**
+     * Changes only the profile fields present in the patch.
+     */
+    TraineeView patchTraineeProfile(Long id, TraineePatchDto patchDto);
+
+    /**
+     * Inserts the given trainings of the trainee without loading the trainings the trainee already has.
+     *
+     * @return views of the inserted trainings only
+     */
     Set<TrainingView> updateTraineeTrainings(TraineeTrainingUpdateDto updateDto);
 }
@@ -1,24 +1,53 @@
 package com.crm.services;
 
+import com.crm.dtos.BatchItemResult;
+import com.crm.dtos.CursorPage;
 import com.crm.dtos.trainer.TrainerDto;
+import com.crm.dtos.trainer.TrainerPatchDto;
+import com.crm.dtos.trainer.TrainerSummary;
 import com.crm.dtos.trainer.TrainerView;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import com.crm.repositories.entities.Trainer;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface TrainerService extends UserService<Trainer> {
     Trainer save(String firstName, String lastName, String password, TrainingType specialization);
 
+    void delete(Trainer trainer);
+
+    void deleteByUsername(String username);
+
     Set<TrainingView> findTrainerTrainingsByCriteria(String trainerUsername, LocalDate fromDate, LocalDate toDate, String traineeUserName, TrainingType trainingType);
 
+    CursorPage<TrainingView> findTrainerTrainingsPage(String trainerUsername, LocalDate fromDate, LocalDate toDate, String traineeUserName, TrainingType trainingType, String cursor, Integer limit);
+
+    void streamTrainerTrainingsByCriteria(String trainerUsername, LocalDate fromDate, LocalDate toDate, String traineeUserName, TrainingType trainingType, Consumer<TrainingView> consumer);
+
     TrainerDto addTrainer(TrainerDto trainerDto);
 
+    TrainerDto addTrainer(TrainerDto trainerDto, String passwordHash);
+
+    CompletableFuture<List<BatchItemResult<TrainerDto>>> addTrainers(List<TrainerDto> trainerDtos);
+
+    CompletableFuture<List<BatchItemResult<Trainer>>> saveAll(List<Trainer> trainers);
+
     TrainerView findProfileByUserName(String username);
 
+    /**
+     * Replaces the profile and the status of the trainer; optional fields missing in the update are cleared.
+     */
     TrainerView updateTrainerProfile(Long id, TrainerDto updateDto);
 
-    Set<TrainerDto> findNotAssignedTrainersByTraineeUserName(String username);
+    /**
+     * Changes only the profile fields present in the patch.
+     */
+    TrainerView patchTrainerProfile(Long id, TrainerPatchDto patchDto);
+
+    CursorPage<TrainerSummary> findNotAssignedTrainersPage(String traineeUsername, TrainingType specialization, String cursor, Integer limit);
 }
@@ -1,13 +1,26 @@
 package com.crm.services;
 
+import com.crm.dtos.BatchItemResult;
 import com.crm.dtos.training.TrainingDto;
 import com.crm.dtos.training.TrainingView;
 import com.crm.repositories.entities.Training;
 
+import java.util.List;
+
 public interface TrainingService {
     Training findById(long id);
 
     Training save(Training training);
 
+    List<Training> saveAll(List<Training> trainings);
+
+    /**
+     * Saves the trainings in one transaction; when it fails, retries them one by one so that only
+     * the offending rows are reported as failed.
+     *
+     * @return per-item results in the order of the given trainings
+     */
+    List<BatchItemResult<Training>> importAll(List<Training> trainings);
+
     TrainingView addTraining(TrainingDto trainingDto);
 }
@@ -3,6 +3,8 @@ package com.crm.services;
 import com.crm.dtos.UserLoginDto;
 import com.crm.repositories.entities.User;
 
+import java.util.List;
+
 public interface UserService<T extends User> {
     T findById(long id);
 
@@ -16,9 +18,22 @@ public interface UserService<T extends User> {
 
     void changePassword(UserLoginDto loginDto);
 
-    boolean activateStatus(long id);
-
-    boolean deactivateStatus(long id);
+    void updatePassword(String userName, String currentPasswordHash, String newPasswordHash);
+
+    /**
+     * Sets the status of the user with one conditional update.
+     *
+     * @throws jakarta.persistence.EntityNotFoundException if there is no user of this role with the username
+     */
+    void updateStatus(String userName, boolean isActive);
+
+    /**
+     * Sets the status of the users of this role with the given usernames in chunked updates within one transaction.
+     * Unknown usernames and users already having the status are skipped.
+     *
+     * @return the number of users whose status was changed
+     */
+    int updateStatuses(List<String> userNames, boolean isActive);
 
     boolean isUsernameAndPasswordMatching(String username, String inputtedPassword);
 }
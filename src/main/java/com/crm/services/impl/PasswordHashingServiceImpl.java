@@ -0,0 +1,110 @@
+package com.crm.services.impl;
+
+import com.crm.dtos.UserLoginDto;
+import com.crm.exceptions.PasswordNotMatchException;
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.User;
+import com.crm.security.PasswordHasher;
+import com.crm.services.PasswordHashingService;
+import com.crm.services.UserService;
+import com.crm.utils.BatchUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+    @Qualifier("hashingExecutor")
+    private final ThreadPoolTaskExecutor hashingExecutor;
+    @Qualifier("dbExecutor")
+    private final ThreadPoolTaskExecutor dbExecutor;
+    private final PasswordHasher passwordHasher;
+    private final UserRepo userRepo;
+
+    @Override
+    public CompletableFuture<String> hashPasswordAsync(String password) {
+        return CompletableFuture.supplyAsync(() -> passwordHasher.hash(password), hashingExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> hashPasswordsAsync(List<String> passwords) {
+        if (passwords.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        var chunkSize = (passwords.size() + hashingExecutor.getMaxPoolSize() - 1) / hashingExecutor.getMaxPoolSize();
+        log.info("Hashing {} passwords in chunks of {}", passwords.size(), chunkSize);
+
+        var chunkFutures = BatchUtils.partition(passwords, chunkSize)
+                .stream()
+                .map(chunk -> CompletableFuture.supplyAsync(
+                        () -> chunk.stream().map(passwordHasher::hash).toList(),
+                        hashingExecutor
+                ))
+                .toList();
+
+        return CompletableFuture.allOf(chunkFutures.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> chunkFutures.stream()
+                        .flatMap(chunkFuture -> chunkFuture.join().stream())
+                        .toList());
+    }
+
+    @Override
+    public CompletableFuture<Boolean> matchesPasswordHashAsync(String inputtedPassword, String passwordHash) {
+        return CompletableFuture.supplyAsync(
+                () -> passwordHasher.matches(inputtedPassword, passwordHash),
+                hashingExecutor
+        );
+    }
+
+    @Override
+    public <T extends User> CompletableFuture<Void> changePasswordAsync(UserService<T> userService, UserLoginDto loginDto) {
+        log.info("Started changing password for user={}", loginDto.getUserName());
+        var currentPasswordHash = userService.findByUsernameOrThrow(loginDto.getUserName()).getPassword();
+
+        return matchesPasswordHashAsync(loginDto.getOldPassword(), currentPasswordHash)
+                .thenCompose(isMatching -> {
+                    if (!isMatching) {
+                        log.error("Inputted password does not match password from DB");
+                        throw new PasswordNotMatchException();
+                    }
+
+                    return hashPasswordAsync(loginDto.getNewPassword());
+                })
+                .thenAcceptAsync(newPasswordHash -> userService.updatePassword(
+                        loginDto.getUserName(),
+                        currentPasswordHash,
+                        newPasswordHash
+                ), dbExecutor);
+    }
+
+    @Override
+    public void upgradePasswordHashAsync(String userName, String password, String currentPasswordHash) {
+        if (!passwordHasher.needsRehash(currentPasswordHash)) {
+            return;
+        }
+
+        log.info("Password hash of user={} is outdated, scheduling rehash", userName);
+        try {
+            hashPasswordAsync(password)
+                    .thenAcceptAsync(newPasswordHash -> {
+                        var updated = userRepo.updatePasswordHash(userName, currentPasswordHash, newPasswordHash);
+                        log.info("Password hash of user={} was {}", userName, updated > 0 ? "upgraded" : "changed concurrently, skipping upgrade");
+                    }, dbExecutor)
+                    .exceptionally(ex -> {
+                        log.warn("Password hash upgrade failed for user={}: {}", userName, ex.getMessage());
+                        return null;
+                    });
+        } catch (TaskRejectedException e) {
+            log.warn("Hashing executor is saturated, password hash upgrade for user={} postponed", userName);
+        }
+    }
+}
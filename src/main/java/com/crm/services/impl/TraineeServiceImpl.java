@@ -1,27 +1,52 @@
 package com.crm.services.impl;
 
+import com.crm.caches.CredentialCache;
+import com.crm.caches.UnassignedTrainersCache;
+import com.crm.caches.UsernameBloomFilter;
+import com.crm.converters.mappers.TraineeMapper;
+import com.crm.dtos.BatchItemResult;
+import com.crm.dtos.CursorPage;
 import com.crm.dtos.UserLoginDto;
 import com.crm.dtos.trainee.TraineeDto;
+import com.crm.dtos.trainee.TraineePatchDto;
 import com.crm.dtos.trainee.TraineeTrainingUpdateDto;
 import com.crm.dtos.trainee.TraineeView;
+import com.crm.dtos.training.TrainingCursor;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import com.crm.exceptions.PasswordNotMatchException;
 import com.crm.exceptions.UserNameChangedException;
+import com.crm.metrics.GymMetrics;
 import com.crm.repositories.TraineeRepo;
 import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Trainer;
 import com.crm.repositories.entities.Training;
+import com.crm.search.UserSearchIndex;
+import com.crm.security.PasswordHasher;
+import com.crm.services.PasswordHashingService;
 import com.crm.services.TraineeService;
+import com.crm.services.TrainingService;
+import com.crm.utils.BatchUtils;
+import com.crm.utils.PageUtils;
 import com.crm.utils.UserUtils;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,6 +56,26 @@ import java.util.stream.Collectors;
 public class TraineeServiceImpl implements TraineeService {
     private final TraineeRepo repository;
     private final ConversionService converter;
+    private final TraineeMapper traineeMapper;
+    private final CredentialCache credentialCache;
+    private final PasswordHasher passwordHasher;
+    private final PasswordHashingService passwordHashingService;
+    private final UserBatchRegistrar userBatchRegistrar;
+    private final UsernameAllocator usernameAllocator;
+    private final UsernameBloomFilter usernameFilter;
+    private final UserSearchIndex userSearchIndex;
+    private final UnassignedTrainersCache unassignedTrainersCache;
+    private final GymMetrics gymMetrics;
+    private final TrainingService trainingService;
+
+    @Value("${gym.pagination.default-page-size:50}")
+    private int defaultPageSize;
+    @Value("${gym.pagination.max-page-size:200}")
+    private int maxPageSize;
+    @Value("${gym.status.max-batch-size:10000}")
+    private int maxStatusBatchSize;
+    @Value("${gym.status.chunk-size:1000}")
+    private int statusChunkSize;
 
     @Override
     public Trainee findById(long id) {
@@ -41,12 +86,17 @@ public class TraineeServiceImpl implements TraineeService {
     @Override
     public Trainee findByUsername(String username) {
         log.info("Searching for trainee with username={}", username);
-        return repository.findByUserName(username).orElse(null);
+        return findByUserNameIfPresent(username).orElse(null);
     }
 
     @Override
     public Trainee findByUsernameOrThrow(String userName) {
-        return repository.findByUserName(userName)
+        return findByUserNameIfPresent(userName)
+                .orElseThrow(() -> new EntityNotFoundException("Trainee with username " + userName + " not found"));
+    }
+
+    private Trainee findCredentialsOrThrow(String userName) {
+        return findCredentialsIfPresent(userName)
                 .orElseThrow(() -> new EntityNotFoundException("Trainee with username " + userName + " not found"));
     }
 
@@ -66,28 +116,26 @@ public class TraineeServiceImpl implements TraineeService {
     }
 
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
     public Trainee save(Trainee entity) {
+        return saveWithPasswordHash(entity, passwordHasher.hash(entity.getPassword()));
+    }
+
+    private Trainee saveWithPasswordHash(Trainee entity, String passwordHash) {
         log.info("Checking if trainee already registered in the system.");
-        var isExists = repository.existsTrainerByFirstAndLastName(
-                entity.getFirstName(),
-                entity.getLastName()
-        );
+        var isExists = !usernameFilter.isNameAbsent(Trainer.class, entity.getFirstName(), entity.getLastName())
+                && repository.existsTrainerByFirstAndLastName(entity.getFirstName(), entity.getLastName());
 
         if (isExists) {
             throw new IllegalArgumentException("You can not be registered as a trainer and trainee simultaneously!");
         }
 
         log.info("Starting saving trainee with first name: {}", entity.getFirstName());
-        var uniqueUsername = UserUtils.generateUniqueUsername(
-                entity,
-                repository::existsByUserName
-        );
-
-        entity.setUserName(uniqueUsername);
-        entity.setPassword(UserUtils.hashPassword(entity.getPassword()));
+        entity.setPassword(passwordHash);
         entity.setActive(true);
 
-        var trainee = repository.save(entity);
+        var trainee = usernameAllocator.saveWithUniqueUsername(entity, repository);
+        userSearchIndex.index(trainee);
         log.info("Trainee with id={} was successfully saved", trainee.getId());
 
         return trainee;
@@ -96,86 +144,201 @@ public class TraineeServiceImpl implements TraineeService {
     @Override
     public Trainee update(Trainee entity) {
         log.info("Starting updating trainee...");
-        return repository.save(entity);
+        var updated = repository.save(entity);
+        usernameFilter.put(updated);
+        userSearchIndex.index(updated);
+
+        return updated;
+    }
+
+    private void deleteWithTrainings(Trainee trainee) {
+        var deleted = repository.deleteWithTrainings(trainee);
+        gymMetrics.recordDeleted(Trainee.class, deleted.users());
+        gymMetrics.recordDeleted(Training.class, deleted.trainings());
+    }
+
+    private Optional<Trainee> findByUserNameIfPresent(String userName) {
+        return findByUserNameIfPresent(userName, repository::findByUserName);
+    }
+
+    /**
+     * Credential checks read the password hash from the database, never from the node-local second-level cache.
+     */
+    private Optional<Trainee> findCredentialsIfPresent(String userName) {
+        return findByUserNameIfPresent(userName, repository::findByUserNameUncached);
+    }
+
+    private Optional<Trainee> findByUserNameIfPresent(String userName, Function<String, Optional<Trainee>> lookup) {
+        if (usernameFilter.isUsernameAbsent(userName)) {
+            log.info("Username={} was never registered, skipping trainee lookup", userName);
+            return Optional.empty();
+        }
+
+        return lookup.apply(userName);
     }
 
     @Override
     public void delete(Trainee trainee) {
         log.info("Attempting to delete trainee with id: {}", trainee.getId());
-        repository.delete(trainee);
+        credentialCache.invalidate(trainee.getUserName());
+        deleteWithTrainings(trainee);
+        userSearchIndex.remove(trainee);
+        unassignedTrainersCache.invalidate(trainee.getId());
     }
 
     @Override
     public void deleteByUsername(String username) {
         log.info("Started deleting trainee with username= " + username);
-        repository.findByUserName(username).ifPresent(repository::delete);
+        credentialCache.invalidate(username);
+        findByUserNameIfPresent(username).ifPresent(trainee -> {
+            deleteWithTrainings(trainee);
+            userSearchIndex.remove(trainee);
+            unassignedTrainersCache.invalidate(trainee.getId());
+        });
     }
 
     @Override
-    public boolean activateStatus(long id) {
-        log.info("Activating status for trainee with id={}", id);
-
-        var foundEntity = repository.findById(id);
-        if (foundEntity.isPresent()) {
-            var entity = foundEntity.get();
-            entity.setActive(true);
-            return repository.save(entity).isActive();
+    public void updateStatus(String userName, boolean isActive) {
+        log.info("Setting status of trainee with username={} to active={}", userName, isActive);
+        var isUpdated = !usernameFilter.isUsernameAbsent(userName) && repository.updateStatus(userName, isActive) > 0;
+        if (!isUpdated) {
+            throw new EntityNotFoundException("Trainee with username " + userName + " not found");
         }
 
-        return false;
+        credentialCache.invalidate(userName);
     }
 
     @Override
-    public boolean deactivateStatus(long id) {
-        log.info("Deactivating status for trainee with id={}", id);
-
-        var foundEntity = repository.findById(id);
-        if (foundEntity.isPresent()) {
-            var entity = foundEntity.get();
-            entity.setActive(false);
-            return repository.save(entity).isActive();
+    public int updateStatuses(List<String> userNames, boolean isActive) {
+        var distinctUserNames = List.copyOf(new LinkedHashSet<>(userNames));
+        if (distinctUserNames.size() > maxStatusBatchSize) {
+            throw new IllegalArgumentException("Batch size must not exceed " + maxStatusBatchSize + ", but was " + distinctUserNames.size());
         }
 
-        return false;
+        log.info("Setting status of {} trainees to active={}", distinctUserNames.size(), isActive);
+        var updatedCount = BatchUtils.partition(distinctUserNames, statusChunkSize)
+                .stream()
+                .mapToInt(chunk -> repository.updateStatuses(chunk, isActive))
+                .sum();
+
+        distinctUserNames.forEach(credentialCache::invalidate);
+        log.info("Status of {} of {} trainees was changed", updatedCount, distinctUserNames.size());
+
+        return updatedCount;
     }
 
     @Override
     public boolean isUsernameAndPasswordMatching(String username, String inputtedPassword) {
         log.info("Started verification for user name and password matching...");
-        return repository.findByUserName(username)
-                .map(user -> UserUtils.matchesPasswordHash(inputtedPassword, user.getPassword()))
+        return findCredentialsIfPresent(username)
+                .map(user -> isPasswordMatching(user, inputtedPassword))
                 .orElse(false);
     }
 
+    private boolean isPasswordMatching(Trainee user, String inputtedPassword) {
+        if (credentialCache.isVerified(user.getUserName(), user.getPassword(), inputtedPassword)) {
+            log.info("Credentials were verified recently, skipping password hash check");
+            return true;
+        }
+
+        var isMatching = passwordHasher.matches(inputtedPassword, user.getPassword());
+        if (isMatching) {
+            credentialCache.markVerified(user.getUserName(), user.getPassword(), inputtedPassword);
+            passwordHashingService.upgradePasswordHashAsync(user.getUserName(), inputtedPassword, user.getPassword());
+        }
+
+        return isMatching;
+    }
+
     @Override
     public Set<TrainingView> findTraineeTrainingsByCriteria(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType) {
         log.info("Starting searching for trainings by criteria... ");
-        return repository.getTraineeTrainingsByCriteria(traineeUsername, fromDate, toDate, trainerUserName, trainingType)
-                .stream()
-                .map(training -> converter.convert(training, TrainingView.class))
-                .collect(Collectors.toSet());
+        return new LinkedHashSet<>(
+                repository.getTraineeTrainingsByCriteria(traineeUsername, fromDate, toDate, trainerUserName, trainingType)
+        );
     }
 
     @Override
+    public CursorPage<TrainingView> findTraineeTrainingsPage(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType, String cursor, Integer limit) {
+        var pageSize = PageUtils.resolvePageSize(limit, defaultPageSize, maxPageSize);
+        log.info("Starting searching for a page of {} trainings by criteria... ", pageSize);
+
+        var rows = repository.getTraineeTrainingsPage(traineeUsername, fromDate, toDate, trainerUserName, trainingType, TrainingCursor.decode(cursor), pageSize + 1);
+        return CursorPage.of(rows, pageSize, TrainingCursor::encode);
+    }
+
+    @Override
+    public void streamTraineeTrainingsByCriteria(String traineeUsername, LocalDate fromDate, LocalDate toDate, String trainerUserName, TrainingType trainingType, Consumer<TrainingView> consumer) {
+        log.info("Starting streaming of trainings by criteria... ");
+        try (var trainings = repository.streamTraineeTrainingsByCriteria(traineeUsername, fromDate, toDate, trainerUserName, trainingType)) {
+            trainings.forEach(consumer);
+        }
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
     public TraineeDto addTrainee(TraineeDto traineeDto) {
         log.info("Starting adding new trainee`s profile...");
         var fromDto = converter.convert(traineeDto, Trainee.class);
         return converter.convert(save(fromDto), TraineeDto.class);
     }
 
+    @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public TraineeDto addTrainee(TraineeDto traineeDto, String passwordHash) {
+        log.info("Starting adding new trainee`s profile with precomputed password hash...");
+        var fromDto = converter.convert(traineeDto, Trainee.class);
+        return converter.convert(saveWithPasswordHash(fromDto, passwordHash), TraineeDto.class);
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public CompletableFuture<List<BatchItemResult<TraineeDto>>> addTrainees(List<TraineeDto> traineeDtos) {
+        log.info("Starting adding batch of {} trainees...", traineeDtos.size());
+        return userBatchRegistrar.register(
+                traineeDtos,
+                dto -> converter.convert(dto, Trainee.class),
+                trainee -> converter.convert(trainee, TraineeDto.class),
+                repository::findTrainerBaseUsernames,
+                repository
+        );
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public CompletableFuture<List<BatchItemResult<Trainee>>> saveAll(List<Trainee> trainees) {
+        log.info("Starting saving batch of {} trainees...", trainees.size());
+        return userBatchRegistrar.registerEntities(trainees, repository::findTrainerBaseUsernames, repository);
+    }
+
     @Override
     public void changePassword(UserLoginDto loginDto) {
         log.info("Started changing password for trainee...");
-        var foundTrainee = findByUsernameOrThrow(loginDto.getUserName());
+        var foundTrainee = findCredentialsOrThrow(loginDto.getUserName());
 
-        var result = UserUtils.matchesPasswordHash(loginDto.getOldPassword(), foundTrainee.getPassword());
+        var result = passwordHasher.matches(loginDto.getOldPassword(), foundTrainee.getPassword());
         if (!result) {
             log.error("Inputted password does not match password from DB");
             throw new PasswordNotMatchException();
         }
 
         log.info("Changing password for trainee...");
-        foundTrainee.setPassword(UserUtils.hashPassword(loginDto.getNewPassword()));
+        foundTrainee.setPassword(passwordHasher.hash(loginDto.getNewPassword()));
+        credentialCache.invalidate(foundTrainee.getUserName());
+        repository.save(foundTrainee);
+    }
+
+    @Override
+    public void updatePassword(String userName, String currentPasswordHash, String newPasswordHash) {
+        log.info("Started updating password hash for trainee...");
+        var foundTrainee = findCredentialsOrThrow(userName);
+        if (!foundTrainee.getPassword().equals(currentPasswordHash)) {
+            log.error("Password was changed concurrently for trainee with username={}", userName);
+            throw new PasswordNotMatchException("Password was changed concurrently, please retry!");
+        }
+
+        foundTrainee.setPassword(newPasswordHash);
+        credentialCache.invalidate(userName);
         repository.save(foundTrainee);
     }
 
@@ -183,21 +346,36 @@ public class TraineeServiceImpl implements TraineeService {
     public TraineeView findProfileByUserName(String username) {
         log.info("Started searching for trainee`s profile with user name=" + username);
         var foundTrainee = findByUsernameOrThrow(username);
-        return converter.convert(foundTrainee, TraineeView.class);
+        return toProfileView(foundTrainee);
     }
 
     @Override
     public TraineeView updateTraineeProfile(Long id, TraineeDto updateDto) {
         log.info("Starting updating trainee`s profile...");
-        var foundTrainee = findByUsernameOrThrow(updateDto.getUserName());
-        if (!foundTrainee.getUserName().equals(updateDto.getUserName())) {
+        return changeProfile(id, updateDto.getUserName(), updateDto.getVersion(),
+                trainee -> traineeMapper.updateTrainee(trainee, converter.convert(updateDto, Trainee.class)));
+    }
+
+    @Override
+    public TraineeView patchTraineeProfile(Long id, TraineePatchDto patchDto) {
+        log.info("Starting patching trainee`s profile...");
+        return changeProfile(id, patchDto.getUserName(), patchDto.getVersion(),
+                trainee -> traineeMapper.patchTrainee(trainee, patchDto));
+    }
+
+    private TraineeView changeProfile(Long id, String userName, Long version, Consumer<Trainee> change) {
+        var foundTrainee = findByUsernameOrThrow(userName);
+        if (!foundTrainee.getUserName().equals(userName) || !Objects.equals(foundTrainee.getId(), id)) {
             throw new UserNameChangedException();
         }
+        UserUtils.checkVersion(foundTrainee, version);
 
-        var fromDto = converter.convert(updateDto, Trainee.class);
-        fromDto.setId(id);
+        change.accept(foundTrainee);
+        repository.flush();
+        usernameFilter.put(foundTrainee);
+        userSearchIndex.index(foundTrainee);
 
-        return converter.convert(update(fromDto), TraineeView.class);
+        return toProfileView(foundTrainee);
     }
 
     @Override
@@ -206,7 +384,7 @@ public class TraineeServiceImpl implements TraineeService {
         var newTrainings = updateDto.getTrainings()
                 .stream()
                 .map(dto -> converter.convert(dto, Training.class))
-                .collect(Collectors.toSet());
+                .toList();
 
         var foundTrainee = findByUsernameOrThrow(updateDto.getUserName());
 
@@ -218,11 +396,22 @@ public class TraineeServiceImpl implements TraineeService {
             throw new IllegalArgumentException("Inputted trainings are not belong to user with id=" + foundTrainee.getId());
         }
 
-        foundTrainee.getTrainings().addAll(newTrainings);
-        return update(foundTrainee)
-                .getTrainings()
+        newTrainings.forEach(training -> training.setTrainee(foundTrainee));
+        return trainingService.saveAll(newTrainings)
                 .stream()
                 .map(training -> converter.convert(training, TrainingView.class))
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Converts the trainee to a profile view whose trainers are read with one distinct query instead of
+     * loading all trainings; the trainings themselves are paged with {@link #findTraineeTrainingsPage}.
+     */
+    private TraineeView toProfileView(Trainee trainee) {
+        var view = converter.convert(trainee, TraineeView.class);
+        view.setTrainersList(new LinkedHashSet<>(repository.getTrainersOfTrainee(trainee.getId())));
+        view.setTrainingCounts(repository.countTrainings(trainee.getId(), LocalDateTime.now()));
+
+        return view;
     }
-}
\ No newline at end of file
+}
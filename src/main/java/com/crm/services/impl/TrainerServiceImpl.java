@@ -1,26 +1,54 @@
 package com.crm.services.impl;
 
+import com.crm.caches.CredentialCache;
+import com.crm.caches.UnassignedTrainersCache;
+import com.crm.caches.UsernameBloomFilter;
+import com.crm.converters.mappers.TrainerMapper;
+import com.crm.dtos.BatchItemResult;
+import com.crm.dtos.CursorPage;
 import com.crm.dtos.UserLoginDto;
+import com.crm.dtos.trainer.TrainerCursor;
 import com.crm.dtos.trainer.TrainerDto;
+import com.crm.dtos.trainer.TrainerPatchDto;
+import com.crm.dtos.trainer.TrainerSummary;
 import com.crm.dtos.trainer.TrainerView;
+import com.crm.dtos.training.TrainingCursor;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
+import com.crm.enums.TrainingWindow;
 import com.crm.exceptions.PasswordNotMatchException;
 import com.crm.exceptions.UserNameChangedException;
+import com.crm.metrics.GymMetrics;
 import com.crm.repositories.TrainerRepo;
+import com.crm.repositories.entities.Trainee;
 import com.crm.repositories.entities.Trainer;
+import com.crm.repositories.entities.Training;
+import com.crm.search.UserSearchIndex;
+import com.crm.security.PasswordHasher;
+import com.crm.services.PasswordHashingService;
 import com.crm.services.TrainerService;
+import com.crm.utils.BatchUtils;
+import com.crm.utils.PageUtils;
 import com.crm.utils.UserUtils;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @Slf4j
@@ -29,6 +57,29 @@ import java.util.stream.Collectors;
 public class TrainerServiceImpl implements TrainerService {
     private final TrainerRepo repository;
     private final ConversionService converter;
+    private final TrainerMapper trainerMapper;
+    private final CredentialCache credentialCache;
+    private final PasswordHasher passwordHasher;
+    private final PasswordHashingService passwordHashingService;
+    private final UserBatchRegistrar userBatchRegistrar;
+    private final UsernameAllocator usernameAllocator;
+    private final UsernameBloomFilter usernameFilter;
+    private final UserSearchIndex userSearchIndex;
+    private final UnassignedTrainersCache unassignedTrainersCache;
+    private final GymMetrics gymMetrics;
+
+    @Value("${gym.pagination.default-page-size:50}")
+    private int defaultPageSize;
+    @Value("${gym.pagination.max-page-size:200}")
+    private int maxPageSize;
+    @Value("${gym.status.max-batch-size:10000}")
+    private int maxStatusBatchSize;
+    @Value("${gym.status.chunk-size:1000}")
+    private int statusChunkSize;
+    @Value("${gym.profile.trainings-window:UPCOMING}")
+    private TrainingWindow trainingsWindow;
+    @Value("${gym.profile.trainings-window-size:10}")
+    private int trainingsWindowSize;
 
     @Override
     public Trainer findById(long id) {
@@ -39,12 +90,17 @@ public class TrainerServiceImpl implements TrainerService {
     @Override
     public Trainer findByUsername(String username) {
         log.info("Searching for trainer with username={}", username);
-        return repository.findByUserName(username).orElse(null);
+        return findByUserNameIfPresent(username).orElse(null);
     }
 
     @Override
     public Trainer findByUsernameOrThrow(String userName) {
-        return repository.findByUserName(userName)
+        return findByUserNameIfPresent(userName)
+                .orElseThrow(() -> new EntityNotFoundException("Trainer with username " + userName + " not found"));
+    }
+
+    private Trainer findCredentialsOrThrow(String userName) {
+        return findCredentialsIfPresent(userName)
                 .orElseThrow(() -> new EntityNotFoundException("Trainer with username " + userName + " not found"));
     }
 
@@ -63,28 +119,27 @@ public class TrainerServiceImpl implements TrainerService {
     }
 
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
     public Trainer save(Trainer entity) {
+        return saveWithPasswordHash(entity, passwordHasher.hash(entity.getPassword()));
+    }
+
+    private Trainer saveWithPasswordHash(Trainer entity, String passwordHash) {
         log.info("Checking if trainer already registered in the system.");
-        var isExists = repository.existsTraineeByFirstAndLastName(
-                entity.getFirstName(),
-                entity.getLastName()
-        );
+        var isExists = !usernameFilter.isNameAbsent(Trainee.class, entity.getFirstName(), entity.getLastName())
+                && repository.existsTraineeByFirstAndLastName(entity.getFirstName(), entity.getLastName());
 
         if (isExists) {
             throw new IllegalArgumentException("You can not be registered as a trainer and trainee simultaneously!");
         }
 
         log.info("Starting saving trainer with first name: {}", entity.getFirstName());
-        var uniqueUsername = UserUtils.generateUniqueUsername(
-                entity,
-                repository::existsByUserName
-        );
-
-        entity.setUserName(uniqueUsername);
-        entity.setPassword(UserUtils.hashPassword(entity.getPassword()));
+        entity.setPassword(passwordHash);
         entity.setActive(true);
 
-        var savedTrainer = repository.save(entity);
+        var savedTrainer = usernameAllocator.saveWithUniqueUsername(entity, repository);
+        userSearchIndex.index(savedTrainer);
+        unassignedTrainersCache.invalidateAll();
         log.info("Trainer with id={} was successfully saved", savedTrainer.getId());
 
         return savedTrainer;
@@ -93,65 +148,182 @@ public class TrainerServiceImpl implements TrainerService {
     @Override
     public Trainer update(Trainer entity) {
         log.info("Starting updating entity...");
-        return repository.save(entity);
+        var updated = repository.save(entity);
+        usernameFilter.put(updated);
+        userSearchIndex.index(updated);
+        unassignedTrainersCache.invalidateAll();
+
+        return updated;
     }
 
     @Override
-    public boolean activateStatus(long id) {
-        log.info("Activating status for trainer with id={}", id);
+    public void delete(Trainer trainer) {
+        log.info("Attempting to delete trainer with id: {}", trainer.getId());
+        credentialCache.invalidate(trainer.getUserName());
+        deleteWithTrainings(trainer);
+        userSearchIndex.remove(trainer);
+        unassignedTrainersCache.invalidateAll();
+    }
+
+    @Override
+    public void deleteByUsername(String username) {
+        log.info("Started deleting trainer with username= " + username);
+        credentialCache.invalidate(username);
+        findByUserNameIfPresent(username).ifPresent(trainer -> {
+            deleteWithTrainings(trainer);
+            userSearchIndex.remove(trainer);
+            unassignedTrainersCache.invalidateAll();
+        });
+    }
+
+    private void deleteWithTrainings(Trainer trainer) {
+        var deleted = repository.deleteWithTrainings(trainer);
+        gymMetrics.recordDeleted(Trainer.class, deleted.users());
+        gymMetrics.recordDeleted(Training.class, deleted.trainings());
+    }
+
+    private Optional<Trainer> findByUserNameIfPresent(String userName) {
+        return findByUserNameIfPresent(userName, repository::findByUserName);
+    }
+
+    /**
+     * Credential checks read the password hash from the database, never from the node-local second-level cache.
+     */
+    private Optional<Trainer> findCredentialsIfPresent(String userName) {
+        return findByUserNameIfPresent(userName, repository::findByUserNameUncached);
+    }
 
-        var foundEntity = repository.findById(id);
-        if (foundEntity.isPresent()) {
-            var entity = foundEntity.get();
-            entity.setActive(true);
-            return repository.save(entity).isActive();
+    private Optional<Trainer> findByUserNameIfPresent(String userName, Function<String, Optional<Trainer>> lookup) {
+        if (usernameFilter.isUsernameAbsent(userName)) {
+            log.info("Username={} was never registered, skipping trainer lookup", userName);
+            return Optional.empty();
         }
 
-        return false;
+        return lookup.apply(userName);
     }
 
     @Override
-    public boolean deactivateStatus(long id) {
-        log.info("Deactivating status for trainer with id={}", id);
+    public void updateStatus(String userName, boolean isActive) {
+        log.info("Setting status of trainer with username={} to active={}", userName, isActive);
+        var isUpdated = !usernameFilter.isUsernameAbsent(userName) && repository.updateStatus(userName, isActive) > 0;
+        if (!isUpdated) {
+            throw new EntityNotFoundException("Trainer with username " + userName + " not found");
+        }
+
+        credentialCache.invalidate(userName);
+        unassignedTrainersCache.invalidateAll();
+    }
+
+    @Override
+    public int updateStatuses(List<String> userNames, boolean isActive) {
+        var distinctUserNames = List.copyOf(new LinkedHashSet<>(userNames));
+        if (distinctUserNames.size() > maxStatusBatchSize) {
+            throw new IllegalArgumentException("Batch size must not exceed " + maxStatusBatchSize + ", but was " + distinctUserNames.size());
+        }
+
+        log.info("Setting status of {} trainers to active={}", distinctUserNames.size(), isActive);
+        var updatedCount = BatchUtils.partition(distinctUserNames, statusChunkSize)
+                .stream()
+                .mapToInt(chunk -> repository.updateStatuses(chunk, isActive))
+                .sum();
 
-        var foundEntity = repository.findById(id);
-        if (foundEntity.isPresent()) {
-            var entity = foundEntity.get();
-            entity.setActive(false);
-            return repository.save(entity).isActive();
+        distinctUserNames.forEach(credentialCache::invalidate);
+        if (updatedCount > 0) {
+            unassignedTrainersCache.invalidateAll();
         }
+        log.info("Status of {} of {} trainers was changed", updatedCount, distinctUserNames.size());
 
-        return false;
+        return updatedCount;
     }
 
     @Override
     public boolean isUsernameAndPasswordMatching(String username, String inputtedPassword) {
         log.info("Started verification for user name and password matching...");
-        return repository.findByUserName(username)
-                .map(user -> UserUtils.matchesPasswordHash(inputtedPassword, user.getPassword()))
+        return findCredentialsIfPresent(username)
+                .map(user -> isPasswordMatching(user, inputtedPassword))
                 .orElse(false);
     }
 
+    private boolean isPasswordMatching(Trainer user, String inputtedPassword) {
+        if (credentialCache.isVerified(user.getUserName(), user.getPassword(), inputtedPassword)) {
+            log.info("Credentials were verified recently, skipping password hash check");
+            return true;
+        }
+
+        var isMatching = passwordHasher.matches(inputtedPassword, user.getPassword());
+        if (isMatching) {
+            credentialCache.markVerified(user.getUserName(), user.getPassword(), inputtedPassword);
+            passwordHashingService.upgradePasswordHashAsync(user.getUserName(), inputtedPassword, user.getPassword());
+        }
+
+        return isMatching;
+    }
+
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
     public TrainerDto addTrainer(TrainerDto trainerDto) {
         log.info("Starting adding new trainer`s profile...");
         var fromDto = converter.convert(trainerDto, Trainer.class);
         return converter.convert(save(fromDto), TrainerDto.class);
     }
 
+    @Override
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public TrainerDto addTrainer(TrainerDto trainerDto, String passwordHash) {
+        log.info("Starting adding new trainer`s profile with precomputed password hash...");
+        var fromDto = converter.convert(trainerDto, Trainer.class);
+        return converter.convert(saveWithPasswordHash(fromDto, passwordHash), TrainerDto.class);
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public CompletableFuture<List<BatchItemResult<TrainerDto>>> addTrainers(List<TrainerDto> trainerDtos) {
+        log.info("Starting adding batch of {} trainers...", trainerDtos.size());
+        return userBatchRegistrar.register(
+                trainerDtos,
+                dto -> converter.convert(dto, Trainer.class),
+                trainer -> converter.convert(trainer, TrainerDto.class),
+                repository::findTraineeBaseUsernames,
+                repository
+        ).whenComplete((results, e) -> unassignedTrainersCache.invalidateAll());
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public CompletableFuture<List<BatchItemResult<Trainer>>> saveAll(List<Trainer> trainers) {
+        log.info("Starting saving batch of {} trainers...", trainers.size());
+        return userBatchRegistrar.registerEntities(trainers, repository::findTraineeBaseUsernames, repository)
+                .whenComplete((results, e) -> unassignedTrainersCache.invalidateAll());
+    }
+
     @Override
     public void changePassword(UserLoginDto loginDto) {
         log.info("Started changing password for trainer...");
-        var foundTrainer = findByUsernameOrThrow(loginDto.getUserName());
+        var foundTrainer = findCredentialsOrThrow(loginDto.getUserName());
 
-        var result = UserUtils.matchesPasswordHash(loginDto.getOldPassword(), foundTrainer.getPassword());
+        var result = passwordHasher.matches(loginDto.getOldPassword(), foundTrainer.getPassword());
         if (!result) {
             log.error("Inputted password does not match password from DB");
             throw new PasswordNotMatchException();
         }
 
         log.info("Changing password for trainee...");
-        foundTrainer.setPassword(UserUtils.hashPassword(loginDto.getNewPassword()));
+        foundTrainer.setPassword(passwordHasher.hash(loginDto.getNewPassword()));
+        credentialCache.invalidate(foundTrainer.getUserName());
+        repository.save(foundTrainer);
+    }
+
+    @Override
+    public void updatePassword(String userName, String currentPasswordHash, String newPasswordHash) {
+        log.info("Started updating password hash for trainer...");
+        var foundTrainer = findCredentialsOrThrow(userName);
+        if (!foundTrainer.getPassword().equals(currentPasswordHash)) {
+            log.error("Password was changed concurrently for trainer with username={}", userName);
+            throw new PasswordNotMatchException("Password was changed concurrently, please retry!");
+        }
+
+        foundTrainer.setPassword(newPasswordHash);
+        credentialCache.invalidate(userName);
         repository.save(foundTrainer);
     }
 
@@ -159,39 +331,95 @@ public class TrainerServiceImpl implements TrainerService {
     public TrainerView findProfileByUserName(String username) {
         log.info("Started searching for trainer`s profile with user name=" + username);
         var foundTrainer = findByUsernameOrThrow(username);
-        return converter.convert(foundTrainer, TrainerView.class);
+        return toProfileView(foundTrainer);
     }
 
     @Override
     public TrainerView updateTrainerProfile(Long id, TrainerDto updateDto) {
         log.info("Starting updating trainer`s profile...");
-        var foundTrainer = findByUsernameOrThrow(updateDto.getUserName());
-        if (!foundTrainer.getUserName().equals(updateDto.getUserName())) {
+        return changeProfile(id, updateDto.getUserName(), updateDto.getVersion(),
+                trainer -> trainerMapper.updateTrainer(trainer, converter.convert(updateDto, Trainer.class)));
+    }
+
+    @Override
+    public TrainerView patchTrainerProfile(Long id, TrainerPatchDto patchDto) {
+        log.info("Starting patching trainer`s profile...");
+        return changeProfile(id, patchDto.getUserName(), patchDto.getVersion(),
+                trainer -> trainerMapper.patchTrainer(trainer, patchDto));
+    }
+
+    private TrainerView changeProfile(Long id, String userName, Long version, Consumer<Trainer> change) {
+        var foundTrainer = findByUsernameOrThrow(userName);
+        if (!foundTrainer.getUserName().equals(userName) || !Objects.equals(foundTrainer.getId(), id)) {
             throw new UserNameChangedException();
         }
+        UserUtils.checkVersion(foundTrainer, version);
 
-        var fromDto = converter.convert(updateDto, Trainer.class);
-        fromDto.setId(id);
+        change.accept(foundTrainer);
+        repository.flush();
+        usernameFilter.put(foundTrainer);
+        userSearchIndex.index(foundTrainer);
+        unassignedTrainersCache.invalidateAll();
 
-        return converter.convert(update(fromDto), TrainerView.class);
+        return toProfileView(foundTrainer);
     }
 
     @Override
-    public Set<TrainerDto> findNotAssignedTrainersByTraineeUserName(String username) {
-        log.info("Starting searching for not assigned trainers by trainee user name... ");
-        return repository.getUnassignedTrainersByTraineeUsername(username)
-                .stream()
-                .map(trainer -> converter.convert(trainer, TrainerDto.class))
-                .collect(Collectors.toSet());
+    public CursorPage<TrainerSummary> findNotAssignedTrainersPage(String traineeUsername, TrainingType specialization, String cursor, Integer limit) {
+        var pageSize = PageUtils.resolvePageSize(limit, defaultPageSize, maxPageSize);
+        log.info("Starting searching for a page of {} not assigned trainers by trainee user name... ", pageSize);
+
+        var traineeId = repository.findTraineeIdByUserName(traineeUsername)
+                .orElseThrow(() -> new EntityNotFoundException("Trainee with username " + traineeUsername + " not found"));
+        var after = TrainerCursor.decode(cursor);
+
+        var rows = unassignedTrainersCache.get(
+                traineeId, specialization, after != null ? after.id() : null, pageSize + 1,
+                () -> repository.getUnassignedTrainersPage(traineeId, specialization, after, pageSize + 1)
+        );
+        return CursorPage.of(rows, pageSize, TrainerCursor::encode);
     }
 
     @Override
     public Set<TrainingView> findTrainerTrainingsByCriteria(String trainerUsername, LocalDate fromDate, LocalDate toDate, String traineeUserName, TrainingType trainingType) {
         log.info("Starting searching for trainings by criteria... ");
-        return repository.getTrainerTrainingsByCriteria(trainerUsername, fromDate, toDate, traineeUserName, trainingType)
-                .stream()
-                .map(training -> converter.convert(training, TrainingView.class))
-                .collect(Collectors.toSet());
+        return new LinkedHashSet<>(
+                repository.getTrainerTrainingsByCriteria(trainerUsername, fromDate, toDate, traineeUserName, trainingType)
+        );
+    }
+
+    @Override
+    public CursorPage<TrainingView> findTrainerTrainingsPage(String trainerUsername, LocalDate fromDate, LocalDate toDate, String traineeUserName, TrainingType trainingType, String cursor, Integer limit) {
+        var pageSize = PageUtils.resolvePageSize(limit, defaultPageSize, maxPageSize);
+        log.info("Starting searching for a page of {} trainings by criteria... ", pageSize);
+
+        var rows = repository.getTrainerTrainingsPage(trainerUsername, fromDate, toDate, traineeUserName, trainingType, TrainingCursor.decode(cursor), pageSize + 1);
+        return CursorPage.of(rows, pageSize, TrainingCursor::encode);
+    }
+
+    @Override
+    public void streamTrainerTrainingsByCriteria(String trainerUsername, LocalDate fromDate, LocalDate toDate, String traineeUserName, TrainingType trainingType, Consumer<TrainingView> consumer) {
+        log.info("Starting streaming of trainings by criteria... ");
+        try (var trainings = repository.streamTrainerTrainingsByCriteria(trainerUsername, fromDate, toDate, traineeUserName, trainingType)) {
+            trainings.forEach(consumer);
+        }
     }
 
-}
\ No newline at end of file
+
+    /**
+     * Converts the trainer to a profile view holding only the configured window of trainings and the training counts;
+     * the full history is paged with {@link #findTrainerTrainingsPage}.
+     */
+    private TrainerView toProfileView(Trainer trainer) {
+        var view = converter.convert(trainer, TrainerView.class);
+        var now = LocalDateTime.now();
+        var limit = Limit.of(trainingsWindowSize);
+
+        view.setTrainingViews(trainingsWindow == TrainingWindow.UPCOMING
+                ? repository.getUpcomingTrainings(trainer.getId(), now, limit)
+                : repository.getRecentTrainings(trainer.getId(), limit));
+        view.setTrainingCounts(repository.countTrainings(trainer.getId(), now));
+
+        return view;
+    }
+}
@@ -1,8 +1,11 @@
 package com.crm.services.impl;
 
+import com.crm.caches.UnassignedTrainersCache;
+import com.crm.dtos.BatchItemResult;
 import com.crm.dtos.training.TrainingDto;
 import com.crm.dtos.training.TrainingView;
 import com.crm.repositories.TrainingRepo;
+import com.crm.repositories.entities.Trainee;
 import com.crm.repositories.entities.Training;
 import com.crm.services.TrainingService;
 import jakarta.transaction.Transactional;
@@ -10,6 +13,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -18,6 +26,8 @@ import org.springframework.stereotype.Service;
 public class TrainingServiceImpl implements TrainingService {
     private final TrainingRepo trainingRepo;
     private final ConversionService convertor;
+    private final UnassignedTrainersCache unassignedTrainersCache;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public Training findById(long id) {
@@ -28,12 +38,72 @@ public class TrainingServiceImpl implements TrainingService {
     @Override
     public Training save(Training training) {
         log.info("Started saving training");
-        return trainingRepo.save(training);
+        var saved = trainingRepo.save(training);
+        invalidateUnassignedTrainers(List.of(training));
+
+        return saved;
+    }
+
+    @Override
+    public List<Training> saveAll(List<Training> trainings) {
+        log.info("Started saving {} trainings", trainings.size());
+        var saved = trainingRepo.saveAll(trainings);
+        invalidateUnassignedTrainers(trainings);
+
+        return saved;
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public List<BatchItemResult<Training>> importAll(List<Training> trainings) {
+        log.info("Started importing {} trainings", trainings.size());
+        var results = new ArrayList<BatchItemResult<Training>>(trainings.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                trainingRepo.saveAll(trainings);
+                trainingRepo.flush();
+            });
+            for (int index = 0; index < trainings.size(); index++) {
+                results.add(BatchItemResult.created(index, trainings.get(index)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Saving chunk of {} trainings failed, retrying one by one: {}", trainings.size(), e.getMessage());
+            results.clear();
+            for (int index = 0; index < trainings.size(); index++) {
+                results.add(importItem(index, trainings.get(index)));
+            }
+        }
+        invalidateUnassignedTrainers(trainings);
+
+        return results;
     }
 
     @Override
     public TrainingView addTraining(TrainingDto trainingDto) {
         var fromDto = convertor.convert(trainingDto, Training.class);
-        return convertor.convert(trainingRepo.save(fromDto), TrainingView.class);
+        return convertor.convert(save(fromDto), TrainingView.class);
+    }
+
+    private BatchItemResult<Training> importItem(int index, Training training) {
+        try {
+            training.setId(null);
+            transactionTemplate.executeWithoutResult(status -> {
+                trainingRepo.save(training);
+                trainingRepo.flush();
+            });
+            return BatchItemResult.created(index, training);
+        } catch (RuntimeException e) {
+            log.warn("Saving training #{} failed: {}", index, e.getMessage());
+            return BatchItemResult.failed(index, "Training could not be saved: " + e.getMessage());
+        }
+    }
+
+    private void invalidateUnassignedTrainers(List<Training> trainings) {
+        trainings.stream()
+                .map(Training::getTrainee)
+                .filter(Objects::nonNull)
+                .map(Trainee::getId)
+                .distinct()
+                .forEach(unassignedTrainersCache::invalidate);
     }
 }
\ No newline at end of file
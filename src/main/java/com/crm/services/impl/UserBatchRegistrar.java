@@ -0,0 +1,289 @@
+package com.crm.services.impl;
+
+import com.crm.caches.UsernameBloomFilter;
+import com.crm.dtos.BatchItemResult;
+import com.crm.dtos.UserDto;
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.User;
+import com.crm.search.UserSearchIndex;
+import com.crm.services.PasswordHashingService;
+import com.crm.utils.BatchUtils;
+import com.crm.utils.UserUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registers a batch of trainees or trainers with a constant number of queries per batch.
+ *
+ * Invalid items, cross-role conflicts and failed inserts are reported per item and never fail the whole batch.
+ * Usernames are resolved with set-based lookups, passwords are hashed in parallel on the hashing executor,
+ * and the entities are inserted on the database executor chunk by chunk, each chunk in its own transaction. When a chunk fails,
+ * its items are retried one by one with freshly allocated usernames, so that only the offending rows
+ * are reported as failed.
+ */
+@Slf4j
+@Component
+public class UserBatchRegistrar {
+    private static final String CROSS_ROLE_ERROR = "You can not be registered as a trainer and trainee simultaneously!";
+
+    private final UserRepo userRepo;
+    private final PasswordHashingService passwordHashingService;
+    private final UsernameAllocator usernameAllocator;
+    private final UsernameBloomFilter usernameFilter;
+    private final UserSearchIndex userSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor dbExecutor;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final int chunkSize;
+
+    public UserBatchRegistrar(
+            UserRepo userRepo,
+            PasswordHashingService passwordHashingService,
+            UsernameAllocator usernameAllocator,
+            UsernameBloomFilter usernameFilter,
+            UserSearchIndex userSearchIndex,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("dbExecutor") ThreadPoolTaskExecutor dbExecutor,
+            Validator validator,
+            @Value("${gym.batch.max-size:1000}") int maxBatchSize,
+            @Value("${gym.batch.chunk-size:100}") int chunkSize
+    ) {
+        this.userRepo = userRepo;
+        this.passwordHashingService = passwordHashingService;
+        this.usernameAllocator = usernameAllocator;
+        this.usernameFilter = usernameFilter;
+        this.userSearchIndex = userSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.dbExecutor = dbExecutor;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param dtos                    users to register
+     * @param toEntity                converts an item to a new entity
+     * @param toDto                   converts a saved entity to the item result
+     * @param otherRoleBaseUsernames  returns base usernames ({@code firstName.lastName}) of users of the other role
+     *                                among the given first and last names
+     * @param repository              repository of the registered role
+     * @return a future of per-item results in the order of the given items
+     */
+    public <D extends UserDto, T extends User> CompletableFuture<List<BatchItemResult<D>>> register(
+            List<D> dtos,
+            Function<D, T> toEntity,
+            Function<T, D> toDto,
+            BiFunction<Set<String>, Set<String>, Set<String>> otherRoleBaseUsernames,
+            JpaRepository<T, Long> repository
+    ) {
+        checkBatchSize(dtos.size());
+
+        log.info("Started batch registration of {} users", dtos.size());
+        var results = new ArrayList<BatchItemResult<D>>(Collections.nCopies(dtos.size(), null));
+        var pending = new ArrayList<PendingItem<T>>();
+
+        for (int index = 0; index < dtos.size(); index++) {
+            var violations = validator.validate(dtos.get(index));
+            if (violations.isEmpty()) {
+                pending.add(new PendingItem<>(index, toEntity.apply(dtos.get(index))));
+            } else {
+                results.set(index, BatchItemResult.failed(index, joinMessages(violations)));
+            }
+        }
+
+        return registerPending(pending, results, toDto, otherRoleBaseUsernames, repository);
+    }
+
+    /**
+     * Registers already built entities without bean validation, e.g. trusted data imported on startup.
+     *
+     * @param entities               new users with raw passwords
+     * @param otherRoleBaseUsernames see {@link #register}
+     * @param repository             repository of the registered role
+     * @return a future of per-item results holding the saved entities in the order of the given entities
+     */
+    public <T extends User> CompletableFuture<List<BatchItemResult<T>>> registerEntities(
+            List<T> entities,
+            BiFunction<Set<String>, Set<String>, Set<String>> otherRoleBaseUsernames,
+            JpaRepository<T, Long> repository
+    ) {
+        checkBatchSize(entities.size());
+
+        log.info("Started batch registration of {} user entities", entities.size());
+        var results = new ArrayList<BatchItemResult<T>>(Collections.nCopies(entities.size(), null));
+        var pending = new ArrayList<PendingItem<T>>();
+        for (int index = 0; index < entities.size(); index++) {
+            pending.add(new PendingItem<>(index, entities.get(index)));
+        }
+
+        return registerPending(pending, results, Function.identity(), otherRoleBaseUsernames, repository);
+    }
+
+    private <D, T extends User> CompletableFuture<List<BatchItemResult<D>>> registerPending(
+            List<PendingItem<T>> pending,
+            List<BatchItemResult<D>> results,
+            Function<T, D> toDto,
+            BiFunction<Set<String>, Set<String>, Set<String>> otherRoleBaseUsernames,
+            JpaRepository<T, Long> repository
+    ) {
+        rejectOtherRoleUsers(pending, results, otherRoleBaseUsernames);
+        assignUniqueUsernames(pending);
+
+        var passwords = pending.stream().map(item -> item.entity().getPassword()).toList();
+        return passwordHashingService.hashPasswordsAsync(passwords)
+                .thenApplyAsync(hashes -> {
+                    for (int i = 0; i < pending.size(); i++) {
+                        var entity = pending.get(i).entity();
+                        entity.setPassword(hashes.get(i));
+                        entity.setActive(true);
+                    }
+
+                    BatchUtils.partition(pending, chunkSize)
+                            .forEach(chunk -> saveChunk(chunk, repository, toDto, results));
+
+                    var savedCount = results.stream()
+                            .filter(result -> result.getStatus() == BatchItemResult.Status.CREATED)
+                            .count();
+                    log.info("Batch registration finished, {} of {} users were saved", savedCount, results.size());
+                    return results;
+                }, dbExecutor);
+    }
+
+    private void checkBatchSize(int batchSize) {
+        if (batchSize > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size must not exceed " + maxBatchSize + ", but was " + batchSize);
+        }
+    }
+
+    private <D> void rejectOtherRoleUsers(
+            List<? extends PendingItem<?>> pending,
+            List<BatchItemResult<D>> results,
+            BiFunction<Set<String>, Set<String>, Set<String>> otherRoleBaseUsernames
+    ) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        var firstNames = pending.stream().map(item -> item.entity().getFirstName()).collect(Collectors.toSet());
+        var lastNames = pending.stream().map(item -> item.entity().getLastName()).collect(Collectors.toSet());
+        var conflicting = otherRoleBaseUsernames.apply(firstNames, lastNames);
+
+        pending.removeIf(item -> {
+            var isConflicting = conflicting.contains(baseUsername(item.entity()));
+            if (isConflicting) {
+                results.set(item.index(), BatchItemResult.failed(item.index(), CROSS_ROLE_ERROR));
+            }
+            return isConflicting;
+        });
+    }
+
+    private void assignUniqueUsernames(List<? extends PendingItem<?>> pending) {
+        var demandByBase = pending.stream()
+                .collect(Collectors.groupingBy(item -> baseUsername(item.entity()), Collectors.counting()));
+
+        var taken = new HashSet<String>();
+        var checked = new HashSet<String>();
+        var lookahead = new HashMap<String, Long>(demandByBase);
+
+        while (!lookahead.isEmpty()) {
+            var candidates = lookahead.entrySet()
+                    .stream()
+                    .flatMap(entry -> candidateUsernames(entry.getKey(), entry.getValue()).stream())
+                    .filter(checked::add)
+                    .collect(Collectors.toSet());
+            taken.addAll(userRepo.findExistingUserNames(candidates));
+
+            var exhausted = new HashMap<String, Long>();
+            lookahead.forEach((base, size) -> {
+                var free = candidateUsernames(base, size).stream().filter(name -> !taken.contains(name)).count();
+                if (free < demandByBase.get(base)) {
+                    exhausted.put(base, size * 2);
+                }
+            });
+            lookahead = exhausted;
+        }
+
+        for (var item : pending) {
+            var uniqueUsername = UserUtils.generateUniqueUsername(item.entity(), taken::contains);
+            taken.add(uniqueUsername);
+            item.entity().setUserName(uniqueUsername);
+        }
+    }
+
+    private <D, T extends User> void saveChunk(
+            List<PendingItem<T>> chunk,
+            JpaRepository<T, Long> repository,
+            Function<T, D> toDto,
+            List<BatchItemResult<D>> results
+    ) {
+        try {
+            var entities = chunk.stream().map(PendingItem::entity).toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                repository.saveAll(entities);
+                repository.flush();
+            });
+            entities.forEach(usernameFilter::put);
+            userSearchIndex.indexAll(entities);
+
+            chunk.forEach(item -> results.set(item.index(), BatchItemResult.created(item.index(), toDto.apply(item.entity()))));
+        } catch (RuntimeException e) {
+            log.warn("Saving chunk of {} users failed, retrying one by one: {}", chunk.size(), e.getMessage());
+            chunk.forEach(item -> saveItem(item, repository, toDto, results));
+        }
+    }
+
+    private <D, T extends User> void saveItem(
+            PendingItem<T> item,
+            JpaRepository<T, Long> repository,
+            Function<T, D> toDto,
+            List<BatchItemResult<D>> results
+    ) {
+        try {
+            item.entity().setId(null);
+            var saved = usernameAllocator.saveWithUniqueUsername(item.entity(), repository);
+            userSearchIndex.index(saved);
+            results.set(item.index(), BatchItemResult.created(item.index(), toDto.apply(saved)));
+        } catch (RuntimeException e) {
+            log.warn("Saving user with username={} failed: {}", item.entity().getUserName(), e.getMessage());
+            results.set(item.index(), BatchItemResult.failed(item.index(), "User could not be saved: " + e.getMessage()));
+        }
+    }
+
+    private static List<String> candidateUsernames(String baseUsername, long size) {
+        var candidates = new ArrayList<String>();
+        candidates.add(baseUsername);
+        for (long counter = 1; counter < size; counter++) {
+            candidates.add(baseUsername + counter);
+        }
+
+        return candidates;
+    }
+
+    private static String baseUsername(User user) {
+        return UserUtils.generateBaseUsername(user.getFirstName(), user.getLastName());
+    }
+
+    private static String joinMessages(Set<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private record PendingItem<T extends User>(int index, T entity) {
+    }
+}
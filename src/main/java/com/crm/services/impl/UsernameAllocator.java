@@ -0,0 +1,91 @@
+package com.crm.services.impl;
+
+import com.crm.caches.UsernameBloomFilter;
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.User;
+import com.crm.utils.UserUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Assigns the first free {@code firstName.lastName[N]} username with a single prefix query and saves the user.
+ *
+ * Two nodes may pick the same username concurrently; the unique constraint on the username then rejects
+ * one of the inserts and that side re-reads the taken usernames and retries. A failed insert marks the JPA
+ * transaction rollback-only, so retries need every attempt to run in its own transaction: callers should not
+ * hold a transaction, which also keeps a registration to a single pooled connection. Inside a caller's
+ * transaction the save joins it and a conflict is not retried.
+ */
+@Slf4j
+@Component
+public class UsernameAllocator {
+    private static final char LIKE_ESCAPE = '!';
+
+    private final UserRepo userRepo;
+    private final UsernameBloomFilter usernameFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    public UsernameAllocator(
+            UserRepo userRepo,
+            UsernameBloomFilter usernameFilter,
+            PlatformTransactionManager transactionManager,
+            @Value("${gym.username.max-attempts:3}") int maxAttempts
+    ) {
+        this.userRepo = userRepo;
+        this.usernameFilter = usernameFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+    }
+
+    public <T extends User> T saveWithUniqueUsername(T user, JpaRepository<T, Long> repository) {
+        var attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            user.setUserName(allocateUsername(user));
+
+            try {
+                var saved = transactionTemplate.execute(status -> {
+                    var savedUser = repository.save(user);
+                    repository.flush();
+                    return savedUser;
+                });
+                usernameFilter.put(saved);
+
+                return saved;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= attempts) {
+                    log.error("Username={} was taken concurrently, giving up after {} attempts", user.getUserName(), attempt);
+                    throw e;
+                }
+
+                log.warn("Username={} was taken concurrently, retrying (attempt {} of {})", user.getUserName(), attempt, attempts);
+                user.setId(null);
+            }
+        }
+    }
+
+    public String allocateUsername(User user) {
+        var baseUsername = UserUtils.generateBaseUsername(user.getFirstName(), user.getLastName());
+        var takenUsernames = userRepo.findUserNamesLike(escapeLike(baseUsername) + "%");
+
+        return UserUtils.generateUniqueUsername(user, takenUsernames::contains);
+    }
+
+    private static String escapeLike(String value) {
+        var escaped = new StringBuilder(value.length());
+        for (var ch : value.toCharArray()) {
+            if (ch == LIKE_ESCAPE || ch == '%' || ch == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(ch);
+        }
+
+        return escaped.toString();
+    }
+}
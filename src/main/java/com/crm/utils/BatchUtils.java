@@ -0,0 +1,22 @@
+package com.crm.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@UtilityClass
+public class BatchUtils {
+    public static <T> List<List<T>> partition(List<T> items, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, but was " + chunkSize);
+        }
+
+        var chunks = new ArrayList<List<T>>((items.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(from + chunkSize, items.size())));
+        }
+
+        return chunks;
+    }
+}
@@ -0,0 +1,20 @@
+package com.crm.utils;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class PageUtils {
+    /**
+     * @return the requested page size capped at {@code maxPageSize}, or {@code defaultPageSize} if none was requested
+     */
+    public static int resolvePageSize(Integer requestedPageSize, int defaultPageSize, int maxPageSize) {
+        if (requestedPageSize == null) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        if (requestedPageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive, but was " + requestedPageSize);
+        }
+
+        return Math.min(requestedPageSize, maxPageSize);
+    }
+}
@@ -4,6 +4,7 @@ import com.crm.repositories.entities.User;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import org.mindrot.jbcrypt.BCrypt;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.util.function.Function;
 
@@ -18,12 +19,12 @@ public class UserUtils {
     ) {
         log.info("Stated creating unique username... ");
 
-        var baseUsername = user.getFirstName() + USERNAME_SEPARATOR + user.getLastName();
+        var baseUsername = generateBaseUsername(user.getFirstName(), user.getLastName());
         var uniqueUsername = baseUsername;
         var counter = 1;
 
         while (usernameExistsChecker.apply(uniqueUsername)) {
-            log.info("Username=" + uniqueUsername + " already exists, starting generating new username... ");
+            log.debug("Username={} already exists, starting generating new username... ", uniqueUsername);
             uniqueUsername = baseUsername + counter;
             counter++;
         }
@@ -31,11 +32,32 @@ public class UserUtils {
         return uniqueUsername;
     }
 
+    public static String generateBaseUsername(String firstName, String lastName) {
+        return firstName + USERNAME_SEPARATOR + lastName;
+    }
+
+    /**
+     * @throws OptimisticLockingFailureException if the client read another version of the user than the current one
+     */
+    public static void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != user.getVersion()) {
+            throw new OptimisticLockingFailureException(
+                    "User with username=" + user.getUserName() + " was modified concurrently, expected version "
+                            + expectedVersion + " but current version is " + user.getVersion()
+            );
+        }
+    }
+
     public static String hashPassword(String password) {
         log.info("Started hashing password... ");
         return BCrypt.hashpw(password, BCrypt.gensalt());
     }
 
+    public static String hashPassword(String password, int cost) {
+        log.info("Started hashing password with cost={}... ", cost);
+        return BCrypt.hashpw(password, BCrypt.gensalt(cost));
+    }
+
     public static boolean matchesPasswordHash(String inputtedPassword, String passwordHash) {
         log.info("Started checking password and hash... ");
         return BCrypt.checkpw(inputtedPassword, passwordHash);
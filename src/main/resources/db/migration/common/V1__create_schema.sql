@@ -0,0 +1,51 @@
+-- Schema previously generated by Hibernate with ddl-auto: create.
+-- Existing databases are baselined at version 0 (spring.flyway.baseline-on-migrate), so this migration also runs
+-- on them: it only creates what is missing, e.g. data_imports, which Hibernate dropped on every start.
+
+CREATE TABLE IF NOT EXISTS users
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    first_name VARCHAR(100) NOT NULL,
+    last_name  VARCHAR(100) NOT NULL,
+    username   VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    active     BOOLEAN      NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS trainees
+(
+    id            BIGINT PRIMARY KEY,
+    date_of_birth DATE,
+    address       VARCHAR(255),
+    CONSTRAINT fk_trainees_users FOREIGN KEY (id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS trainers
+(
+    id             BIGINT PRIMARY KEY,
+    specialization VARCHAR(255) NOT NULL,
+    CONSTRAINT fk_trainers_users FOREIGN KEY (id) REFERENCES users (id),
+    CONSTRAINT ck_trainers_specialization CHECK (specialization IN ('FITNESS', 'RESISTANCE', 'STRETCHING', 'YOGA', 'ZUMBA'))
+);
+
+CREATE TABLE IF NOT EXISTS trainings
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    trainee_id BIGINT         NOT NULL,
+    trainer_id BIGINT         NOT NULL,
+    name       VARCHAR(255)   NOT NULL,
+    type       VARCHAR(255)   NOT NULL,
+    date       TIMESTAMP(6)   NOT NULL,
+    duration   NUMERIC(21, 0) NOT NULL,
+    CONSTRAINT fk_trainings_trainees FOREIGN KEY (trainee_id) REFERENCES trainees (id),
+    CONSTRAINT fk_trainings_trainers FOREIGN KEY (trainer_id) REFERENCES trainers (id),
+    CONSTRAINT ck_trainings_type CHECK (type IN ('FITNESS', 'RESISTANCE', 'STRETCHING', 'YOGA', 'ZUMBA'))
+);
+
+CREATE TABLE IF NOT EXISTS data_imports
+(
+    dataset     VARCHAR(100) PRIMARY KEY,
+    checksum    VARCHAR(64)  NOT NULL,
+    imported_at TIMESTAMP(6) NOT NULL
+);
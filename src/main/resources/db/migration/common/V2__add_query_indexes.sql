@@ -0,0 +1,11 @@
+-- The training indexes may already exist on databases created by ddl-auto from @Table(indexes = ...).
+-- Trainings of a trainee or a trainer filtered by date and paged by (date, id):
+-- CustomTraineeRepoImpl, CustomTrainerRepoImpl
+CREATE INDEX IF NOT EXISTS idx_trainings_trainee_date_id ON trainings (trainee_id, date, id);
+CREATE INDEX IF NOT EXISTS idx_trainings_trainer_date_id ON trainings (trainer_id, date, id);
+
+-- Cross-role checks by first and last name: TraineeRepo, TrainerRepo
+CREATE INDEX IF NOT EXISTS idx_users_first_name_last_name ON users (first_name, last_name);
+
+-- Trainers by specialization
+CREATE INDEX IF NOT EXISTS idx_trainers_specialization ON trainers (specialization);
@@ -0,0 +1,2 @@
+-- Anti-join probe for trainers without a training with the trainee: CustomTrainerRepoImpl
+CREATE INDEX idx_trainings_trainee_trainer ON trainings (trainee_id, trainer_id);
@@ -0,0 +1,2 @@
+-- Optimistic locking of profile updates: TraineeServiceImpl, TrainerServiceImpl
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,7 @@
+-- Databases baselined at version 1 before the baseline moved to 0 never ran V1 and miss data_imports.
+CREATE TABLE IF NOT EXISTS data_imports
+(
+    dataset     VARCHAR(100) PRIMARY KEY,
+    checksum    VARCHAR(64)  NOT NULL,
+    imported_at TIMESTAMP(6) NOT NULL
+);
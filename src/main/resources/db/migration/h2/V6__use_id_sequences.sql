@@ -0,0 +1,9 @@
+-- H2 counterpart of postgresql/V6__use_id_sequences.sql, H2 has no setval().
+CREATE SEQUENCE users_seq INCREMENT BY 50;
+CREATE SEQUENCE trainings_seq INCREMENT BY 50;
+
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+ALTER SEQUENCE trainings_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM trainings);
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE trainings ALTER COLUMN id DROP IDENTITY;
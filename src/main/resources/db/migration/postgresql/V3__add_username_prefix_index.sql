@@ -0,0 +1,3 @@
+-- Username allocation looks up taken usernames with LIKE 'prefix%' (UserRepo.findUserNamesLike).
+-- The unique index can not serve prefix matches under a non-C collation, text_pattern_ops can.
+CREATE INDEX idx_users_username_pattern ON users (username text_pattern_ops);
@@ -0,0 +1,13 @@
+-- Ids are allocated by Hibernate from sequences with the pooled optimizer (User, Training), which unlike
+-- identity columns allows JDBC insert batching. The increment must match allocationSize of the generators.
+-- A pooled optimizer treats each sequence value as the upper bound of its block, so the sequences start
+-- one block above the current maximum id.
+CREATE SEQUENCE users_seq INCREMENT BY 50;
+CREATE SEQUENCE trainings_seq INCREMENT BY 50;
+
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM users), false);
+SELECT setval('trainings_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM trainings), false);
+
+-- Rows inserted without an id would take it from the identity and collide with the sequence blocks
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE trainings ALTER COLUMN id DROP IDENTITY IF EXISTS;
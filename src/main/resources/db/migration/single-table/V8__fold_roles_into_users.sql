@@ -0,0 +1,35 @@
+-- Single-table user layout, applied only with the single-table profile (config/application-single-table.yaml).
+-- Folds the trainees and trainers rows into users with a role discriminator and drops the role tables.
+ALTER TABLE users ADD COLUMN role VARCHAR(31);
+ALTER TABLE users ADD COLUMN date_of_birth DATE;
+ALTER TABLE users ADD COLUMN address VARCHAR(255);
+ALTER TABLE users ADD COLUMN specialization VARCHAR(255);
+
+UPDATE users
+SET role          = 'TRAINEE',
+    date_of_birth = (SELECT t.date_of_birth FROM trainees t WHERE t.id = users.id),
+    address       = (SELECT t.address FROM trainees t WHERE t.id = users.id)
+WHERE id IN (SELECT id FROM trainees);
+
+UPDATE users
+SET role           = 'TRAINER',
+    specialization = (SELECT t.specialization FROM trainers t WHERE t.id = users.id)
+WHERE id IN (SELECT id FROM trainers);
+
+ALTER TABLE users ALTER COLUMN role SET NOT NULL;
+ALTER TABLE users ADD CONSTRAINT ck_users_role CHECK (role IN ('TRAINEE', 'TRAINER'));
+ALTER TABLE users ADD CONSTRAINT ck_users_specialization
+    CHECK ((role = 'TRAINER') = (specialization IS NOT NULL)
+        AND specialization IN ('FITNESS', 'RESISTANCE', 'STRETCHING', 'YOGA', 'ZUMBA'));
+
+-- Drops the foreign keys of trainings to the role tables, whatever their names on databases created by ddl-auto.
+DROP TABLE trainees CASCADE;
+DROP TABLE trainers CASCADE;
+ALTER TABLE trainings ADD CONSTRAINT fk_trainings_trainees FOREIGN KEY (trainee_id) REFERENCES users (id);
+ALTER TABLE trainings ADD CONSTRAINT fk_trainings_trainers FOREIGN KEY (trainer_id) REFERENCES users (id);
+
+-- Cross-role checks by first and last name now filter by role: TraineeRepo, TrainerRepo
+DROP INDEX idx_users_first_name_last_name;
+CREATE INDEX idx_users_role_first_name_last_name ON users (role, first_name, last_name);
+-- Trainers by specialization, replaces idx_trainers_specialization dropped with the trainers table
+CREATE INDEX idx_users_specialization ON users (specialization);
@@ -0,0 +1,84 @@
+package com.crm.caches;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialCacheTest {
+    private static final String USERNAME = "John.Doe";
+    private static final String PASSWORD_HASH = "$2a$10$testHash";
+    private static final String PASSWORD = "Pasw3456";
+
+    private SimpleMeterRegistry meterRegistry;
+    private CredentialCache credentialCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        credentialCache = new CredentialCache(100, Duration.ofMinutes(5), "", meterRegistry);
+    }
+
+    @Test
+    @DisplayName("isVerified - should return true only for credentials that were marked as verified")
+    void isVerified_ShouldReturnTrue_WhenCredentialsWereMarked() {
+        // Given
+        credentialCache.markVerified(USERNAME, PASSWORD_HASH, PASSWORD);
+
+        // When
+        var result1 = credentialCache.isVerified(USERNAME, PASSWORD_HASH, PASSWORD);
+        var result2 = credentialCache.isVerified(USERNAME, PASSWORD_HASH, "wrongPassword");
+        var result3 = credentialCache.isVerified("unknownUser", PASSWORD_HASH, PASSWORD);
+
+        // Then
+        assertTrue(result1);
+        assertFalse(result2);
+        assertFalse(result3);
+    }
+
+    @Test
+    @DisplayName("isVerified - should return false when stored password hash was changed")
+    void isVerified_ShouldReturnFalse_WhenPasswordHashChanged() {
+        // Given
+        credentialCache.markVerified(USERNAME, PASSWORD_HASH, PASSWORD);
+
+        // When
+        var result = credentialCache.isVerified(USERNAME, "$2a$10$otherHash", PASSWORD);
+
+        // Then
+        assertFalse(result);
+    }
+
+    @Test
+    @DisplayName("invalidate - should forget verified credentials")
+    void invalidate_ShouldForgetVerifiedCredentials() {
+        // Given
+        credentialCache.markVerified(USERNAME, PASSWORD_HASH, PASSWORD);
+
+        // When
+        credentialCache.invalidate(USERNAME);
+
+        // Then
+        assertFalse(credentialCache.isVerified(USERNAME, PASSWORD_HASH, PASSWORD));
+    }
+
+    @Test
+    @DisplayName("Cache metrics - should be exported to meter registry")
+    void cacheMetrics_ShouldBeExported() {
+        // Given
+        credentialCache.markVerified(USERNAME, PASSWORD_HASH, PASSWORD);
+
+        // When
+        credentialCache.isVerified(USERNAME, PASSWORD_HASH, PASSWORD);
+        credentialCache.isVerified("unknownUser", PASSWORD_HASH, PASSWORD);
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "credentials").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "credentials").tag("result", "miss").functionCounter().count());
+        assertNotNull(meterRegistry.get("cache.evictions").tag("cache", "credentials").functionCounter());
+    }
+}
@@ -0,0 +1,94 @@
+package com.crm.caches;
+
+import com.crm.dtos.trainer.TrainerSummary;
+import com.crm.enums.TrainingType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UnassignedTrainersCacheTest {
+    private static final List<TrainerSummary> PAGE = List.of(TrainerSummary.builder().id(1L).build());
+
+    private UnassignedTrainersCache cache;
+    private AtomicInteger loads;
+    private Supplier<List<TrainerSummary>> loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UnassignedTrainersCache(100, 2, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return PAGE;
+        };
+    }
+
+    @Test
+    @DisplayName("get - should load each page of a trainee once")
+    void get_ShouldLoadPageOnce() {
+        // Given - When
+        cache.get(1L, null, null, 10, loader);
+        cache.get(1L, null, null, 10, loader);
+        cache.get(1L, TrainingType.YOGA, null, 10, loader);
+        var page = cache.get(1L, TrainingType.YOGA, null, 10, loader);
+
+        // Then
+        assertEquals(PAGE, page);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("invalidate - should drop all pages of the trainee only")
+    void invalidate_ShouldDropPagesOfTrainee() {
+        // Given
+        cache.get(1L, null, null, 10, loader);
+        cache.get(1L, null, 5L, 10, loader);
+        cache.get(2L, null, null, 10, loader);
+
+        // When
+        cache.invalidate(1L);
+        cache.get(1L, null, null, 10, loader);
+        cache.get(1L, null, 5L, 10, loader);
+        cache.get(2L, null, null, 10, loader);
+
+        // Then
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    @DisplayName("invalidateAll - should drop pages of all trainees")
+    void invalidateAll_ShouldDropAllPages() {
+        // Given
+        cache.get(1L, null, null, 10, loader);
+        cache.get(2L, null, null, 10, loader);
+
+        // When
+        cache.invalidateAll();
+        cache.get(1L, null, null, 10, loader);
+        cache.get(2L, null, null, 10, loader);
+
+        // Then
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    @DisplayName("get - should not cache more pages per trainee than configured")
+    void get_ShouldNotCacheMorePagesThanConfigured() {
+        // Given - When
+        cache.get(1L, null, null, 10, loader);
+        cache.get(1L, null, 1L, 10, loader);
+        cache.get(1L, null, 2L, 10, loader);
+        cache.get(1L, null, 2L, 10, loader);
+
+        // Then
+        assertEquals(4, loads.get());
+    }
+}
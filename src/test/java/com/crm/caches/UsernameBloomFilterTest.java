@@ -0,0 +1,93 @@
+package com.crm.caches;
+
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Trainer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UsernameBloomFilterTest {
+    @Mock
+    private UserRepo userRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UsernameBloomFilter usernameFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        usernameFilter = new UsernameBloomFilter(userRepo, transactionManager, true, 1000, 0.01, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("isUsernameAbsent - should never report absence before filter was built")
+    void isUsernameAbsent_ShouldReturnFalse_BeforeRebuild() {
+        // When - Then
+        assertFalse(usernameFilter.isUsernameAbsent("unknown.user"));
+        assertFalse(usernameFilter.isNameAbsent(Trainer.class, "unknown", "user"));
+    }
+
+    @Test
+    @DisplayName("rebuild - should report scanned and saved users as present and unknown ones as absent")
+    void rebuild_ShouldBuildFilterFromScanAndSavedUsers() {
+        // Given
+        when(userRepo.count()).thenReturn(1L);
+        when(userRepo.streamUserKeys()).thenReturn(Stream.<Object[]>of(new Object[]{Trainee.class, "John.Doe", "John", "Doe"}));
+
+        // When
+        usernameFilter.rebuild();
+        usernameFilter.put(Trainer.builder().userName("Anna.Smith").firstName("Anna").lastName("Smith").build());
+
+        // Then
+        assertFalse(usernameFilter.isUsernameAbsent("John.Doe"));
+        assertFalse(usernameFilter.isNameAbsent(Trainee.class, "John", "Doe"));
+        assertFalse(usernameFilter.isUsernameAbsent("Anna.Smith"));
+        assertFalse(usernameFilter.isNameAbsent(Trainer.class, "Anna", "Smith"));
+
+        assertTrue(usernameFilter.isUsernameAbsent("unknown.user"));
+        assertTrue(usernameFilter.isNameAbsent(Trainer.class, "John", "Doe"));
+        assertEquals(2.0, meterRegistry.get("gym.username.filter.skipped.lookups").counter().count());
+    }
+
+    @Test
+    @DisplayName("Filter metrics - should expose memory footprint and false positive probability")
+    void filterMetrics_ShouldBeExported() {
+        // Given
+        when(userRepo.streamUserKeys()).thenReturn(Stream.empty());
+        usernameFilter.rebuild();
+
+        // When
+        usernameFilter.put(Trainee.builder().userName("John.Doe").firstName("John").lastName("Doe").build());
+
+        // Then
+        assertTrue(meterRegistry.get("gym.username.filter.memory").gauge().value() >= 1000 * 9.585 / 8 - 8);
+        assertTrue(meterRegistry.get("gym.username.filter.fpp").gauge().value() < 0.01);
+        assertEquals(2.0, meterRegistry.get("gym.username.filter.insertions").gauge().value());
+    }
+
+    @Test
+    @DisplayName("isUsernameAbsent - should never report absence when filter is disabled")
+    void isUsernameAbsent_ShouldReturnFalse_WhenDisabled() {
+        // Given
+        var disabledFilter = new UsernameBloomFilter(userRepo, transactionManager, false, 1000, 0.01, meterRegistry);
+        when(userRepo.streamUserKeys()).thenReturn(Stream.empty());
+        disabledFilter.rebuild();
+
+        // When - Then
+        assertFalse(disabledFilter.isUsernameAbsent("unknown.user"));
+    }
+}
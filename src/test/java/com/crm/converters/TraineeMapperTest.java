@@ -1,6 +1,7 @@
 package com.crm.converters;
 
 import com.crm.converters.mappers.TraineeMapper;
+import com.crm.dtos.trainee.TraineePatchDto;
 import com.crm.enums.TrainingType;
 import com.crm.repositories.entities.Trainee;
 import com.crm.repositories.entities.Trainer;
@@ -51,7 +52,7 @@ class TraineeMapperTest {
     }
 
     @Test
-    @DisplayName("Should update existing trainee from updated trainee")
+    @DisplayName("Should update profile fields and status of existing trainee and keep its identity and credentials")
     void testUpdateTrainee() {
         // Given
         var existingTrainee = Trainee.builder()
@@ -67,10 +68,10 @@ class TraineeMapperTest {
                 .build();
 
         var fromDto = Trainee.builder()
-                .id(1L)
+                .id(2L)
                 .firstName("Jane")
                 .lastName("Smith")
-                .userName("johndoe")
+                .userName("janesmith")
                 .password("Passd123")
                 .isActive(true)
                 .dateOfBirth(LocalDate.of(1995, 5, 5))
@@ -85,12 +86,64 @@ class TraineeMapperTest {
         assertEquals(fromDto.getLastName(), existingTrainee.getLastName());
         assertEquals(fromDto.getDateOfBirth(), existingTrainee.getDateOfBirth());
         assertEquals(fromDto.getAddress(), existingTrainee.getAddress());
-        assertEquals(fromDto.getId(), existingTrainee.getId());
-        assertEquals(fromDto.getUserName(), existingTrainee.getUserName());
-        assertEquals(fromDto.getPassword(), existingTrainee.getPassword());
+        assertEquals(1L, existingTrainee.getId());
+        assertEquals("johndoe", existingTrainee.getUserName());
+        assertEquals("Passord123", existingTrainee.getPassword());
         assertTrue(existingTrainee.isActive());
     }
 
+    @Test
+    @DisplayName("Should clear optional profile fields missing in the update of existing trainee")
+    void testUpdateTrainee_ClearsMissingFields() {
+        // Given
+        var existingTrainee = Trainee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .address("123 Main St")
+                .build();
+        var fromDto = Trainee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .build();
+
+        // When
+        traineeMapper.updateTrainee(existingTrainee, fromDto);
+
+        // Then
+        assertNull(existingTrainee.getDateOfBirth());
+        assertNull(existingTrainee.getAddress());
+    }
+
+    @Test
+    @DisplayName("Should copy only the fields present in the patch onto existing trainee")
+    void testPatchTrainee() {
+        // Given
+        var existingTrainee = Trainee.builder()
+                .id(1L)
+                .firstName("John")
+                .lastName("Doe")
+                .userName("johndoe")
+                .dateOfBirth(LocalDate.of(1990, 1, 1))
+                .address("123 Main St")
+                .build();
+        var patchDto = TraineePatchDto.builder()
+                .userName("janesmith")
+                .address("456 Elm St")
+                .build();
+
+        // When
+        traineeMapper.patchTrainee(existingTrainee, patchDto);
+
+        // Then
+        assertEquals("456 Elm St", existingTrainee.getAddress());
+        assertEquals("John", existingTrainee.getFirstName());
+        assertEquals("Doe", existingTrainee.getLastName());
+        assertEquals(LocalDate.of(1990, 1, 1), existingTrainee.getDateOfBirth());
+        assertEquals("johndoe", existingTrainee.getUserName());
+        assertEquals(1L, existingTrainee.getId());
+    }
+
     @Test
     @DisplayName("Should map from Trainee to TraineeViewDto")
     void testToTraineeView() {
@@ -125,12 +178,7 @@ class TraineeMapperTest {
         assertEquals(LocalDate.of(1990, 1, 1), traineeViewDto.getDateOfBirth());
         assertEquals("123 Main St", traineeViewDto.getAddress());
         assertTrue(traineeViewDto.getIsActive());
-        assertEquals(1, traineeViewDto.getTrainersList().size());
-
-        var trainerListView = traineeViewDto.getTrainersList().iterator().next();
-        assertEquals("trainer1", trainerListView.getUserName());
-        assertEquals("Trainer", trainerListView.getFirstName());
-        assertEquals("One", trainerListView.getLastName());
-        assertEquals(TrainingType.YOGA, trainerListView.getSpecialization());
+        assertTrue(traineeViewDto.getTrainersList().isEmpty());
+        assertNull(traineeViewDto.getTrainingCounts());
     }
 }
\ No newline at end of file
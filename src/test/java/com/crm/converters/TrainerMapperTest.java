@@ -19,7 +19,7 @@ class TrainerMapperTest {
     private final TrainerMapper trainerMapper = Mappers.getMapper(TrainerMapper.class);
 
     @Test
-    @DisplayName("Should map from Trainer to TrainerView")
+    @DisplayName("Should map from Trainer to TrainerView without its trainings")
     void testToTrainerView() {
         // Given
         var trainer = Trainer.builder()
@@ -46,7 +46,8 @@ class TrainerMapperTest {
         assertEquals("Doe", trainerView.getLastName());
         assertEquals(TrainingType.YOGA, trainerView.getSpecialization());
         assertTrue(trainerView.getIsActive());
-        assertEquals(1, trainerView.getTrainingViews().size());
+        assertTrue(trainerView.getTrainingViews().isEmpty());
+        assertNull(trainerView.getTrainingCounts());
     }
 
     @Test
@@ -98,7 +99,7 @@ class TrainerMapperTest {
     }
 
     @Test
-    @DisplayName("Should update existing Trainer with new data")
+    @DisplayName("Should update profile fields and status of existing Trainer and keep its version")
     void testUpdateTrainer() {
         // Given
         var existingTrainer = Trainer.builder()
@@ -113,6 +114,7 @@ class TrainerMapperTest {
                 .lastName("Smith")
                 .specialization(TrainingType.YOGA)
                 .isActive(false)
+                .version(7)
                 .build();
 
         // When
@@ -123,6 +125,7 @@ class TrainerMapperTest {
         assertEquals("Smith", existingTrainer.getLastName());
         assertEquals(TrainingType.YOGA, existingTrainer.getSpecialization());
         assertFalse(existingTrainer.isActive());
+        assertEquals(0, existingTrainer.getVersion());
     }
 
     @Test
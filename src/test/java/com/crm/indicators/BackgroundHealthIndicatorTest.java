@@ -0,0 +1,132 @@
+package com.crm.indicators;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackgroundHealthIndicatorTest {
+    private ThreadPoolTaskExecutor healthCheckExecutor;
+    private CountDownLatch blocker;
+
+    @BeforeEach
+    void setUp() {
+        healthCheckExecutor = new ThreadPoolTaskExecutor();
+        healthCheckExecutor.setCorePoolSize(2);
+        healthCheckExecutor.setMaxPoolSize(2);
+        healthCheckExecutor.setQueueCapacity(0);
+        healthCheckExecutor.initialize();
+        blocker = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        blocker.countDown();
+        healthCheckExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("health - should report UNKNOWN until checked and then serve the last result without checking again")
+    void health_ShouldServeLastResult() {
+        // Given
+        var checks = new AtomicInteger();
+        var indicator = indicator(Duration.ofSeconds(5), Duration.ofMinutes(1), () -> {
+            checks.incrementAndGet();
+            return Health.up().withDetail("trainees", 10).build();
+        });
+        assertEquals(Status.UNKNOWN, indicator.health().getStatus());
+
+        // When
+        indicator.refreshAsync().join();
+        var first = indicator.health();
+        var second = indicator.health();
+
+        // Then
+        assertEquals(Status.UP, first.getStatus());
+        assertEquals(10, first.getDetails().get("trainees"));
+        assertNotNull(first.getDetails().get("checkedAt"));
+        assertEquals(first, second);
+        assertEquals(1, checks.get());
+    }
+
+    @Test
+    @DisplayName("refresh - should report DOWN when the check times out and not start another one until it returns")
+    void refresh_ShouldReportDown_WhenCheckTimesOut() {
+        // Given
+        var checks = new AtomicInteger();
+        var indicator = indicator(Duration.ofMillis(50), Duration.ofMinutes(1), () -> {
+            checks.incrementAndGet();
+            awaitQuietly(blocker);
+            return Health.up().build();
+        });
+
+        // When
+        indicator.refreshAsync().join();
+        indicator.refreshAsync().join();
+
+        // Then
+        var health = indicator.health();
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("Timed out after PT0.05S", health.getDetails().get("error"));
+        assertEquals(1, checks.get());
+    }
+
+    @Test
+    @DisplayName("refresh - should report DOWN when the check fails")
+    void refresh_ShouldReportDown_WhenCheckFails() {
+        // Given
+        var indicator = indicator(Duration.ofSeconds(5), Duration.ofMinutes(1), () -> {
+            throw new IllegalStateException("database is down");
+        });
+
+        // When
+        indicator.refreshAsync().join();
+
+        // Then
+        var health = indicator.health();
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("java.lang.IllegalStateException: database is down", health.getDetails().get("error"));
+    }
+
+    @Test
+    @DisplayName("health - should report DOWN when the last result is older than the staleness bound")
+    void health_ShouldReportDown_WhenResultIsStale() throws InterruptedException {
+        // Given
+        var indicator = indicator(Duration.ofSeconds(5), Duration.ofMillis(20), () -> Health.up().build());
+        indicator.refreshAsync().join();
+
+        // When
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        // Then
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+    }
+
+    private BackgroundHealthIndicator indicator(Duration timeout, Duration maxStaleness, Supplier<Health> check) {
+        return new BackgroundHealthIndicator(new HealthCheckRunner(healthCheckExecutor, timeout, maxStaleness)) {
+            @Override
+            protected Health check() {
+                return check.get();
+            }
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
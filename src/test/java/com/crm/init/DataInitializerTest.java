@@ -1,5 +1,10 @@
 package com.crm.init;
 
+import com.crm.repositories.DataImportRepo;
+import com.crm.repositories.TraineeRepo;
+import com.crm.repositories.TrainerRepo;
+import com.crm.repositories.TrainingRepo;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,8 +15,10 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -19,6 +26,16 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 class DataInitializerTest {
     @Autowired
     private DataInitializer dataInitializer;
+    @Autowired
+    private TraineeRepo traineeRepo;
+    @Autowired
+    private TrainerRepo trainerRepo;
+    @Autowired
+    private TrainingRepo trainingRepo;
+    @Autowired
+    private DataImportRepo dataImportRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     private String originalTrainingDataFilePath;
 
@@ -55,4 +72,78 @@ class DataInitializerTest {
                 "Something went wrong with file deserialization"
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should skip import when dataset was not changed since last import")
+    void initializeData_shouldSkipImport_WhenDatasetWasNotChanged() {
+        // Given
+        dataInitializer.initializeData();
+        var traineesCount = traineeRepo.count();
+
+        // When
+        dataInitializer.initializeData();
+
+        // Then
+        assertEquals(5, traineesCount);
+        assertEquals(traineesCount, traineeRepo.count());
+        assertEquals(1.0, meterRegistry.get("gym.data.import.progress").tag("dataset", "trainee").gauge().value());
+        assertEquals(5.0, meterRegistry.get("gym.data.import.records").tag("dataset", "trainee").tag("outcome", "imported").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not duplicate records when dataset is imported again")
+    void initializeData_shouldNotDuplicateRecords_WhenDatasetIsImportedAgain() {
+        // Given
+        dataInitializer.initializeData();
+        var traineesCount = traineeRepo.count();
+        var trainersCount = trainerRepo.count();
+        var trainingsCount = trainingRepo.count();
+        dataImportRepo.deleteAll();
+
+        // When
+        dataInitializer.initializeData();
+
+        // Then
+        assertEquals(traineesCount, traineeRepo.count());
+        assertEquals(trainersCount, trainerRepo.count());
+        assertEquals(trainingsCount, trainingRepo.count());
+        assertEquals(1, dataImportRepo.count());
+    }
+
+    @Test
+    @DisplayName("Should import valid trainings and count invalid ones as failed")
+    void initializeData_shouldImportValidTrainings_WhenTrainingIsInvalid() throws IOException {
+        // Given
+        dataInitializer.initializeData();
+        var trainingsCount = trainingRepo.count();
+        var imported = recordsCount("imported");
+        var failed = recordsCount("failed");
+
+        var trainingDataFile = Files.createTempFile("training-data", ".json");
+        Files.writeString(trainingDataFile, """
+                [
+                  {"trainee": {"id": 1}, "trainer": {"id": 6}, "trainingName": "Extra", "trainingType": "FITNESS",
+                   "trainingDate": "2024-02-01T10:00:00", "trainingDuration": "PT1H"},
+                  {"trainee": {"id": 99}, "trainer": {"id": 6}, "trainingName": "Unknown", "trainingType": "FITNESS",
+                   "trainingDate": "2024-02-02T10:00:00", "trainingDuration": "PT1H"}
+                ]
+                """);
+        ReflectionTestUtils.setField(dataInitializer, "trainingDataFilePath", trainingDataFile.toString());
+
+        try {
+            // When
+            dataInitializer.initializeData();
+
+            // Then
+            assertEquals(trainingsCount + 1, trainingRepo.count());
+            assertEquals(imported + 1, recordsCount("imported"));
+            assertEquals(failed + 1, recordsCount("failed"));
+        } finally {
+            Files.deleteIfExists(trainingDataFile);
+        }
+    }
+
+    private double recordsCount(String outcome) {
+        return meterRegistry.get("gym.data.import.records").tag("dataset", "training").tag("outcome", outcome).counter().count();
+    }
+}
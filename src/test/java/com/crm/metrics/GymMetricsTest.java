@@ -0,0 +1,128 @@
+package com.crm.metrics;
+
+import com.crm.repositories.TraineeRepo;
+import com.crm.repositories.TrainerRepo;
+import com.crm.repositories.TrainingRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Training;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GymMetricsTest {
+    private TraineeRepo traineeRepo;
+    private TrainerRepo trainerRepo;
+    private TrainingRepo trainingRepo;
+    private SimpleMeterRegistry meterRegistry;
+    private GymMetrics gymMetrics;
+
+    @BeforeEach
+    void setUp() {
+        traineeRepo = mock(TraineeRepo.class);
+        trainerRepo = mock(TrainerRepo.class);
+        trainingRepo = mock(TrainingRepo.class);
+        meterRegistry = new SimpleMeterRegistry();
+        gymMetrics = new GymMetrics(trainerRepo, traineeRepo, trainingRepo, mock(EntityManagerFactory.class), meterRegistry);
+
+        when(traineeRepo.count()).thenReturn(10L);
+        when(trainerRepo.count()).thenReturn(3L);
+        when(trainingRepo.count()).thenReturn(100L);
+    }
+
+    @Test
+    @DisplayName("gauges - should report NaN until the first reconciliation and the database counts after it")
+    void gauges_ShouldReportDatabaseCounts_AfterFirstReconciliation() {
+        // Given
+        assertTrue(Double.isNaN(gauge("gym.trainees.count")));
+
+        // When
+        gymMetrics.reconcile();
+
+        // Then
+        assertEquals(10, gauge("gym.trainees.count"));
+        assertEquals(3, gauge("gym.trainers.count"));
+        assertEquals(100, gauge("gym.trainings.count"));
+    }
+
+    @Test
+    @DisplayName("gauges - should follow committed inserts and deletes without querying the database")
+    void gauges_ShouldFollowCommittedChanges_WithoutQueries() {
+        // Given
+        gymMetrics.reconcile();
+        clearInvocations(new Object[]{traineeRepo, trainerRepo, trainingRepo});
+
+        // When
+        gymMetrics.onPostInsert(insertEvent(Trainee.class));
+        gymMetrics.onPostInsert(insertEvent(Training.class));
+        gymMetrics.onPostDelete(deleteEvent(Training.class));
+        gymMetrics.recordDeleted(Trainee.class, 1);
+        gymMetrics.recordDeleted(Training.class, 5);
+
+        // Then
+        assertEquals(10, gauge("gym.trainees.count"));
+        assertEquals(95, gauge("gym.trainings.count"));
+        verifyNoInteractions(traineeRepo, trainerRepo, trainingRepo);
+    }
+
+    @Test
+    @DisplayName("reconcile - should correct the drift against the database")
+    void reconcile_ShouldCorrectDrift() {
+        // Given
+        gymMetrics.reconcile();
+        gymMetrics.onPostInsert(insertEvent(Trainee.class));
+        when(traineeRepo.count()).thenReturn(20L);
+
+        // When
+        gymMetrics.reconcile();
+
+        // Then
+        assertEquals(20, gauge("gym.trainees.count"));
+    }
+
+    @Test
+    @DisplayName("reconcile - should keep the counters when the database count fails")
+    void reconcile_ShouldKeepCounters_WhenCountFails() {
+        // Given
+        gymMetrics.reconcile();
+        when(trainingRepo.count()).thenThrow(new IllegalStateException("database is down"));
+
+        // When
+        gymMetrics.reconcile();
+
+        // Then
+        assertEquals(100, gauge("gym.trainings.count"));
+        assertEquals(10, gauge("gym.trainees.count"));
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private static PostInsertEvent insertEvent(Class<?> entityClass) {
+        var persister = persister(entityClass);
+        var event = mock(PostInsertEvent.class);
+        when(event.getPersister()).thenReturn(persister);
+        return event;
+    }
+
+    private static PostDeleteEvent deleteEvent(Class<?> entityClass) {
+        var persister = persister(entityClass);
+        var event = mock(PostDeleteEvent.class);
+        when(event.getPersister()).thenReturn(persister);
+        return event;
+    }
+
+    private static EntityPersister persister(Class<?> entityClass) {
+        var persister = mock(EntityPersister.class);
+        doReturn(entityClass).when(persister).getMappedClass();
+        return persister;
+    }
+}
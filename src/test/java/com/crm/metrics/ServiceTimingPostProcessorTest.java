@@ -0,0 +1,49 @@
+package com.crm.metrics;
+
+import com.crm.DbTestBase;
+import com.crm.services.TraineeService;
+import com.crm.services.TrainingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceTimingPostProcessorTest extends DbTestBase {
+    @Autowired
+    private TrainingService trainingService;
+    @Autowired
+    private TraineeService traineeService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("gym.service - should time successful calls of service methods with a percentile histogram")
+    void serviceTimer_ShouldRecordSuccessfulCalls() {
+        // When
+        trainingService.findById(-1L);
+
+        // Then
+        var timer = meterRegistry.get(ServiceTimingPostProcessor.TIMER_NAME)
+                .tags("class", "TrainingServiceImpl", "method", "findById", "outcome", "SUCCESS", "exception", "none")
+                .timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.takeSnapshot().histogramCounts().length > 0);
+    }
+
+    @Test
+    @DisplayName("gym.service - should tag failed calls with the exception class")
+    void serviceTimer_ShouldRecordFailedCalls() {
+        // When
+        assertThrows(EntityNotFoundException.class, () -> traineeService.findProfileByUserName("missing.user"));
+
+        // Then
+        var timer = meterRegistry.get(ServiceTimingPostProcessor.TIMER_NAME)
+                .tags("class", "TraineeServiceImpl", "method", "findProfileByUserName", "outcome", "ERROR")
+                .tag("exception", "EntityNotFoundException")
+                .timer();
+        assertEquals(1, timer.count());
+    }
+}
@@ -0,0 +1,36 @@
+package com.crm.repositories;
+
+import com.crm.DbTestBase;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaIndexTest extends DbTestBase {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "SELECT id FROM trainings WHERE trainee_id = 1 AND date >= TIMESTAMP '2024-01-01 00:00:00' ORDER BY date, id | idx_trainings_trainee_date_id",
+            "SELECT id FROM trainings WHERE trainer_id = 1 AND (date, id) > (TIMESTAMP '2024-01-01 00:00:00', 5) ORDER BY date, id | idx_trainings_trainer_date_id",
+            "SELECT u.id FROM users u JOIN trainers t ON t.id = u.id WHERE u.first_name = 'John' AND u.last_name = 'Smith' | idx_users_first_name_last_name",
+            "SELECT u.id FROM users u JOIN trainees t ON t.id = u.id WHERE u.first_name IN ('John') AND u.last_name IN ('Smith') | idx_users_first_name_last_name",
+            "SELECT id FROM trainers WHERE specialization = 'YOGA' | idx_trainers_specialization",
+            "SELECT tr.id FROM trainers tr WHERE NOT EXISTS (SELECT 1 FROM trainings t WHERE t.trainee_id = 1 AND t.trainer_id = tr.id) | idx_trainings_trainee_trainer"
+    })
+    @DisplayName("Hot query predicates should be served by the migration indexes")
+    void explain_ShouldUseIndex(String query, String expectedIndex) {
+        // Given - When
+        var plan = jdbcTemplate.queryForList("EXPLAIN " + query, String.class);
+
+        // Then
+        assertTrue(
+                String.join("\n", plan).toLowerCase().contains(expectedIndex),
+                () -> "Expected " + expectedIndex + " in plan:\n" + plan
+        );
+    }
+}
@@ -0,0 +1,89 @@
+package com.crm.repositories;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigrationTest {
+    private static final String URL = "jdbc:h2:mem:schema_migration;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    // schema created by ddl-auto: create between the trainings indexes and the introduction of migrations
+    private static final String DDL_AUTO_SCHEMA = """
+            CREATE TABLE users (
+                id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                first_name VARCHAR(100) NOT NULL,
+                last_name VARCHAR(100) NOT NULL,
+                username VARCHAR(255) NOT NULL UNIQUE,
+                password VARCHAR(255) NOT NULL,
+                active BOOLEAN NOT NULL
+            );
+            CREATE TABLE trainees (id BIGINT PRIMARY KEY REFERENCES users (id), date_of_birth DATE, address VARCHAR(255));
+            CREATE TABLE trainers (id BIGINT PRIMARY KEY REFERENCES users (id), specialization VARCHAR(255) NOT NULL);
+            CREATE TABLE trainings (
+                id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                trainee_id BIGINT NOT NULL REFERENCES trainees (id),
+                trainer_id BIGINT NOT NULL REFERENCES trainers (id),
+                name VARCHAR(255) NOT NULL,
+                type VARCHAR(255) NOT NULL,
+                date TIMESTAMP(6) NOT NULL,
+                duration NUMERIC(21, 0) NOT NULL
+            );
+            CREATE INDEX idx_trainings_trainee_date_id ON trainings (trainee_id, date, id);
+            CREATE INDEX idx_trainings_trainer_date_id ON trainings (trainer_id, date, id);
+            INSERT INTO users (id, first_name, last_name, username, password, active) VALUES (1, 'John', 'Smith', 'John.Smith', 'hash', TRUE);
+            INSERT INTO trainees (id) VALUES (1);
+            """;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection(URL);
+        try (var statement = connection.createStatement()) {
+            statement.execute(DDL_AUTO_SCHEMA);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "1"})
+    @DisplayName("migrate - should bring a database created by ddl-auto to the current schema and keep its users")
+    void migrate_ShouldUpgradeDdlAutoSchema(String baselineVersion) throws SQLException {
+        // Given
+        var flyway = Flyway.configure()
+                .dataSource(URL, "", "")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion(baselineVersion)
+                .load();
+
+        // When
+        var result = flyway.migrate();
+
+        // Then
+        assertTrue(result.success);
+        try (var statement = connection.createStatement()) {
+            assertTrue(statement.executeQuery("SELECT COUNT(*) FROM data_imports").next());
+            var users = statement.executeQuery("SELECT username, version FROM users");
+            assertTrue(users.next());
+            assertEquals("John.Smith", users.getString(1));
+            assertEquals(0, users.getLong(2));
+        }
+    }
+}
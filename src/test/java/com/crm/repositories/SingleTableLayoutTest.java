@@ -0,0 +1,108 @@
+package com.crm.repositories;
+
+import com.crm.DbTestBase;
+import com.crm.dtos.DeletedRows;
+import com.crm.enums.TrainingType;
+import com.crm.repositories.entities.Training;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("single-table")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:single_table;MODE=PostgreSQL")
+class SingleTableLayoutTest extends DbTestBase {
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("single-table - should store trainees and trainers in users with their role and without role tables")
+    void save_ShouldStoreUsersWithRole_WithoutRoleTables() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        var roles = jdbcTemplate.queryForList("SELECT role FROM users ORDER BY role", String.class);
+        var roleTables = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE LOWER(TABLE_NAME) IN ('trainees', 'trainers')
+                """, Integer.class);
+
+        // Then
+        assertEquals(List.of("TRAINEE", "TRAINER"), roles);
+        assertEquals(0, roleTables);
+        assertEquals(testTrainee.getAddress(), traineeRepo.findByUserName(testTrainee.getUserName()).orElseThrow().getAddress());
+        assertEquals(TrainingType.FITNESS, trainerRepo.findByUserName(testTrainer.getUserName()).orElseThrow().getSpecialization());
+        assertTrue(traineeRepo.findByUserName(testTrainer.getUserName()).isEmpty());
+        assertTrue(traineeRepo.existsTrainerByFirstAndLastName(testTrainer.getFirstName(), testTrainer.getLastName()));
+    }
+
+    @Test
+    @DisplayName("single-table - should update the status of the role only, in one statement")
+    void updateStatuses_ShouldChangeOnlyUsersOfTheRole() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        var userNames = List.of(testTrainee.getUserName(), testTrainer.getUserName());
+        entityManager.flush();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        var deactivated = trainerRepo.updateStatuses(userNames, false);
+        var deactivatedAsTrainee = traineeRepo.updateStatus(testTrainer.getUserName(), true);
+        entityManager.clear();
+
+        // Then
+        assertEquals(1, deactivated);
+        assertEquals(0, deactivatedAsTrainee);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertFalse(trainerRepo.findById(testTrainer.getId()).orElseThrow().isActive());
+        assertTrue(traineeRepo.findById(testTrainee.getId()).orElseThrow().isActive());
+    }
+
+    @Test
+    @DisplayName("single-table - should delete trainee with all trainings in two statements")
+    void deleteWithTrainings_ShouldDeleteTraineeAndTrainings_InTwoStatements() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        trainingRepo.save(Training.builder()
+                .trainee(testTrainee)
+                .trainer(testTrainer)
+                .trainingDate(LocalDateTime.of(2024, 6, 1, 10, 0))
+                .trainingDuration(Duration.ZERO)
+                .trainingName("first")
+                .trainingType(TrainingType.FITNESS)
+                .build());
+        entityManager.flush();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        var deleted = traineeRepo.deleteWithTrainings(testTrainee);
+
+        // Then
+        assertEquals(new DeletedRows(1, 1), deleted);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(traineeRepo.findById(testTrainee.getId()).isEmpty());
+        assertTrue(trainerRepo.existsById(testTrainer.getId()));
+    }
+}
@@ -0,0 +1,90 @@
+package com.crm.repositories.criteria;
+
+import com.crm.DbTestBase;
+import com.crm.dtos.training.TrainingView;
+import com.crm.enums.TrainingType;
+import com.crm.repositories.entities.Training;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrainingQueryEngineTest extends DbTestBase {
+    @Autowired
+    private TrainingQueryEngine trainingQueryEngine;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("createQuery - should compile each filter combination once and reuse it for other values")
+    void createQuery_ShouldReuseCachedShape() {
+        // Given
+        var hitsBefore = shapeCacheCount("hit");
+        var missesBefore = shapeCacheCount("miss");
+        var planHitsBefore = queryPlanCacheCount("hit");
+
+        // When
+        trainingQueryEngine.createQuery(TrainingCriteria.create().trainerUsername("first").traineeName("a")).getResultList();
+        trainingQueryEngine.createQuery(TrainingCriteria.create().trainerUsername("second").traineeName("b")).getResultList();
+        trainingQueryEngine.createQuery(TrainingCriteria.create().trainerUsername("second").trainingType(TrainingType.YOGA)).getResultList();
+
+        // Then
+        assertEquals(1, shapeCacheCount("hit") - hitsBefore);
+        assertEquals(2, shapeCacheCount("miss") - missesBefore);
+        assertTrue(queryPlanCacheCount("hit") - planHitsBefore >= 1);
+    }
+
+    @Test
+    @DisplayName("createQuery - should include whole days of the date range")
+    void createQuery_ShouldFilterByWholeDays() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+
+        var day = LocalDate.of(2024, 1, 10);
+        trainingRepo.saveAll(List.of(
+                trainingOn(day.minusDays(1).atTime(23, 59), "before"),
+                trainingOn(day.atStartOfDay(), "start"),
+                trainingOn(day.atTime(23, 59), "end"),
+                trainingOn(day.plusDays(1).atStartOfDay(), "after")
+        ));
+
+        var criteria = TrainingCriteria.create()
+                .traineeUsername(testTrainee.getUserName())
+                .fromDate(day)
+                .toDate(day);
+
+        // When
+        var trainings = trainingQueryEngine.createQuery(criteria).getResultList();
+
+        // Then
+        assertEquals(List.of("start", "end"), trainings.stream().map(TrainingView::getTrainingName).toList());
+    }
+
+    private double shapeCacheCount(String result) {
+        return meterRegistry.counter("gym.training.query.shape.cache", "result", result).count();
+    }
+
+    private double queryPlanCacheCount(String result) {
+        return meterRegistry.get("hibernate.cache.query.plan").tag("result", result).functionCounter().count();
+    }
+
+    private Training trainingOn(LocalDateTime trainingDate, String trainingName) {
+        return Training.builder()
+                .trainee(testTrainee)
+                .trainer(testTrainer)
+                .trainingDate(trainingDate)
+                .trainingDuration(Duration.ZERO)
+                .trainingName(trainingName)
+                .trainingType(TrainingType.FITNESS)
+                .build();
+    }
+}
@@ -1,13 +1,49 @@
 package com.crm.repositories.impl;
 
 import com.crm.DbTestBase;
+import com.crm.dtos.DeletedRows;
+import com.crm.dtos.training.TrainingCounts;
+import com.crm.dtos.training.TrainingCursor;
+import com.crm.dtos.training.TrainingView;
+import com.crm.enums.TrainingType;
+import com.crm.metrics.GymMetrics;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Training;
+import com.crm.repositories.entities.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TraineeRepoImplTest extends DbTestBase {
+    @PersistenceContext
+    private EntityManager entityManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private GymMetrics gymMetrics;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @Test
     @DisplayName("Save a trainee and verify it is persisted")
@@ -126,4 +162,302 @@ public class TraineeRepoImplTest extends DbTestBase {
         assertNotNull(result.get());
         assertEquals(testTrainee, result.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("findByUserName - should resolve committed users from the second-level cache and respect the role")
+    void findByUserName_ShouldUseSecondLevelCache() {
+        // Given
+        var saved = traineeRepo.save(testTrainee);
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> traineeRepo.findByUserName(saved.getUserName()));
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        var result = transactionTemplate.execute(status -> traineeRepo.findByUserName(saved.getUserName()));
+        var asTrainer = transactionTemplate.execute(status -> trainerRepo.findByUserName(saved.getUserName()));
+
+        // Then
+        assertEquals(saved.getId(), result.orElseThrow().getId());
+        assertTrue(asTrainer.isEmpty());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getNaturalIdCacheHitCount());
+        assertEquals(1.0, meterRegistry.get("gym.hibernate.cache.hit.ratio").tag("region", User.NATURAL_ID_CACHE_REGION).gauge().value());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("findByUserNameUncached - should see a password changed by another node while the cached user is stale")
+    void findByUserNameUncached_ShouldBypassSecondLevelCache() {
+        // Given
+        var saved = traineeRepo.save(testTrainee);
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> traineeRepo.findByUserName(saved.getUserName()));
+
+        // When
+        jdbcTemplate.update("UPDATE users SET password = 'changedOnOtherNode' WHERE id = ?", saved.getId());
+        var cached = transactionTemplate.execute(status -> traineeRepo.findByUserName(saved.getUserName())).orElseThrow();
+        var uncached = transactionTemplate.execute(status -> traineeRepo.findByUserNameUncached(saved.getUserName())).orElseThrow();
+        var asTrainer = transactionTemplate.execute(status -> trainerRepo.findByUserNameUncached(saved.getUserName()));
+
+        // Then
+        assertEquals(saved.getPassword(), cached.getPassword());
+        assertEquals("changedOnOtherNode", uncached.getPassword());
+        assertTrue(asTrainer.isEmpty());
+    }
+
+    @Test
+    @DisplayName("findTrainerBaseUsernames - should return base usernames of trainers with given names")
+    void findTrainerBaseUsernames_ShouldReturnMatchingTrainers() {
+        // Given
+        trainerRepo.save(testTrainer);
+
+        // When
+        var result = traineeRepo.findTrainerBaseUsernames(
+                Set.of(testTrainer.getFirstName(), "unknown"),
+                Set.of(testTrainer.getLastName())
+        );
+        var emptyResult = traineeRepo.findTrainerBaseUsernames(Set.of("unknown"), Set.of(testTrainer.getLastName()));
+
+        // Then
+        assertEquals(Set.of("testName1.testLastName1"), result);
+        assertTrue(emptyResult.isEmpty());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("gym.trainees.count - should follow committed inserts and deletes of trainees without a count query")
+    void traineesCountGauge_ShouldFollowCommittedChanges() {
+        // Given
+        gymMetrics.reconcile();
+        var gauge = meterRegistry.get("gym.trainees.count").gauge();
+        var initialCount = gauge.value();
+
+        // When
+        var saved = traineeRepo.save(testTrainee);
+        var afterInsert = gauge.value();
+        traineeRepo.delete(saved);
+
+        // Then
+        assertEquals(initialCount + 1, afterInsert);
+        assertEquals(initialCount, gauge.value());
+    }
+
+    @Test
+    @DisplayName("saveAll - should insert trainees in JDBC batches with pooled sequence ids")
+    void saveAll_ShouldInsertTraineesInBatches() {
+        // Given
+        var trainees = IntStream.range(0, 60)
+                .mapToObj(i -> Trainee.builder()
+                        .firstName("batchName")
+                        .lastName("batchLastName")
+                        .userName("batchName.batchLastName" + i)
+                        .password("testPassword")
+                        .isActive(true)
+                        .build())
+                .toList();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        traineeRepo.saveAll(trainees);
+        entityManager.flush();
+
+        // Then
+        assertEquals(60, statistics.getEntityInsertCount());
+        assertEquals(60, trainees.stream().map(Trainee::getId).distinct().count());
+        // one batched insert statement per table and at most one sequence call per started block of 50 ids
+        assertTrue(statistics.getPrepareStatementCount() <= 2 + 2);
+    }
+
+    @Test
+    @DisplayName("getTraineeTrainingsByCriteria - should select views in one statement without loading entities")
+    void getTraineeTrainingsByCriteria_ShouldUseSingleStatement() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        trainingRepo.save(testTraining);
+        entityManager.flush();
+        entityManager.clear();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        var trainings = traineeRepo.getTraineeTrainingsByCriteria(
+                testTrainee.getUserName(), null, null, testTrainer.getUserName(), TrainingType.FITNESS
+        );
+
+        // Then
+        assertEquals(1, trainings.size());
+        assertEquals(testTrainee.getId(), trainings.get(0).getTraineeId());
+        assertEquals(testTrainer.getId(), trainings.get(0).getTrainerId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    @DisplayName("getTraineeTrainingsPage - should return pages in date and id order after the cursor")
+    void getTraineeTrainingsPage_ShouldSeekAfterCursor() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+
+        var firstDate = LocalDateTime.of(2024, 1, 1, 10, 0);
+        var trainings = List.of(
+                trainingOn(firstDate.plusDays(1), "third"),
+                trainingOn(firstDate, "first"),
+                trainingOn(firstDate, "second")
+        );
+        trainingRepo.saveAll(trainings);
+
+        // When
+        var firstPage = traineeRepo.getTraineeTrainingsPage(testTrainee.getUserName(), null, null, null, null, null, 2);
+        var lastView = firstPage.get(firstPage.size() - 1);
+        var secondPage = traineeRepo.getTraineeTrainingsPage(
+                testTrainee.getUserName(), null, null, null, null,
+                new TrainingCursor(lastView.getTrainingDate(), lastView.getId()), 2
+        );
+
+        // Then
+        assertEquals(List.of("first", "second"), firstPage.stream().map(TrainingView::getTrainingName).toList());
+        assertEquals(List.of("third"), secondPage.stream().map(TrainingView::getTrainingName).toList());
+    }
+
+    @Test
+    @DisplayName("getTrainersOfTrainee - should return each trainer of the trainee once without loading trainings")
+    void getTrainersOfTrainee_ShouldReturnDistinctTrainers() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+
+        var now = LocalDateTime.of(2024, 6, 1, 10, 0);
+        trainingRepo.saveAll(List.of(
+                trainingOn(now.minusDays(1), "past"),
+                trainingOn(now.plusDays(1), "next"),
+                trainingOn(now.plusDays(2), "later")
+        ));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        var trainers = traineeRepo.getTrainersOfTrainee(testTrainee.getId());
+        var counts = traineeRepo.countTrainings(testTrainee.getId(), now);
+
+        // Then
+        assertEquals(1, trainers.size());
+        assertEquals(testTrainer.getUserName(), trainers.get(0).getUserName());
+        assertEquals(testTrainer.getSpecialization(), trainers.get(0).getSpecialization());
+        assertEquals(new TrainingCounts(3L, 2L), counts);
+    }
+
+    @Test
+    @DisplayName("version - should be bumped by updating only the changed columns of a managed trainee")
+    void version_ShouldBeIncremented_WhenManagedTraineeChanges() {
+        // Given
+        traineeRepo.save(testTrainee);
+        entityManager.flush();
+        var initialVersion = testTrainee.getVersion();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        testTrainee.setAddress("New address");
+        entityManager.flush();
+
+        // Then
+        assertEquals(initialVersion + 1, testTrainee.getVersion());
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, statistics.getPrepareStatementCount()); // users: version, trainees: address
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("updateStatus - should update only trainees and evict the cached user")
+    void updateStatus_ShouldUpdateTrainee_AndEvictCachedUser() {
+        // Given
+        var saved = traineeRepo.save(testTrainee);
+        var transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.execute(status -> traineeRepo.findByUserName(saved.getUserName()));
+
+        // When
+        var updatedAsTrainer = transactionTemplate.execute(status -> trainerRepo.updateStatus(saved.getUserName(), false));
+        var updated = transactionTemplate.execute(status -> traineeRepo.updateStatus(saved.getUserName(), false));
+        var reloaded = transactionTemplate.execute(status -> traineeRepo.findByUserName(saved.getUserName())).orElseThrow();
+
+        // Then
+        assertEquals(0, updatedAsTrainer);
+        assertEquals(1, updated);
+        assertFalse(reloaded.isActive());
+        assertEquals(saved.getVersion() + 1, reloaded.getVersion());
+    }
+
+    @Test
+    @DisplayName("updateStatuses - should change only trainees with another status in one statement")
+    void updateStatuses_ShouldChangeOnlyTraineesWithAnotherStatus() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        var userNames = List.of(testTrainee.getUserName(), testTrainer.getUserName(), "unknown.user");
+        entityManager.flush();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        var deactivated = traineeRepo.updateStatuses(userNames, false);
+        var deactivatedAgain = traineeRepo.updateStatuses(userNames, false);
+        entityManager.clear();
+
+        // Then
+        assertEquals(1, deactivated);
+        assertEquals(0, deactivatedAgain);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertFalse(traineeRepo.findById(testTrainee.getId()).orElseThrow().isActive());
+        assertTrue(trainerRepo.findById(testTrainer.getId()).orElseThrow().isActive());
+    }
+
+    @Test
+    @DisplayName("deleteWithTrainings - should delete trainee with all trainings in three statements")
+    void deleteWithTrainings_ShouldDeleteTraineeAndTrainings_InThreeStatements() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        var now = LocalDateTime.of(2024, 6, 1, 10, 0);
+        trainingRepo.saveAll(List.of(trainingOn(now, "first"), trainingOn(now.plusDays(1), "second"), trainingOn(now.plusDays(2), "third")));
+        entityManager.flush();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        var deleted = traineeRepo.deleteWithTrainings(testTrainee);
+
+        // Then
+        assertEquals(new DeletedRows(1, 3), deleted);
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(entityManager.contains(testTrainee));
+        assertTrue(traineeRepo.findById(testTrainee.getId()).isEmpty());
+        assertEquals(0, trainingRepo.count());
+        assertTrue(trainerRepo.existsById(testTrainer.getId()));
+        assertEquals(new DeletedRows(0, 0), traineeRepo.deleteWithTrainings(testTrainee));
+    }
+
+    private Training trainingOn(LocalDateTime trainingDate, String trainingName) {
+        return Training.builder()
+                .trainee(testTrainee)
+                .trainer(testTrainer)
+                .trainingDate(trainingDate)
+                .trainingDuration(Duration.ZERO)
+                .trainingName(trainingName)
+                .trainingType(TrainingType.FITNESS)
+                .build();
+    }
+}
@@ -1,13 +1,32 @@
 package com.crm.repositories.impl;
 
 import com.crm.DbTestBase;
+import com.crm.dtos.trainer.TrainerCursor;
+import com.crm.dtos.trainer.TrainerSummary;
+import com.crm.dtos.training.TrainingCounts;
+import com.crm.dtos.training.TrainingCursor;
+import com.crm.dtos.training.TrainingView;
+import com.crm.enums.TrainingType;
+import com.crm.repositories.entities.Trainer;
+import com.crm.repositories.entities.Training;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TrainerRepoImplTest extends DbTestBase {
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Test
     @DisplayName("Save a trainer and verify it is persisted")
@@ -87,18 +106,71 @@ public class TrainerRepoImplTest extends DbTestBase {
     }
 
     @Test
-    @DisplayName("Get unassigned trainers by trainee username and verify result")
-    void getUnassignedTrainersByTraineeUsername_ShouldReturnCorrectTrainers() {
+    @DisplayName("getUnassignedTrainersPage - should exclude assigned trainers and filter by specialization")
+    void getUnassignedTrainersPage_ShouldExcludeAssignedTrainers() {
+        // Given
+        var savedTrainee = traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        trainingRepo.save(testTraining);
+        var yogaTrainer = trainerRepo.save(trainer("Yoga", TrainingType.YOGA));
+        var fitnessTrainer = trainerRepo.save(trainer("Fitness", TrainingType.FITNESS));
+
+        // When
+        var traineeId = trainerRepo.findTraineeIdByUserName(savedTrainee.getUserName()).orElseThrow();
+        var all = trainerRepo.getUnassignedTrainersPage(traineeId, null, null, 10);
+        var fitness = trainerRepo.getUnassignedTrainersPage(traineeId, TrainingType.FITNESS, null, 10);
+
+        // Then
+        assertEquals(List.of(yogaTrainer.getId(), fitnessTrainer.getId()), all.stream().map(TrainerSummary::getId).toList());
+        assertEquals(List.of(fitnessTrainer.getUserName()), fitness.stream().map(TrainerSummary::getUserName).toList());
+        assertEquals(TrainingType.YOGA, all.get(0).getSpecialization());
+    }
+
+    @Test
+    @DisplayName("getUnassignedTrainersPage - should return pages in id order after the cursor in one statement")
+    void getUnassignedTrainersPage_ShouldSeekAfterCursor_InSingleStatement() {
+        // Given
+        var savedTrainee = traineeRepo.save(testTrainee);
+        var trainers = trainerRepo.saveAll(List.of(
+                trainer("First", TrainingType.YOGA),
+                trainer("Second", TrainingType.YOGA),
+                trainer("Third", TrainingType.YOGA)
+        ));
+        entityManager.flush();
+        entityManager.clear();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        var firstPage = trainerRepo.getUnassignedTrainersPage(savedTrainee.getId(), TrainingType.YOGA, null, 2);
+        var secondPage = trainerRepo.getUnassignedTrainersPage(
+                savedTrainee.getId(), TrainingType.YOGA, new TrainerCursor(firstPage.get(1).getId()), 2
+        );
+
+        // Then
+        assertEquals(
+                List.of(trainers.get(0).getId(), trainers.get(1).getId()),
+                firstPage.stream().map(TrainerSummary::getId).toList()
+        );
+        assertEquals(List.of(trainers.get(2).getId()), secondPage.stream().map(TrainerSummary::getId).toList());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("findTraineeIdByUserName - should return id of existing trainee only")
+    void findTraineeIdByUserName_ShouldReturnIdOfExistingTrainee() {
         // Given
         var savedTrainee = traineeRepo.save(testTrainee);
-        var savedTrainer = trainerRepo.save(testTrainer);
 
         // When
-        var trainers = trainerRepo.getUnassignedTrainersByTraineeUsername(savedTrainee.getUserName());
+        var found = trainerRepo.findTraineeIdByUserName(savedTrainee.getUserName());
+        var missing = trainerRepo.findTraineeIdByUserName("unknown");
 
         // Then
-        assertFalse(trainers.isEmpty());
-        assertEquals(savedTrainer.getUserName(), trainers.get(0).getUserName());
+        assertEquals(savedTrainee.getId(), found.orElseThrow());
+        assertTrue(missing.isEmpty());
     }
 
     @Test
@@ -123,4 +195,144 @@ public class TrainerRepoImplTest extends DbTestBase {
         assertNotNull(result.get());
         assertEquals(testTrainer, result.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("getTrainerTrainingsByCriteria - should select views in one statement without loading entities")
+    void getTrainerTrainingsByCriteria_ShouldUseSingleStatement() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+        trainingRepo.save(testTraining);
+        entityManager.flush();
+        entityManager.clear();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        var trainings = trainerRepo.getTrainerTrainingsByCriteria(
+                testTrainer.getUserName(), null, null, testTrainee.getFirstName(), TrainingType.FITNESS
+        );
+
+        // Then
+        assertEquals(1, trainings.size());
+        assertEquals(testTrainee.getId(), trainings.get(0).getTraineeId());
+        assertEquals(testTrainer.getId(), trainings.get(0).getTrainerId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    @DisplayName("getTrainerTrainingsPage - should return pages in date and id order after the cursor")
+    void getTrainerTrainingsPage_ShouldSeekAfterCursor() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+
+        var firstDate = LocalDateTime.of(2024, 1, 1, 10, 0);
+        var trainings = List.of(
+                trainingOn(firstDate.plusDays(1), "third"),
+                trainingOn(firstDate, "first"),
+                trainingOn(firstDate, "second")
+        );
+        trainingRepo.saveAll(trainings);
+
+        // When
+        var firstPage = trainerRepo.getTrainerTrainingsPage(testTrainer.getUserName(), null, null, null, null, null, 2);
+        var lastView = firstPage.get(firstPage.size() - 1);
+        var secondPage = trainerRepo.getTrainerTrainingsPage(
+                testTrainer.getUserName(), null, null, null, null,
+                new TrainingCursor(lastView.getTrainingDate(), lastView.getId()), 2
+        );
+
+        // Then
+        assertEquals(List.of("first", "second"), firstPage.stream().map(TrainingView::getTrainingName).toList());
+        assertEquals(List.of("third"), secondPage.stream().map(TrainingView::getTrainingName).toList());
+    }
+
+    @Test
+    @DisplayName("streamTrainerTrainingsByCriteria - should stream all matching trainings in date and id order")
+    void streamTrainerTrainingsByCriteria_ShouldStreamTrainingsInOrder() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+
+        var firstDate = LocalDateTime.of(2024, 1, 1, 10, 0);
+        trainingRepo.saveAll(List.of(
+                trainingOn(firstDate.plusDays(2), "third"),
+                trainingOn(firstDate, "first"),
+                trainingOn(firstDate.plusDays(1), "second")
+        ));
+
+        // When
+        List<String> trainingNames;
+        try (var trainings = trainerRepo.streamTrainerTrainingsByCriteria(testTrainer.getUserName(), null, null, null, null)) {
+            trainingNames = trainings.map(TrainingView::getTrainingName).toList();
+        }
+
+        // Then
+        assertEquals(List.of("first", "second", "third"), trainingNames);
+    }
+
+    @Test
+    @DisplayName("getUpcomingTrainings and getRecentTrainings - should return a bounded window of trainings")
+    void getTrainingsWindow_ShouldReturnBoundedWindow() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+
+        var now = LocalDateTime.of(2024, 6, 1, 10, 0);
+        trainingRepo.saveAll(List.of(
+                trainingOn(now.minusDays(2), "older"),
+                trainingOn(now.minusDays(1), "latest past"),
+                trainingOn(now.plusDays(2), "later"),
+                trainingOn(now.plusDays(1), "next")
+        ));
+
+        // When
+        var upcoming = trainerRepo.getUpcomingTrainings(testTrainer.getId(), now, Limit.of(1));
+        var recent = trainerRepo.getRecentTrainings(testTrainer.getId(), Limit.of(3));
+        var counts = trainerRepo.countTrainings(testTrainer.getId(), now);
+
+        // Then
+        assertEquals(List.of("next"), upcoming.stream().map(TrainingView::getTrainingName).toList());
+        assertEquals(List.of("later", "next", "latest past"), recent.stream().map(TrainingView::getTrainingName).toList());
+        assertEquals(new TrainingCounts(4L, 2L), counts);
+    }
+
+    @Test
+    @DisplayName("countTrainings - should return zero counts for a trainer without trainings")
+    void countTrainings_ShouldReturnZeros_WhenTrainerHasNoTrainings() {
+        // Given
+        trainerRepo.save(testTrainer);
+
+        // When
+        var counts = trainerRepo.countTrainings(testTrainer.getId(), LocalDateTime.now());
+
+        // Then
+        assertEquals(new TrainingCounts(0L, 0L), counts);
+    }
+
+    private static Trainer trainer(String name, TrainingType specialization) {
+        return Trainer.builder()
+                .firstName(name)
+                .lastName("Trainer")
+                .userName(name + ".Trainer")
+                .password("password")
+                .isActive(true)
+                .specialization(specialization)
+                .build();
+    }
+
+    private Training trainingOn(LocalDateTime trainingDate, String trainingName) {
+        return Training.builder()
+                .trainee(testTrainee)
+                .trainer(testTrainer)
+                .trainingDate(trainingDate)
+                .trainingDuration(Duration.ZERO)
+                .trainingName(trainingName)
+                .trainingType(TrainingType.FITNESS)
+                .build();
+    }
+}
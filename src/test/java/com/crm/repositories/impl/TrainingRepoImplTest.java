@@ -1,14 +1,25 @@
 package com.crm.repositories.impl;
 
 import com.crm.DbTestBase;
+import com.crm.enums.TrainingType;
+import com.crm.repositories.entities.Training;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class TrainingRepoImplTest extends DbTestBase {
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @BeforeEach
     void init() {
@@ -72,4 +83,34 @@ public class TrainingRepoImplTest extends DbTestBase {
         Assertions.assertTrue(result1);
         Assertions.assertFalse(result2);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("saveAll - should insert trainings in JDBC batches with pooled sequence ids")
+    void saveAll_ShouldInsertTrainingsInBatches() {
+        // Given
+        var trainings = IntStream.range(0, 120)
+                .mapToObj(i -> Training.builder()
+                        .trainee(testTrainee)
+                        .trainer(testTrainer)
+                        .trainingDate(LocalDateTime.now())
+                        .trainingDuration(Duration.ZERO)
+                        .trainingName("TestName" + i)
+                        .trainingType(TrainingType.FITNESS)
+                        .build())
+                .toList();
+        entityManager.flush();
+
+        var statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        trainingRepo.saveAll(trainings);
+        entityManager.flush();
+
+        // Then
+        assertEquals(120, statistics.getEntityInsertCount());
+        assertEquals(120, trainings.stream().map(Training::getId).distinct().count());
+        // one batched insert statement and at most one sequence call per started block of 50 ids
+        assertTrue(statistics.getPrepareStatementCount() <= 1 + 3);
+    }
+}
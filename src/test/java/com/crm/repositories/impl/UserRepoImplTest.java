@@ -0,0 +1,68 @@
+package com.crm.repositories.impl;
+
+import com.crm.DbTestBase;
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Trainer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserRepoImplTest extends DbTestBase {
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    @DisplayName("findUserNamesLike - should return usernames of all roles starting with prefix")
+    void findUserNamesLike_ShouldReturnUsernamesWithPrefix() {
+        // Given
+        testTrainer.setUserName("testName.testLastName1");
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+
+        // When
+        var result = userRepo.findUserNamesLike("testName.testLastName%");
+        var escapedResult = userRepo.findUserNamesLike("testName!_testLastName%");
+
+        // Then
+        assertEquals(Set.of("testName.testLastName", "testName.testLastName1"), result);
+        assertTrue(escapedResult.isEmpty());
+    }
+
+    @Test
+    @DisplayName("findExistingUserNames - should return only taken usernames")
+    void findExistingUserNames_ShouldReturnTakenUsernames() {
+        // Given
+        traineeRepo.save(testTrainee);
+
+        // When
+        var result = userRepo.findExistingUserNames(Set.of(testTrainee.getUserName(), "unknown.user"));
+
+        // Then
+        assertEquals(Set.of(testTrainee.getUserName()), result);
+    }
+
+    @Test
+    @DisplayName("streamUserKeys - should stream role and names of all users")
+    void streamUserKeys_ShouldStreamAllUsers() {
+        // Given
+        traineeRepo.save(testTrainee);
+        trainerRepo.save(testTrainer);
+
+        // When
+        List<Object[]> result;
+        try (var userKeys = userRepo.streamUserKeys()) {
+            result = userKeys.toList();
+        }
+
+        // Then
+        assertEquals(2, result.size());
+        assertTrue(result.stream().anyMatch(row -> row[0] == Trainee.class && testTrainee.getUserName().equals(row[1])));
+        assertTrue(result.stream().anyMatch(row -> row[0] == Trainer.class && testTrainer.getFirstName().equals(row[2])));
+    }
+}
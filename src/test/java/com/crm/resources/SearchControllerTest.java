@@ -0,0 +1,63 @@
+package com.crm.resources;
+
+import com.crm.dtos.UserSearchResult;
+import com.crm.init.DataInitializer;
+import com.crm.search.UserSearchIndex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class SearchControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private UserSearchIndex userSearchIndex;
+    @MockitoBean
+    private DataInitializer dataInitializer;
+
+    @Test
+    @DisplayName("Should return ranked search results")
+    void search_ShouldReturnResults() throws Exception {
+        // Given
+        var result = new UserSearchResult(1L, "John.Smith", "John", "Smith", UserSearchResult.Role.TRAINEE, 2.5f);
+        when(userSearchIndex.isReady()).thenReturn(true);
+        when(userSearchIndex.search("john", UserSearchResult.Role.TRAINEE, 5)).thenReturn(List.of(result));
+
+        // When - Then
+        mockMvc.perform(get("/api/v1/search")
+                        .param("q", "john")
+                        .param("role", "TRAINEE")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].userName").value("John.Smith"))
+                .andExpect(jsonPath("$[0].role").value("TRAINEE"));
+    }
+
+    @Test
+    @DisplayName("Should return 503 while the search index is not ready")
+    void search_ShouldReturnServiceUnavailable_WhenIndexIsNotReady() throws Exception {
+        // Given
+        when(userSearchIndex.isReady()).thenReturn(false);
+
+        // When - Then
+        mockMvc.perform(get("/api/v1/search").param("q", "john"))
+                .andExpect(status().isServiceUnavailable());
+        verify(userSearchIndex, never()).search(anyString(), any(), anyInt());
+    }
+}
@@ -1,15 +1,20 @@
 package com.crm.resources;
 
 import com.crm.UnitTestBase;
+import com.crm.dtos.BatchItemResult;
+import com.crm.dtos.CursorPage;
 import com.crm.dtos.UserLoginDto;
+import com.crm.dtos.UserStatusBatchUpdateDto;
 import com.crm.dtos.UserStatusUpdateDto;
 import com.crm.dtos.trainee.TraineeDto;
+import com.crm.dtos.trainee.TraineePatchDto;
 import com.crm.dtos.trainee.TraineeTrainingUpdateDto;
 import com.crm.dtos.training.TrainingDto;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import com.crm.init.DataInitializer;
 import com.crm.repositories.entities.Trainee;
+import com.crm.services.PasswordHashingService;
 import com.crm.services.TraineeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.coyote.BadRequestException;
@@ -22,6 +27,8 @@ import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -32,11 +39,15 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -51,6 +62,8 @@ class TraineeControllerTest extends UnitTestBase {
     @MockitoBean
     private TraineeService traineeService;
     @MockitoBean
+    private PasswordHashingService passwordHashingService;
+    @MockitoBean
     private DataInitializer dataInitializer;
     @Autowired
     private ObjectMapper objectMapper;
@@ -71,17 +84,72 @@ class TraineeControllerTest extends UnitTestBase {
     @DisplayName("Should successfully create trainee")
     void shouldRegisterTraineeSuccessfully() throws Exception {
         // Given
-        when(traineeService.addTrainee(any(TraineeDto.class))).thenReturn(testTraineeDto);
-
-        // When - Then
-        mockMvc.perform(post("/api/v1/trainee")
+        when(passwordHashingService.hashPasswordAsync(anyString())).thenReturn(CompletableFuture.completedFuture("hash"));
+        var savingThread = new AtomicReference<String>();
+        when(traineeService.addTrainee(any(TraineeDto.class), eq("hash"))).thenAnswer(invocation -> {
+            savingThread.set(Thread.currentThread().getName());
+            return testTraineeDto;
+        });
+
+        // When
+        var asyncResult = mockMvc.perform(post("/api/v1/trainee")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(testTraineeDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.userName").value(testTraineeDto.getUserName()))
                 .andExpect(jsonPath("$.password").value(testTraineeDto.getPassword()));
 
-        verify(traineeService, times(1)).addTrainee(traineeDtoArgumentCaptor.capture());
+        verify(traineeService, times(1)).addTrainee(traineeDtoArgumentCaptor.capture(), eq("hash"));
+        assertTrue(savingThread.get().startsWith("db-"));
+    }
+
+    @Test
+    @DisplayName("Should reject trainee registration when password hashing executor is saturated")
+    void shouldRejectRegistration_WhenHashingExecutorIsSaturated() throws Exception {
+        // Given
+        when(passwordHashingService.hashPasswordAsync(anyString())).thenThrow(new TaskRejectedException("Executor is saturated"));
+
+        // When - Then
+        mockMvc.perform(post("/api/v1/trainee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testTraineeDto)))
+                .andExpect(status().isTooManyRequests());
+
+        verify(traineeService, never()).addTrainee(any(TraineeDto.class), anyString());
+    }
+
+    @Test
+    @DisplayName("Should register batch of trainees and return per-item results")
+    void shouldRegisterTraineesBatch() throws Exception {
+        // Given
+        var invalidDto = TraineeDto.builder().firstName("1").build();
+        when(traineeService.addTrainees(anyList())).thenReturn(CompletableFuture.completedFuture(List.of(
+                BatchItemResult.created(0, testTraineeDto),
+                BatchItemResult.failed(1, "Password is mandatory")
+        )));
+
+        // When
+        var asyncResult = mockMvc.perform(post("/api/v1/trainee/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(testTraineeDto, invalidDto))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].result.userName").value(testTraineeDto.getUserName()))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[1].error").value("Password is mandatory"));
+
+        verify(traineeService, times(1)).addTrainees(anyList());
     }
 
     @ParameterizedTest
@@ -95,16 +163,22 @@ class TraineeControllerTest extends UnitTestBase {
     ) throws Exception {
         // Given
         var testUserLoginDto = new UserLoginDto(username, oldPassword, newPassword);
-        doNothing().when(traineeService).changePassword(any(UserLoginDto.class));
+        when(passwordHashingService.changePasswordAsync(eq(traineeService), any(UserLoginDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
 
-        // When - Then
-        mockMvc.perform(put("/api/v1/trainee/password")
+        // When
+        var asyncResult = mockMvc.perform(put("/api/v1/trainee/password")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(testUserLoginDto)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().is(expectedStatus))
                 .andExpect(content().string(expectedMessage));
 
-        verify(traineeService, times(1)).changePassword(userLoginDtoArgumentCaptor.capture());
+        verify(passwordHashingService, times(1)).changePasswordAsync(eq(traineeService), userLoginDtoArgumentCaptor.capture());
     }
 
     @ParameterizedTest
@@ -208,9 +282,9 @@ class TraineeControllerTest extends UnitTestBase {
                 .trainerId(1L)
                 .build();
 
-        when(traineeService.findTraineeTrainingsByCriteria(
-                eq(username), eq(periodFrom), eq(periodTo), eq(trainerUserName), eq(trainingType)))
-                .thenReturn(Set.of(shortView));
+        when(traineeService.findTraineeTrainingsPage(
+                eq(username), eq(periodFrom), eq(periodTo), eq(trainerUserName), eq(trainingType), eq(null), eq(null)))
+                .thenReturn(new CursorPage<>(List.of(shortView), null));
 
         // When - Then
         mockMvc.perform(get("/api/v1/trainee/trainings")
@@ -221,9 +295,10 @@ class TraineeControllerTest extends UnitTestBase {
                         .param("training-type", trainingTypeStr != null ? trainingTypeStr : ""))
                 .andExpect(status().isOk())
                 .andDo(print())
-                .andExpect(jsonPath("$", hasSize(1)))
-                .andExpect(jsonPath("$[0].trainingName").value(shortView.getTrainingName()))
-                .andExpect(jsonPath("$[0].trainerId").value(shortView.getTrainerId()));
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].trainingName").value(shortView.getTrainingName()))
+                .andExpect(jsonPath("$.items[0].trainerId").value(shortView.getTrainerId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @ParameterizedTest
@@ -261,8 +336,8 @@ class TraineeControllerTest extends UnitTestBase {
         var periodFrom = LocalDate.parse(periodFromStr);
         var periodTo = LocalDate.parse(periodToStr);
 
-        when(traineeService.findTraineeTrainingsByCriteria(eq(username), eq(periodFrom), eq(periodTo), eq(null), eq(null)))
-                .thenReturn(Collections.emptySet());
+        when(traineeService.findTraineeTrainingsPage(eq(username), eq(periodFrom), eq(periodTo), eq(null), eq(null), eq(null), eq(null)))
+                .thenReturn(new CursorPage<>(Collections.emptyList(), null));
 
         // When - Then
         mockMvc.perform(get("/api/v1/trainee/trainings")
@@ -270,7 +345,7 @@ class TraineeControllerTest extends UnitTestBase {
                         .param("period-from", periodFrom.toString())
                         .param("period-to", periodTo.toString()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isEmpty());
+                .andExpect(jsonPath("$.items").isEmpty());
     }
 
     @ParameterizedTest
@@ -284,19 +359,34 @@ class TraineeControllerTest extends UnitTestBase {
         var statusUpdateDto = new UserStatusUpdateDto(username, isActive);
         testTrainee.setUserName(username);
 
-        when(traineeService.findByUsernameOrThrow(username)).thenReturn(testTrainee);
-        if (isActive) {
-            when(traineeService.activateStatus(testTrainee.getId())).thenReturn(true);
-        } else {
-            when(traineeService.deactivateStatus(testTrainee.getId())).thenReturn(false);
-        }
-
         // When - Then
         mockMvc.perform(patch("/api/v1/trainee/status")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(statusUpdateDto)))
                 .andExpect(status().is(expectedStatus))
                 .andExpect(content().string(expectedMessage));
+
+        verify(traineeService, times(1)).updateStatus(username, isActive);
+        verify(traineeService, never()).findByUsernameOrThrow(anyString());
+    }
+
+    @Test
+    @DisplayName("Should update statuses of a batch of trainees")
+    void shouldUpdateTraineeStatusesInBatch() throws Exception {
+        // Given
+        var statusUpdateDto = new UserStatusBatchUpdateDto(List.of("user1", "user2"), false);
+        when(traineeService.updateStatuses(List.of("user1", "user2"), false)).thenReturn(2);
+
+        // When - Then
+        mockMvc.perform(patch("/api/v1/trainee/status/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(statusUpdateDto)))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2 trainees were deactivated."));
+        mockMvc.perform(patch("/api/v1/trainee/status/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserStatusBatchUpdateDto(List.of(), true))))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -312,5 +402,49 @@ class TraineeControllerTest extends UnitTestBase {
                 .andExpect(status().isOk())
                 .andDo(print());
     }
-}
 
+    @Test
+    @DisplayName("Should partially update trainee and reject a stale version with 409")
+    void testPatchTrainee() throws Exception {
+        // Given
+        var patchDto = TraineePatchDto.builder().userName(testTraineeDto.getUserName()).address("New address").version(3L).build();
+        var patchDtoCaptor = ArgumentCaptor.forClass(TraineePatchDto.class);
+        when(traineeService.patchTraineeProfile(eq(1L), any(TraineePatchDto.class)))
+                .thenReturn(testTraineeView)
+                .thenThrow(new OptimisticLockingFailureException("Trainee was modified concurrently"));
+
+        //When - Then
+        mockMvc.perform(patch("/api/v1/trainee/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patchDto)))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/v1/trainee/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patchDto)))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Trainee was modified concurrently"));
+
+        verify(traineeService, times(2)).patchTraineeProfile(eq(1L), patchDtoCaptor.capture());
+        assertEquals(3L, patchDtoCaptor.getValue().getVersion());
+        assertEquals("New address", patchDtoCaptor.getValue().getAddress());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "'{\"userName\":\"John.Doe\",\"firstName\":\"\"}'",
+            "'{\"userName\":\"John.Doe\",\"lastName\":\"D0e\"}'",
+            "'{\"userName\":\"John.Doe\",\"address\":\"abc\"}'",
+            "'{\"userName\":\"John.Doe\",\"dateOfBirth\":\"2999-01-01\"}'",
+            "'{\"address\":\"New address\"}'"
+    })
+    @DisplayName("Should reject a patch with an invalid field")
+    void testPatchTrainee_ShouldRejectInvalidFields(String patchJson) throws Exception {
+        //When - Then
+        mockMvc.perform(patch("/api/v1/trainee/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(patchJson))
+                .andExpect(status().isBadRequest());
+
+        verify(traineeService, never()).patchTraineeProfile(anyLong(), any(TraineePatchDto.class));
+    }
+}
@@ -1,30 +1,46 @@
 package com.crm.resources;
 
 import com.crm.UnitTestBase;
+import com.crm.dtos.CursorPage;
 import com.crm.dtos.UserLoginDto;
 import com.crm.dtos.UserStatusUpdateDto;
 import com.crm.dtos.trainer.TrainerDto;
+import com.crm.dtos.trainer.TrainerSummary;
 import com.crm.dtos.trainer.TrainerView;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import com.crm.init.DataInitializer;
 import com.crm.repositories.entities.Trainer;
+import com.crm.services.PasswordHashingService;
 import com.crm.services.TrainerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,9 +56,14 @@ class TrainerControllerTest extends UnitTestBase {
     @MockitoBean
     private TrainerService trainerService;
     @MockitoBean
+    private PasswordHashingService passwordHashingService;
+    @MockitoBean
     private DataInitializer dataInitializer;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    @Qualifier("exportExecutor")
+    private ThreadPoolTaskExecutor exportExecutor;
 
     @ParameterizedTest
     @CsvSource({
@@ -63,15 +84,19 @@ class TrainerControllerTest extends UnitTestBase {
         trainerDto.setPassword(password);
         trainerDto.setSpecialization(trainingType.isEmpty() ? null : TrainingType.valueOf(trainingType));
 
-        var trainer = new Trainer();
-
         if (!firstName.isEmpty() && !lastName.isEmpty() && !password.isEmpty() && !trainingType.isEmpty()) {
-            when(trainerService.save(any(Trainer.class))).thenReturn(trainer);
+            when(passwordHashingService.hashPasswordAsync(anyString())).thenReturn(CompletableFuture.completedFuture("hash"));
+            when(trainerService.addTrainer(any(TrainerDto.class), eq("hash"))).thenReturn(trainerDto);
 
-            //When - Then
-            mockMvc.perform(post("/api/v1/trainer")
+            //When
+            var asyncResult = mockMvc.perform(post("/api/v1/trainer")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(trainerDto)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            mockMvc.perform(asyncDispatch(asyncResult))
                     .andExpect(status().isCreated());
         } else {
             mockMvc.perform(post("/api/v1/trainer")
@@ -98,16 +123,19 @@ class TrainerControllerTest extends UnitTestBase {
         loginDto.setOldPassword(oldPassword);
         loginDto.setNewPassword(newPassword);
 
-        Trainer trainer = new Trainer();
-
         if (!userName.isEmpty() && !oldPassword.isEmpty() && !newPassword.isEmpty()) {
-            when(trainerService.findByUsernameOrThrow(userName)).thenReturn(trainer);
-            doNothing().when(trainerService).changePassword(any(UserLoginDto.class));
+            when(passwordHashingService.changePasswordAsync(eq(trainerService), any(UserLoginDto.class)))
+                    .thenReturn(CompletableFuture.completedFuture(null));
 
-            // When - Then
-            mockMvc.perform(put("/api/v1/trainer/password")
+            // When
+            var asyncResult = mockMvc.perform(put("/api/v1/trainer/password")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(loginDto)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            // Then
+            mockMvc.perform(asyncDispatch(asyncResult))
                     .andExpect(status().isOk())
                     .andExpect(content().string("Password successfully changed"));
         } else {
@@ -189,23 +217,30 @@ class TrainerControllerTest extends UnitTestBase {
             String username, String firstName, String lastName, String trainerUsername, TrainingType specialization
     ) throws Exception {
         //Given
-        var expectedTrainer = TrainerDto.builder()
+        var expectedTrainer = TrainerSummary.builder()
+                .id(1L)
                 .firstName(firstName)
                 .lastName(lastName)
                 .userName(trainerUsername)
                 .specialization(specialization)
                 .isActive(true)
                 .build();
-        when(trainerService.findNotAssignedTrainersByTraineeUserName(anyString())).thenReturn(Set.of(expectedTrainer));
+        when(trainerService.findNotAssignedTrainersPage(username, specialization, "abc", 10))
+                .thenReturn(new CursorPage<>(List.of(expectedTrainer), "next"));
 
         //When - Then
-        mockMvc.perform(get("/api/v1/trainer/unassigned/{username}", username))
+        mockMvc.perform(get("/api/v1/trainer/unassigned/{username}", username)
+                        .param("specialization", specialization.name())
+                        .param("cursor", "abc")
+                        .param("limit", "10"))
                 .andExpect(status().isOk())
                 .andDo(print())
-                .andExpect(jsonPath("$[0].firstName").value(firstName))
-                .andExpect(jsonPath("$[0].lastName").value(lastName))
-                .andExpect(jsonPath("$[0].userName").value(trainerUsername))
-                .andExpect(jsonPath("$[0].specialization").value(specialization.name()));
+                .andExpect(jsonPath("$.items[0].firstName").value(firstName))
+                .andExpect(jsonPath("$.items[0].lastName").value(lastName))
+                .andExpect(jsonPath("$.items[0].userName").value(trainerUsername))
+                .andExpect(jsonPath("$.items[0].specialization").value(specialization.name()))
+                .andExpect(jsonPath("$.items[0].password").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
     }
 
     @ParameterizedTest
@@ -221,16 +256,14 @@ class TrainerControllerTest extends UnitTestBase {
         var statusUpdateDto = new UserStatusUpdateDto(userName, isActive);
         testTrainer.setUserName(userName);
 
-        when(trainerService.findByUsernameOrThrow(anyString())).thenReturn(testTrainer);
-        lenient().when(trainerService.activateStatus(anyLong())).thenReturn(true);
-        lenient().when(trainerService.deactivateStatus(anyLong())).thenReturn(false);
-
         // When - Then
         mockMvc.perform(patch("/api/v1/trainer/status")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(statusUpdateDto)))
                 .andExpect(status().isOk())
                 .andExpect(content().string(expectedMessage));
+
+        verify(trainerService, times(1)).updateStatus(userName, isActive);
     }
 
     @ParameterizedTest
@@ -249,8 +282,8 @@ class TrainerControllerTest extends UnitTestBase {
         var periodFrom = periodFromStr == null ? null : LocalDate.parse(periodFromStr);
         var periodTo = periodToStr == null ? null : LocalDate.parse(periodToStr);
 
-        when(trainerService.findTrainerTrainingsByCriteria(username, periodFrom, periodTo, traineeUserName, TrainingType.YOGA))
-                .thenReturn(Set.of(new TrainingView()));
+        when(trainerService.findTrainerTrainingsPage(username, periodFrom, periodTo, traineeUserName, TrainingType.YOGA, null, null))
+                .thenReturn(new CursorPage<>(List.of(new TrainingView()), null));
 
         // When - Then
         mockMvc.perform(get("/api/v1/trainer/trainings")
@@ -261,6 +294,115 @@ class TrainerControllerTest extends UnitTestBase {
                         .param("training-type", "YOGA")
                 )
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isNotEmpty());
+                .andExpect(jsonPath("$.items").isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("Should pass cursor and limit and return the next cursor")
+    void getTrainerTrainings_ShouldReturnNextCursor() throws Exception {
+        // Given
+        var username = "trainer1";
+        var cursor = "cursor";
+        var nextCursor = "next-cursor";
+
+        when(trainerService.findTrainerTrainingsPage(username, null, null, null, null, cursor, 10))
+                .thenReturn(new CursorPage<>(List.of(new TrainingView()), nextCursor));
+
+        // When - Then
+        mockMvc.perform(get("/api/v1/trainer/trainings")
+                        .param("username", username)
+                        .param("cursor", cursor)
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+    }
+
+    @Test
+    @DisplayName("Should stream trainer trainings as NDJSON when it is accepted")
+    void exportTrainerTrainings_ShouldStreamNdjson() throws Exception {
+        // Given
+        var username = "trainer1";
+        var firstView = TrainingView.builder().id(1L).trainingName("first").build();
+        var secondView = TrainingView.builder().id(2L).trainingName("second").build();
+        var streamingThread = new AtomicReference<String>();
+
+        doAnswer(invocation -> {
+            streamingThread.set(Thread.currentThread().getName());
+            Consumer<TrainingView> consumer = invocation.getArgument(5);
+            consumer.accept(firstView);
+            consumer.accept(secondView);
+            return null;
+        }).when(trainerService).streamTrainerTrainingsByCriteria(eq(username), isNull(), isNull(), isNull(), eq(TrainingType.YOGA), any());
+
+        // When
+        var asyncResult = mockMvc.perform(get("/api/v1/trainer/trainings")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("username", username)
+                        .param("training-type", "YOGA"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        var lines = asyncResult.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("first", objectMapper.readValue(lines[0], TrainingView.class).getTrainingName());
+        assertEquals("second", objectMapper.readValue(lines[1], TrainingView.class).getTrainingName());
+        assertTrue(streamingThread.get().startsWith("export-"));
+    }
+
+    @Test
+    @DisplayName("Should reject an export with 429 while the maximum number of exports is running")
+    void exportTrainerTrainings_ShouldRejectExport_WhenExportsAreSaturated() throws Exception {
+        // Given
+        var started = new CountDownLatch(exportExecutor.getMaxPoolSize());
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        }).when(trainerService).streamTrainerTrainingsByCriteria(eq("trainer1"), isNull(), isNull(), isNull(), isNull(), any());
+
+        var runningExports = new ArrayList<MvcResult>();
+        try {
+            for (var i = 0; i < exportExecutor.getMaxPoolSize(); i++) {
+                runningExports.add(mockMvc.perform(get("/api/v1/trainer/trainings")
+                                .accept(MediaType.APPLICATION_NDJSON)
+                                .param("username", "trainer1"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn());
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            // When - Then
+            mockMvc.perform(get("/api/v1/trainer/trainings")
+                            .accept(MediaType.APPLICATION_NDJSON)
+                            .param("username", "trainer1"))
+                    .andExpect(status().isTooManyRequests());
+        } finally {
+            release.countDown();
+        }
+
+        for (var runningExport : runningExports) {
+            mockMvc.perform(asyncDispatch(runningExport))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete trainer by username")
+    void deleteTrainer_ShouldDeleteTrainer() throws Exception {
+        // Given
+        when(trainerService.findByUsernameOrThrow(testTrainer.getUserName())).thenReturn(testTrainer);
+
+        // When - Then
+        mockMvc.perform(delete("/api/v1/trainer/{username}", testTrainer.getUserName()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Trainer with userName=" + testTrainer.getUserName() + " was deleted"));
+
+        verify(trainerService, times(1)).delete(testTrainer);
     }
-}
\ No newline at end of file
+}
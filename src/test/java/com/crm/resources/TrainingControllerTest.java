@@ -7,6 +7,7 @@ import com.crm.enums.TrainingType;
 import com.crm.init.DataInitializer;
 import com.crm.services.TrainingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +22,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -41,6 +43,8 @@ class TrainingControllerTest extends UnitTestBase {
     private DataInitializer dataInitializer;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Test
     @DisplayName("addTraining should handle various inputs and return appropriate status")
@@ -82,4 +86,18 @@ class TrainingControllerTest extends UnitTestBase {
                 .andExpect(jsonPath("$", hasSize(TrainingType.values().length)))
                 .andReturn();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("http.server.requests - should tag the request with the handling controller method")
+    void getTrainingTypes_ShouldBeTimedPerHandler() throws Exception {
+        // When
+        mockMvc.perform(get("/api/v1/training/types"))
+                .andExpect(status().isOk());
+
+        // Then
+        var timer = meterRegistry.get("http.server.requests")
+                .tag("handler", "TrainingController.getTrainingTypes")
+                .timer();
+        assertTrue(timer.count() > 0);
+    }
+}
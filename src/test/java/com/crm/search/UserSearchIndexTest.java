@@ -0,0 +1,92 @@
+package com.crm.search;
+
+import com.crm.UnitTestBase;
+import com.crm.dtos.UserSearchResult;
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Trainer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class UserSearchIndexTest extends UnitTestBase {
+    @Mock
+    private UserRepo userRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserSearchIndex userSearchIndex;
+
+    @BeforeEach
+    void setUpIndex() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        userSearchIndex = new UserSearchIndex(userRepo, transactionManager, true, 10, meterRegistry);
+
+        when(userRepo.streamUserSearchRows()).thenReturn(Stream.of(
+                new Object[]{1L, Trainee.class, "John.Smith", "John", "Smith"},
+                new Object[]{2L, Trainee.class, "Johanna.Smithson", "Johanna", "Smithson"},
+                new Object[]{3L, Trainer.class, "Jon.Snow", "Jon", "Snow"}
+        ));
+        userSearchIndex.rebuild();
+    }
+
+    @AfterEach
+    void closeIndex() throws IOException {
+        userSearchIndex.close();
+    }
+
+    @Test
+    @DisplayName("search - should rank exact matches above fuzzy matches")
+    void search_ShouldRankExactMatchFirst() {
+        // Given - When
+        var results = userSearchIndex.search("john", null, 10);
+
+        // Then
+        assertEquals(List.of("John.Smith", "Jon.Snow"), results.stream().map(UserSearchResult::getUserName).toList());
+        assertTrue(results.get(0).getScore() > results.get(1).getScore());
+        assertTrue(userSearchIndex.isReady());
+        assertEquals(1, meterRegistry.timer("gym.search.index.build").count());
+    }
+
+    @Test
+    @DisplayName("search - should require every term to match and filter by role")
+    void search_ShouldMatchAllTerms_AndFilterByRole() {
+        // Given - When
+        var byPrefixes = userSearchIndex.search("johanna smiths", null, 10);
+        var trainers = userSearchIndex.search("jo", UserSearchResult.Role.TRAINER, 10);
+
+        // Then
+        assertEquals(List.of(2L), byPrefixes.stream().map(UserSearchResult::getId).toList());
+        assertEquals(List.of(3L), trainers.stream().map(UserSearchResult::getId).toList());
+    }
+
+    @Test
+    @DisplayName("index/remove - should make changes searchable right away outside a transaction")
+    void indexAndRemove_ShouldUpdateSearchResults() {
+        // Given
+        var trainee = Trainee.builder().id(4L).userName("Arya.Stark").firstName("Arya").lastName("Stark").build();
+
+        // When
+        userSearchIndex.index(trainee);
+        var afterIndex = userSearchIndex.search("stark", null, 10);
+        userSearchIndex.remove(trainee);
+        var afterRemove = userSearchIndex.search("stark", null, 10);
+
+        // Then
+        assertEquals(List.of(4L), afterIndex.stream().map(UserSearchResult::getId).toList());
+        assertTrue(afterRemove.isEmpty());
+        assertEquals(2, meterRegistry.timer("gym.search.index.refresh").count());
+    }
+}
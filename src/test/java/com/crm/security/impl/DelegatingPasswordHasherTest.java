@@ -0,0 +1,75 @@
+package com.crm.security.impl;
+
+import com.crm.utils.UserUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DelegatingPasswordHasherTest {
+    private static final String PASSWORD = "Pasw3456";
+
+    private final JBCryptPasswordHasher jbcryptHasher = new JBCryptPasswordHasher(5);
+    private final Argon2PasswordHasher argon2Hasher = new Argon2PasswordHasher(1024, 2, 1);
+
+    @Test
+    @DisplayName("hash - should prefix hash with algorithm id and encode cost")
+    void hash_ShouldPrefixHashWithAlgorithmId() {
+        // Given
+        var bcryptDelegating = new DelegatingPasswordHasher(JBCryptPasswordHasher.ID, List.of(jbcryptHasher, argon2Hasher));
+        var argon2Delegating = new DelegatingPasswordHasher(Argon2PasswordHasher.ID, List.of(jbcryptHasher, argon2Hasher));
+
+        // When
+        var bcryptHash = bcryptDelegating.hash(PASSWORD);
+        var argon2Hash = argon2Delegating.hash(PASSWORD);
+
+        // Then
+        assertTrue(bcryptHash.startsWith("{jbcrypt}$2a$05$"));
+        assertTrue(argon2Hash.startsWith("{argon2}$argon2id$v=19$m=1024,t=2,p=1$"));
+    }
+
+    @Test
+    @DisplayName("matches - should verify hashes of every registered algorithm including legacy ones")
+    void matches_ShouldVerifyHashesOfAllAlgorithms() {
+        // Given
+        var delegating = new DelegatingPasswordHasher(Argon2PasswordHasher.ID, List.of(jbcryptHasher, argon2Hasher));
+        var legacyHash = UserUtils.hashPassword(PASSWORD);
+        var bcryptHash = new DelegatingPasswordHasher(JBCryptPasswordHasher.ID, List.of(jbcryptHasher)).hash(PASSWORD);
+        var argon2Hash = delegating.hash(PASSWORD);
+
+        // When - Then
+        assertTrue(delegating.matches(PASSWORD, legacyHash));
+        assertTrue(delegating.matches(PASSWORD, bcryptHash));
+        assertTrue(delegating.matches(PASSWORD, argon2Hash));
+        assertFalse(delegating.matches("wrongPass1", bcryptHash));
+        assertFalse(delegating.matches("wrongPass1", argon2Hash));
+    }
+
+    @Test
+    @DisplayName("needsRehash - should request rehash for other algorithms and weaker costs only")
+    void needsRehash_ShouldDetectOutdatedHashes() {
+        // Given
+        var delegating = new DelegatingPasswordHasher(JBCryptPasswordHasher.ID, List.of(jbcryptHasher, argon2Hasher));
+        var argon2Delegating = new DelegatingPasswordHasher(Argon2PasswordHasher.ID, List.of(jbcryptHasher, argon2Hasher));
+
+        // When - Then
+        assertFalse(delegating.needsRehash(delegating.hash(PASSWORD)));
+        assertTrue(delegating.needsRehash(UserUtils.hashPassword(PASSWORD, 4)));
+        assertTrue(delegating.needsRehash("{jbcrypt}" + UserUtils.hashPassword(PASSWORD, 4)));
+        assertTrue(delegating.needsRehash(argon2Delegating.hash(PASSWORD)));
+        assertFalse(argon2Delegating.needsRehash(argon2Delegating.hash(PASSWORD)));
+        assertTrue(argon2Delegating.needsRehash(delegating.hash(PASSWORD)));
+    }
+
+    @Test
+    @DisplayName("Constructor - should fail when default algorithm is not registered")
+    void constructor_ShouldFail_WhenDefaultAlgorithmUnknown() {
+        // When - Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new DelegatingPasswordHasher("unknown", List.of(jbcryptHasher))
+        );
+    }
+}
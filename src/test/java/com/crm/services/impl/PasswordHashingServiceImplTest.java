@@ -0,0 +1,189 @@
+package com.crm.services.impl;
+
+import com.crm.UnitTestBase;
+import com.crm.dtos.UserLoginDto;
+import com.crm.exceptions.PasswordNotMatchException;
+import com.crm.repositories.UserRepo;
+import com.crm.security.PasswordHasher;
+import com.crm.security.impl.DelegatingPasswordHasher;
+import com.crm.security.impl.JBCryptPasswordHasher;
+import com.crm.services.TraineeService;
+import com.crm.utils.UserUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceImplTest extends UnitTestBase {
+    @Mock
+    private TraineeService traineeService;
+    @Mock
+    private UserRepo userRepo;
+
+    private final PasswordHasher passwordHasher = new DelegatingPasswordHasher(
+            JBCryptPasswordHasher.ID,
+            List.of(new JBCryptPasswordHasher(5))
+    );
+
+    private ThreadPoolTaskExecutor hashingExecutor;
+    private ThreadPoolTaskExecutor dbExecutor;
+    private PasswordHashingServiceImpl passwordHashingService;
+
+    @BeforeEach
+    void setUpExecutor() {
+        hashingExecutor = new ThreadPoolTaskExecutor();
+        hashingExecutor.setCorePoolSize(1);
+        hashingExecutor.setMaxPoolSize(1);
+        hashingExecutor.setQueueCapacity(1);
+        hashingExecutor.initialize();
+
+        dbExecutor = new ThreadPoolTaskExecutor();
+        dbExecutor.setThreadNamePrefix("db-");
+        dbExecutor.initialize();
+
+        passwordHashingService = new PasswordHashingServiceImpl(hashingExecutor, dbExecutor, passwordHasher, userRepo);
+    }
+
+    @AfterEach
+    void shutDownExecutor() {
+        hashingExecutor.shutdown();
+        dbExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("hashPasswordAsync - should hash password on hashing executor")
+    void hashPasswordAsync_ShouldHashPassword() {
+        // Given
+        var password = "Pasw3456";
+
+        // When
+        var hash = passwordHashingService.hashPasswordAsync(password).join();
+
+        // Then
+        assertTrue(hash.startsWith("{jbcrypt}$2a$05$"));
+        assertTrue(passwordHashingService.matchesPasswordHashAsync(password, hash).join());
+    }
+
+    @Test
+    @DisplayName("hashPasswordsAsync - should return hashes in the order of passwords")
+    void hashPasswordsAsync_ShouldPreserveOrder() {
+        // Given
+        var passwords = List.of("Pasw3456", "Pasw3457", "Pasw3458");
+
+        // When
+        var hashes = passwordHashingService.hashPasswordsAsync(passwords).join();
+
+        // Then
+        assertEquals(passwords.size(), hashes.size());
+        for (int i = 0; i < passwords.size(); i++) {
+            assertTrue(passwordHasher.matches(passwords.get(i), hashes.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("changePasswordAsync - should store new password hash when old password matches")
+    void changePasswordAsync_ShouldUpdatePassword_WhenOldPasswordMatches() {
+        // Given
+        var currentHash = UserUtils.hashPassword("testPassword");
+        testTrainee.setPassword(currentHash);
+        when(traineeService.findByUsernameOrThrow(testTrainee.getUserName())).thenReturn(testTrainee);
+        var updatingThread = new AtomicReference<String>();
+        doAnswer(invocation -> {
+            updatingThread.set(Thread.currentThread().getName());
+            return null;
+        }).when(traineeService).updatePassword(anyString(), anyString(), anyString());
+
+        // When
+        passwordHashingService.changePasswordAsync(
+                traineeService,
+                new UserLoginDto(testTrainee.getUserName(), "testPassword", "newPass1")
+        ).join();
+
+        // Then
+        verify(traineeService, times(1)).updatePassword(eq(testTrainee.getUserName()), eq(currentHash), anyString());
+        assertTrue(updatingThread.get().startsWith("db-"));
+    }
+
+    @Test
+    @DisplayName("changePasswordAsync - should fail with PasswordNotMatchException when old password is wrong")
+    void changePasswordAsync_ShouldFail_WhenOldPasswordIsWrong() {
+        // Given
+        testTrainee.setPassword(UserUtils.hashPassword("testPassword"));
+        when(traineeService.findByUsernameOrThrow(testTrainee.getUserName())).thenReturn(testTrainee);
+
+        // When
+        var future = passwordHashingService.changePasswordAsync(
+                traineeService,
+                new UserLoginDto(testTrainee.getUserName(), "wrongPass1", "newPass1")
+        );
+
+        // Then
+        var exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(PasswordNotMatchException.class, exception.getCause());
+        verify(traineeService, never()).updatePassword(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("upgradePasswordHashAsync - should store new hash when stored hash is outdated")
+    void upgradePasswordHashAsync_ShouldUpgrade_WhenHashIsOutdated() {
+        // Given
+        var outdatedHash = UserUtils.hashPassword("Pasw3456", 4);
+
+        // When
+        passwordHashingService.upgradePasswordHashAsync("John.Doe", "Pasw3456", outdatedHash);
+
+        // Then
+        verify(userRepo, timeout(5000).times(1))
+                .updatePasswordHash(eq("John.Doe"), eq(outdatedHash), startsWith("{jbcrypt}$2a$05$"));
+    }
+
+    @Test
+    @DisplayName("upgradePasswordHashAsync - should do nothing when stored hash is up to date")
+    void upgradePasswordHashAsync_ShouldSkip_WhenHashIsUpToDate() {
+        // Given
+        var currentHash = passwordHasher.hash("Pasw3456");
+
+        // When
+        passwordHashingService.upgradePasswordHashAsync("John.Doe", "Pasw3456", currentHash);
+
+        // Then
+        verifyNoInteractions(userRepo);
+    }
+
+    @Test
+    @DisplayName("hashPasswordAsync - should reject task when executor queue is full")
+    void hashPasswordAsync_ShouldReject_WhenExecutorIsSaturated() throws InterruptedException {
+        // Given
+        var blocker = new CountDownLatch(1);
+        hashingExecutor.execute(() -> awaitQuietly(blocker));
+        hashingExecutor.execute(() -> awaitQuietly(blocker));
+
+        // When - Then
+        try {
+            assertThrows(TaskRejectedException.class, () -> passwordHashingService.hashPasswordAsync("Pasw3456"));
+        } finally {
+            blocker.countDown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,21 +1,38 @@
 package com.crm.services.impl;
 
 import com.crm.UnitTestBase;
+import com.crm.caches.CredentialCache;
+import com.crm.caches.UnassignedTrainersCache;
+import com.crm.caches.UsernameBloomFilter;
+import com.crm.converters.mappers.TraineeMapper;
+import com.crm.dtos.DeletedRows;
 import com.crm.dtos.UserLoginDto;
 import com.crm.dtos.trainee.TraineeDto;
+import com.crm.dtos.trainee.TraineePatchDto;
 import com.crm.dtos.trainee.TraineeTrainingUpdateDto;
 import com.crm.dtos.trainee.TraineeView;
+import com.crm.dtos.training.TrainingCounts;
+import com.crm.dtos.training.TrainingCursor;
 import com.crm.dtos.training.TrainingDto;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
 import com.crm.exceptions.PasswordNotMatchException;
 import com.crm.exceptions.UserNameChangedException;
+import com.crm.metrics.GymMetrics;
 import com.crm.repositories.TraineeRepo;
 import com.crm.repositories.entities.Trainee;
+import com.crm.repositories.entities.Trainer;
 import com.crm.repositories.entities.Training;
+import com.crm.search.UserSearchIndex;
+import com.crm.security.PasswordHasher;
+import com.crm.security.impl.DelegatingPasswordHasher;
+import com.crm.security.impl.JBCryptPasswordHasher;
+import com.crm.services.PasswordHashingService;
+import com.crm.services.TrainingService;
 import com.crm.utils.UserUtils;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -24,12 +41,19 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mapstruct.factory.Mappers;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -39,6 +63,29 @@ class TraineeServiceImplTest extends UnitTestBase {
     private TraineeRepo traineeRepo;
     @Mock
     private ConversionService conversionService;
+    @Mock
+    private CredentialCache credentialCache;
+    @Mock
+    private PasswordHashingService passwordHashingService;
+    @Mock
+    private UsernameAllocator usernameAllocator;
+    @Mock
+    private UsernameBloomFilter usernameFilter;
+    @Mock
+    private UserSearchIndex userSearchIndex;
+    @Mock
+    private GymMetrics gymMetrics;
+    @Mock
+    private UnassignedTrainersCache unassignedTrainersCache;
+    @Mock
+    private TrainingService trainingService;
+    @Spy
+    private TraineeMapper traineeMapper = Mappers.getMapper(TraineeMapper.class);
+    @Spy
+    private PasswordHasher passwordHasher = new DelegatingPasswordHasher(
+            JBCryptPasswordHasher.ID,
+            List.of(new JBCryptPasswordHasher(4))
+    );
 
     @Captor
     private ArgumentCaptor<String> stringArgumentCaptor;
@@ -46,6 +93,12 @@ class TraineeServiceImplTest extends UnitTestBase {
     @InjectMocks
     private TraineeServiceImpl traineeService;
 
+    @BeforeEach
+    void setUpUsernameAllocator() {
+        lenient().when(usernameAllocator.saveWithUniqueUsername(any(Trainee.class), eq(traineeRepo)))
+                .thenAnswer(invocation -> traineeRepo.save(invocation.getArgument(0)));
+    }
+
     @Test
     @DisplayName("findById should return trainee when exists")
     void findById_ShouldReturnTrainee_WhenExists() {
@@ -102,13 +155,18 @@ class TraineeServiceImplTest extends UnitTestBase {
     @DisplayName("deleteById should return true when trainee was successfully deleted")
     void deleteById_ShouldDelete_WhenTraineeExists() {
         // Given
-        doNothing().when(traineeRepo).delete(any(Trainee.class));
+        when(traineeRepo.deleteWithTrainings(any(Trainee.class))).thenReturn(new DeletedRows(1, 2));
 
         // When
         traineeService.delete(testTrainee);
 
         // Then
-        verify(traineeRepo, times(1)).delete(traineeArgumentCaptor.capture());
+        verify(traineeRepo, times(1)).deleteWithTrainings(traineeArgumentCaptor.capture());
+        verify(traineeRepo, never()).delete(any(Trainee.class));
+        verify(userSearchIndex, times(1)).remove(testTrainee);
+        verify(unassignedTrainersCache, times(1)).invalidate(testTrainee.getId());
+        verify(gymMetrics, times(1)).recordDeleted(Trainee.class, 1);
+        verify(gymMetrics, times(1)).recordDeleted(Training.class, 2);
     }
 
     @Test
@@ -132,14 +190,15 @@ class TraineeServiceImplTest extends UnitTestBase {
     void deleteByUserName_ShouldDeleteEntity_WhenTraineeWasFound() {
         // Given
         when(traineeRepo.findByUserName(anyString())).thenReturn(Optional.of(testTrainee));
-        doNothing().when(traineeRepo).delete(any(Trainee.class));
+        when(traineeRepo.deleteWithTrainings(any(Trainee.class))).thenReturn(new DeletedRows(1, 2));
 
         // When
         traineeService.deleteByUsername(testTrainee.getUserName());
 
         // Then
         verify(traineeRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
-        verify(traineeRepo, times(1)).delete(traineeArgumentCaptor.capture());
+        verify(traineeRepo, times(1)).deleteWithTrainings(traineeArgumentCaptor.capture());
+        verify(userSearchIndex, times(1)).remove(testTrainee);
     }
 
     @Test
@@ -162,11 +221,40 @@ class TraineeServiceImplTest extends UnitTestBase {
         verify(traineeRepo, times(2)).findByUserName(stringArgumentCaptor.capture());
     }
 
+    @Test
+    @DisplayName("findByUsername - should skip DB lookup when username filter reports username as absent")
+    void findByUsername_ShouldSkipLookup_WhenUsernameIsAbsent() {
+        // Given
+        when(usernameFilter.isUsernameAbsent("unknown.user")).thenReturn(true);
+
+        // When
+        var result = traineeService.findByUsername("unknown.user");
+
+        // Then
+        assertNull(result);
+        verify(traineeRepo, never()).findByUserName(anyString());
+    }
+
+    @Test
+    @DisplayName("save - should skip cross-role query when username filter reports trainer names as absent")
+    void save_ShouldSkipCrossRoleQuery_WhenTrainerNameIsAbsent() {
+        // Given
+        when(usernameFilter.isNameAbsent(Trainer.class, testTrainee.getFirstName(), testTrainee.getLastName())).thenReturn(true);
+        when(traineeRepo.save(any(Trainee.class))).thenReturn(testTrainee);
+
+        // When
+        traineeService.save(testTrainee);
+
+        // Then
+        verify(traineeRepo, never()).existsTrainerByFirstAndLastName(anyString(), anyString());
+        verify(usernameAllocator, times(1)).saveWithUniqueUsername(testTrainee, traineeRepo);
+    }
+
     @Test
     @DisplayName("changePassword - should change password when trainee`s password matches with found in DB")
     void changePassword_ShouldChangePass_WhenPasswordsMatches() {
         // Given
-        when(traineeRepo.findByUserName(anyString())).thenReturn(Optional.of(testTrainee));
+        when(traineeRepo.findByUserNameUncached(anyString())).thenReturn(Optional.of(testTrainee));
         when(traineeRepo.save(any(Trainee.class))).thenReturn(testTrainee);
         testTrainee.setPassword(UserUtils.hashPassword(testTrainee.getPassword()));
 
@@ -188,22 +276,42 @@ class TraineeServiceImplTest extends UnitTestBase {
     }
 
     @Test
-    @DisplayName("Toggle active status - should deactivate when currently active")
-    void toggleActiveStatus_ShouldDeactivateWhenCurrentlyActive() {
+    @DisplayName("updateStatus - should update status with one statement and fail for unknown trainee")
+    void updateStatus_ShouldUpdateWithOneStatement_AndFailForUnknownTrainee() {
         // Given
-        when(traineeRepo.findById(anyLong())).thenReturn(Optional.of(testTrainee));
-        when(traineeRepo.save(any(Trainee.class))).thenReturn(testTrainee);
+        when(traineeRepo.updateStatus(testTrainee.getUserName(), false)).thenReturn(1);
+        when(traineeRepo.updateStatus("unknown.user", false)).thenReturn(0);
 
         // When
-        var result1 = traineeService.activateStatus(1L);
-        var result2 = traineeService.deactivateStatus(1L);
+        traineeService.updateStatus(testTrainee.getUserName(), false);
 
         // Then
-        Assertions.assertTrue(result1);
-        Assertions.assertFalse(result2);
+        assertThrows(EntityNotFoundException.class, () -> traineeService.updateStatus("unknown.user", false));
+        verify(credentialCache, times(1)).invalidate(testTrainee.getUserName());
+        verify(traineeRepo, never()).findByUserName(anyString());
+        verify(traineeRepo, never()).save(any(Trainee.class));
+    }
 
-        verify(traineeRepo, times(2)).findById(1L);
-        verify(traineeRepo, times(2)).save(traineeArgumentCaptor.capture());
+    @Test
+    @DisplayName("updateStatuses - should update distinct usernames chunk by chunk and sum changed rows")
+    void updateStatuses_ShouldUpdateChunkByChunk() {
+        // Given
+        ReflectionTestUtils.setField(traineeService, "maxStatusBatchSize", 10);
+        ReflectionTestUtils.setField(traineeService, "statusChunkSize", 2);
+        when(traineeRepo.updateStatuses(anyList(), eq(true))).thenReturn(2, 1);
+
+        // When
+        var result = traineeService.updateStatuses(List.of("a", "b", "a", "c"), true);
+
+        // Then
+        assertEquals(3, result);
+        verify(traineeRepo).updateStatuses(List.of("a", "b"), true);
+        verify(traineeRepo).updateStatuses(List.of("c"), true);
+        verify(credentialCache, times(3)).invalidate(anyString());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> traineeService.updateStatuses(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"), true)
+        );
     }
 
     @Test
@@ -211,7 +319,7 @@ class TraineeServiceImplTest extends UnitTestBase {
     void isUsernameAndPasswordMatching_ShouldReturnTrueForMatchingCredentials() {
         // Given
         testTrainee.setPassword(UserUtils.hashPassword(testTrainee.getPassword()));
-        when(traineeRepo.findByUserName(anyString()))
+        when(traineeRepo.findByUserNameUncached(anyString()))
                 .thenReturn(Optional.of(testTrainee))
                 .thenReturn(Optional.of(testTrainee))
                 .thenReturn(Optional.empty());
@@ -225,7 +333,42 @@ class TraineeServiceImplTest extends UnitTestBase {
         Assertions.assertTrue(result1);
         Assertions.assertFalse(result2);
         Assertions.assertFalse(result3);
-        verify(traineeRepo, times(3)).findByUserName(stringArgumentCaptor.capture());
+        verify(traineeRepo, times(3)).findByUserNameUncached(stringArgumentCaptor.capture());
+        verify(passwordHashingService, times(1)).upgradePasswordHashAsync(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("updatePassword - should store new hash only when current hash was not changed concurrently")
+    void updatePassword_ShouldStoreNewHash_WhenCurrentHashMatches() {
+        // Given
+        var currentHash = testTrainee.getPassword();
+        when(traineeRepo.findByUserNameUncached(anyString())).thenReturn(Optional.of(testTrainee));
+
+        // When - Then
+        assertThrows(
+                PasswordNotMatchException.class,
+                () -> traineeService.updatePassword(testTrainee.getUserName(), "otherHash", "newHash")
+        );
+        assertDoesNotThrow(() -> traineeService.updatePassword(testTrainee.getUserName(), currentHash, "newHash"));
+
+        assertEquals("newHash", testTrainee.getPassword());
+        verify(credentialCache, times(1)).invalidate(testTrainee.getUserName());
+        verify(traineeRepo, times(1)).save(testTrainee);
+    }
+
+    @Test
+    @DisplayName("Is username and password matching - should skip hash check when credentials were verified recently")
+    void isUsernameAndPasswordMatching_ShouldSkipHashCheck_WhenCredentialsCached() {
+        // Given
+        when(traineeRepo.findByUserNameUncached(anyString())).thenReturn(Optional.of(testTrainee));
+        when(credentialCache.isVerified(testTrainee.getUserName(), testTrainee.getPassword(), "testPassword")).thenReturn(true);
+
+        // When
+        var result = traineeService.isUsernameAndPasswordMatching(testTrainee.getUserName(), "testPassword");
+
+        // Then
+        assertTrue(result);
+        verify(credentialCache, never()).markVerified(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -272,9 +415,8 @@ class TraineeServiceImplTest extends UnitTestBase {
         // Given
         var fromDate = LocalDate.of(2024, 1, 1);
         var toDate = LocalDate.of(2024, 12, 31);
-        List<Training> expectedTrainings = expectedSize > 0 ? List.of(mock(Training.class)) : Collections.emptyList();
+        List<TrainingView> expectedTrainings = expectedSize > 0 ? List.of(new TrainingView()) : Collections.emptyList();
 
-        lenient().when(conversionService.convert(any(Training.class), eq(TrainingView.class))).thenReturn(new TrainingView());
         when(traineeRepo.getTraineeTrainingsByCriteria(traineeUsername, fromDate, toDate, trainerUsername, trainingType))
                 .thenReturn(expectedTrainings);
 
@@ -287,6 +429,68 @@ class TraineeServiceImplTest extends UnitTestBase {
         verify(traineeRepo, times(1)).getTraineeTrainingsByCriteria(traineeUsername, fromDate, toDate, trainerUsername, trainingType);
     }
 
+    @Test
+    @DisplayName("findTraineeTrainingsPage - should cap page size and return cursor of the last item when more rows exist")
+    void findTraineeTrainingsPage_ShouldCapPageSize_AndReturnNextCursor() {
+        // Given
+        ReflectionTestUtils.setField(traineeService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(traineeService, "maxPageSize", 2);
+
+        var trainingDate = LocalDateTime.of(2024, 1, 1, 10, 0);
+        var rows = List.of(
+                TrainingView.builder().id(1L).trainingDate(trainingDate).build(),
+                TrainingView.builder().id(2L).trainingDate(trainingDate).build(),
+                TrainingView.builder().id(3L).trainingDate(trainingDate).build()
+        );
+        when(traineeRepo.getTraineeTrainingsPage("trainee1", null, null, null, null, null, 3)).thenReturn(rows);
+
+        // When
+        var page = traineeService.findTraineeTrainingsPage("trainee1", null, null, null, null, null, 100);
+
+        // Then
+        assertEquals(rows.subList(0, 2), page.getItems());
+        assertEquals(new TrainingCursor(trainingDate, 2L), TrainingCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("findTraineeTrainingsPage - should seek after the decoded cursor and return no cursor on the last page")
+    void findTraineeTrainingsPage_ShouldSeekAfterCursor_AndReturnNoCursorOnLastPage() {
+        // Given
+        ReflectionTestUtils.setField(traineeService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(traineeService, "maxPageSize", 10);
+
+        var after = new TrainingCursor(LocalDateTime.of(2024, 1, 1, 10, 0), 2L);
+        var cursor = TrainingCursor.encode(TrainingView.builder().id(after.id()).trainingDate(after.trainingDate()).build());
+        var rows = List.of(TrainingView.builder().id(3L).trainingDate(after.trainingDate()).build());
+        when(traineeRepo.getTraineeTrainingsPage("trainee1", null, null, null, null, after, 3)).thenReturn(rows);
+
+        // When
+        var page = traineeService.findTraineeTrainingsPage("trainee1", null, null, null, null, cursor, null);
+
+        // Then
+        assertEquals(rows, page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "not-a-cursor, 10",
+            ", 0"
+    })
+    @DisplayName("findTraineeTrainingsPage - should reject invalid cursor or page size")
+    void findTraineeTrainingsPage_ShouldThrowException_WhenCursorOrLimitIsInvalid(String cursor, Integer limit) {
+        // Given
+        ReflectionTestUtils.setField(traineeService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(traineeService, "maxPageSize", 10);
+
+        // When - Then
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> traineeService.findTraineeTrainingsPage("trainee1", null, null, null, null, cursor, limit)
+        );
+        verifyNoInteractions(traineeRepo);
+    }
+
     @Test
     @DisplayName("addTrainee - should save trainee and return it")
     void addTrainee_ShouldSave_AndReturnIt() {
@@ -309,12 +513,18 @@ class TraineeServiceImplTest extends UnitTestBase {
         // Given
         when(traineeRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainee));
         when(conversionService.convert(any(Trainee.class), eq(TraineeView.class))).thenReturn(new TraineeView());
+        var trainer = new TraineeView.TrainerListView("Trainer.One", "Trainer", "One", TrainingType.YOGA);
+        var counts = new TrainingCounts(4L, 2L);
+        when(traineeRepo.getTrainersOfTrainee(testTrainee.getId())).thenReturn(List.of(trainer));
+        when(traineeRepo.countTrainings(eq(testTrainee.getId()), any(LocalDateTime.class))).thenReturn(counts);
 
         // When
         var result = traineeService.findProfileByUserName(testTraineeDto.getUserName());
 
         // Then
         assertNotNull(result);
+        assertEquals(Set.of(trainer), result.getTrainersList());
+        assertEquals(counts, result.getTrainingCounts());
         verify(traineeRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
     }
 
@@ -323,16 +533,66 @@ class TraineeServiceImplTest extends UnitTestBase {
     void updateTraineeProfile_shouldUpdateTrainee_ThenReturnIt() {
         // Given
         when(traineeRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainee));
-        when(traineeRepo.save(any(Trainee.class))).thenReturn(testTrainee);
-        when(conversionService.convert(any(TraineeDto.class), eq(Trainee.class))).thenReturn(testTrainee);
+        when(conversionService.convert(any(TraineeDto.class), eq(Trainee.class)))
+                .thenReturn(Trainee.builder().firstName("Jane").lastName("Smith").address("New address").isActive(false).build());
         when(conversionService.convert(any(Trainee.class), eq(TraineeView.class))).thenReturn(new TraineeView());
+        testTrainee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        testTraineeDto.setVersion(testTrainee.getVersion());
 
         // When
         var result = traineeService.updateTraineeProfile(1L, testTraineeDto);
 
         // Then
         assertNotNull(result);
+        assertEquals("New address", testTrainee.getAddress());
+        assertEquals("Jane", testTrainee.getFirstName());
+        assertNull(testTrainee.getDateOfBirth());
+        assertFalse(testTrainee.isActive());
         verify(traineeRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
+        verify(traineeRepo, times(1)).flush();
+        verify(traineeRepo, never()).save(any(Trainee.class));
+    }
+
+    @Test
+    @DisplayName("patchTraineeProfile - should change only the fields present in the patch")
+    void patchTraineeProfile_shouldChangeOnlyPresentFields() {
+        // Given
+        when(traineeRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainee));
+        when(conversionService.convert(any(Trainee.class), eq(TraineeView.class))).thenReturn(new TraineeView());
+        var firstName = testTrainee.getFirstName();
+        var patchDto = TraineePatchDto.builder()
+                .userName(testTrainee.getUserName())
+                .address("New address")
+                .version(testTrainee.getVersion())
+                .build();
+
+        // When
+        var result = traineeService.patchTraineeProfile(1L, patchDto);
+
+        // Then
+        assertNotNull(result);
+        assertEquals("New address", testTrainee.getAddress());
+        assertEquals(firstName, testTrainee.getFirstName());
+        verify(traineeRepo, times(1)).flush();
+        verify(traineeRepo, never()).save(any(Trainee.class));
+    }
+
+    @Test
+    @DisplayName("updateTraineeProfile - should reject a stale version without changing the trainee")
+    void updateTraineeProfile_shouldThrowException_WhenVersionIsStale() {
+        // Given
+        when(traineeRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainee));
+        testTrainee.setVersion(2);
+        testTraineeDto.setVersion(1L);
+        testTraineeDto.setAddress("New address");
+
+        // When - Then
+        assertThrows(
+                OptimisticLockingFailureException.class,
+                () -> traineeService.updateTraineeProfile(1L, testTraineeDto)
+        );
+        assertNotEquals("New address", testTrainee.getAddress());
+        verify(traineeRepo, never()).flush();
     }
 
     @Test
@@ -353,12 +613,14 @@ class TraineeServiceImplTest extends UnitTestBase {
     }
 
     @Test
-    @DisplayName("updateTraineeTrainings - should update trainee`s trainings and return set ")
-    void updateTraineeTrainings_shouldUpdateTrainee_ThenReturnSet() {
+    @DisplayName("updateTraineeTrainings - should insert new trainings and return only them")
+    void updateTraineeTrainings_shouldInsertNewTrainings_ThenReturnThem() {
         // Given
+        var existingTraining = Training.builder().id(5L).build();
+        testTrainee.setTrainings(new ArrayList<>(List.of(existingTraining)));
         when(conversionService.convert(any(TrainingDto.class), eq(Training.class))).thenReturn(testTraining);
         when(traineeRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainee));
-        when(traineeRepo.save(any(Trainee.class))).thenReturn(testTrainee);
+        when(trainingService.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
         when(conversionService.convert(any(Training.class), eq(TrainingView.class))).thenReturn(new TrainingView());
 
         var testDto = TraineeTrainingUpdateDto.builder()
@@ -370,9 +632,12 @@ class TraineeServiceImplTest extends UnitTestBase {
         var result = traineeService.updateTraineeTrainings(testDto);
 
         // Then
-        assertFalse(result.isEmpty());
+        assertEquals(1, result.size());
+        assertEquals(List.of(existingTraining), testTrainee.getTrainings());
         verify(traineeRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
-        verify(traineeRepo, times(1)).save(traineeArgumentCaptor.capture());
+        verify(trainingService, times(1)).saveAll(List.of(testTraining));
+        verify(conversionService, times(1)).convert(testTraining, TrainingView.class);
+        verify(traineeRepo, never()).save(any(Trainee.class));
     }
 
     @Test
@@ -395,6 +660,6 @@ class TraineeServiceImplTest extends UnitTestBase {
         );
 
         verify(traineeRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
-        verify(traineeRepo, never()).save(traineeArgumentCaptor.capture());
+        verify(trainingService, never()).saveAll(anyList());
     }
 }
\ No newline at end of file
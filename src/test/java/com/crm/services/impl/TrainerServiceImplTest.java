@@ -1,18 +1,35 @@
 package com.crm.services.impl;
 
 import com.crm.UnitTestBase;
+import com.crm.caches.CredentialCache;
+import com.crm.caches.UnassignedTrainersCache;
+import com.crm.caches.UsernameBloomFilter;
+import com.crm.converters.mappers.TrainerMapper;
+import com.crm.dtos.DeletedRows;
 import com.crm.dtos.UserLoginDto;
+import com.crm.dtos.trainer.TrainerCursor;
 import com.crm.dtos.trainer.TrainerDto;
+import com.crm.dtos.trainer.TrainerSummary;
 import com.crm.dtos.trainer.TrainerView;
+import com.crm.dtos.training.TrainingCounts;
 import com.crm.dtos.training.TrainingView;
 import com.crm.enums.TrainingType;
+import com.crm.enums.TrainingWindow;
 import com.crm.exceptions.PasswordNotMatchException;
 import com.crm.exceptions.UserNameChangedException;
+import com.crm.metrics.GymMetrics;
 import com.crm.repositories.TrainerRepo;
 import com.crm.repositories.entities.Trainer;
 import com.crm.repositories.entities.Training;
+import com.crm.search.UserSearchIndex;
+import com.crm.security.PasswordHasher;
+import com.crm.security.impl.DelegatingPasswordHasher;
+import com.crm.security.impl.JBCryptPasswordHasher;
+import com.crm.services.PasswordHashingService;
 import com.crm.utils.UserUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -21,12 +38,21 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mapstruct.factory.Mappers;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,6 +62,29 @@ class TrainerServiceImplTest extends UnitTestBase {
     private TrainerRepo trainerRepo;
     @Mock
     private ConversionService conversionService;
+    @Mock
+    private CredentialCache credentialCache;
+    @Mock
+    private PasswordHashingService passwordHashingService;
+    @Mock
+    private UsernameAllocator usernameAllocator;
+    @Mock
+    private UsernameBloomFilter usernameFilter;
+    @Mock
+    private UserSearchIndex userSearchIndex;
+    @Mock
+    private GymMetrics gymMetrics;
+    @Spy
+    private UnassignedTrainersCache unassignedTrainersCache = new UnassignedTrainersCache(
+            100, 20, Duration.ofMinutes(1), new SimpleMeterRegistry()
+    );
+    @Spy
+    private TrainerMapper trainerMapper = Mappers.getMapper(TrainerMapper.class);
+    @Spy
+    private PasswordHasher passwordHasher = new DelegatingPasswordHasher(
+            JBCryptPasswordHasher.ID,
+            List.of(new JBCryptPasswordHasher(4))
+    );
 
     @Captor
     ArgumentCaptor<String> stringArgumentCaptor;
@@ -43,6 +92,12 @@ class TrainerServiceImplTest extends UnitTestBase {
     @InjectMocks
     private TrainerServiceImpl trainerService;
 
+    @BeforeEach
+    void setUpUsernameAllocator() {
+        lenient().when(usernameAllocator.saveWithUniqueUsername(any(Trainer.class), eq(trainerRepo)))
+                .thenAnswer(invocation -> trainerRepo.save(invocation.getArgument(0)));
+    }
+
     @Test
     @DisplayName("findById should return trainer when exists")
     void findById_ShouldReturnTrainer_WhenExists() {
@@ -133,7 +188,7 @@ class TrainerServiceImplTest extends UnitTestBase {
     @DisplayName("changePassword - should change/don`t change password when trainee`s password matches/don`t matches with found in DB")
     void changePassword_ShouldChangePass_WhenPasswordsMatches() {
         // Given
-        when(trainerRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainer));
+        when(trainerRepo.findByUserNameUncached(anyString())).thenReturn(Optional.ofNullable(testTrainer));
         when(trainerRepo.save(any(Trainer.class))).thenReturn(testTrainer);
         testTrainer.setPassword(UserUtils.hashPassword(testTrainer.getPassword()));
 
@@ -154,31 +209,12 @@ class TrainerServiceImplTest extends UnitTestBase {
         verify(trainerRepo, times(1)).save(trainerArgumentCaptor.capture());
     }
 
-    @Test
-    @DisplayName("Activate/deactivate status - should change")
-    void toggleActiveStatus_ShouldDeactivateWhenCurrentlyActive() {
-        // Given
-        when(trainerRepo.findById(anyLong())).thenReturn(Optional.of(testTrainer));
-        when(trainerRepo.save(any(Trainer.class))).thenReturn(testTrainer);
-
-        // When
-        var result1 = trainerService.activateStatus(1L);
-        var result2 = trainerService.deactivateStatus(1L);
-
-        // Then
-        assertTrue(result1);
-        assertFalse(result2);
-
-        verify(trainerRepo, times(2)).findById(1L);
-        verify(trainerRepo, times(2)).save(trainerArgumentCaptor.capture());
-    }
-
     @Test
     @DisplayName("Is username and password matching - should return true/false for matching credentials")
     void isUsernameAndPasswordMatching_ShouldReturnTrueForMatchingCredentials() {
         // Given
         testTrainer.setPassword(UserUtils.hashPassword(testTrainer.getPassword()));
-        when(trainerRepo.findByUserName(anyString()))
+        when(trainerRepo.findByUserNameUncached(anyString()))
                 .thenReturn(Optional.of(testTrainer))
                 .thenReturn(Optional.of(testTrainer))
                 .thenReturn(Optional.empty());
@@ -192,7 +228,42 @@ class TrainerServiceImplTest extends UnitTestBase {
         assertTrue(result1);
         assertFalse(result2);
         assertFalse(result3);
-        verify(trainerRepo, times(3)).findByUserName(stringArgumentCaptor.capture());
+        verify(trainerRepo, times(3)).findByUserNameUncached(stringArgumentCaptor.capture());
+        verify(passwordHashingService, times(1)).upgradePasswordHashAsync(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("updatePassword - should store new hash only when current hash was not changed concurrently")
+    void updatePassword_ShouldStoreNewHash_WhenCurrentHashMatches() {
+        // Given
+        var currentHash = testTrainer.getPassword();
+        when(trainerRepo.findByUserNameUncached(anyString())).thenReturn(Optional.of(testTrainer));
+
+        // When - Then
+        assertThrows(
+                PasswordNotMatchException.class,
+                () -> trainerService.updatePassword(testTrainer.getUserName(), "otherHash", "newHash")
+        );
+        assertDoesNotThrow(() -> trainerService.updatePassword(testTrainer.getUserName(), currentHash, "newHash"));
+
+        assertEquals("newHash", testTrainer.getPassword());
+        verify(credentialCache, times(1)).invalidate(testTrainer.getUserName());
+        verify(trainerRepo, times(1)).save(testTrainer);
+    }
+
+    @Test
+    @DisplayName("Is username and password matching - should skip hash check when credentials were verified recently")
+    void isUsernameAndPasswordMatching_ShouldSkipHashCheck_WhenCredentialsCached() {
+        // Given
+        when(trainerRepo.findByUserNameUncached(anyString())).thenReturn(Optional.of(testTrainer));
+        when(credentialCache.isVerified(testTrainer.getUserName(), testTrainer.getPassword(), "Pasw3456")).thenReturn(true);
+
+        // When
+        var result = trainerService.isUsernameAndPasswordMatching(testTrainer.getUserName(), "Pasw3456");
+
+        // Then
+        assertTrue(result);
+        verify(credentialCache, never()).markVerified(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -229,25 +300,43 @@ class TrainerServiceImplTest extends UnitTestBase {
         verify(trainerRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
     }
 
-    @ParameterizedTest
-    @CsvSource({
-            "trainee1, 1",
-            "trainee2, 0"
-    })
-    @DisplayName("Should return/not return list of assigned trainers")
-    void getUnassignedTrainersByTraineeUsername_ShouldReturnCorrectData(String traineeUsername, int expectedSize) {
+    @Test
+    @DisplayName("findNotAssignedTrainersPage - should return a page with a cursor and serve the repeated call from cache")
+    void findNotAssignedTrainersPage_ShouldReturnPage_AndCacheIt() {
         // Given
-        List<Trainer> expectedTrainers = expectedSize > 0 ? List.of(mock(Trainer.class), mock(Trainer.class)) : Collections.emptyList();
-        when(trainerRepo.getUnassignedTrainersByTraineeUsername(traineeUsername)).thenReturn(expectedTrainers);
-        lenient().when(conversionService.convert(any(Trainer.class), eq(TrainerDto.class))).thenReturn(new TrainerDto());
+        ReflectionTestUtils.setField(trainerService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(trainerService, "maxPageSize", 10);
+        var rows = List.of(
+                TrainerSummary.builder().id(1L).build(),
+                TrainerSummary.builder().id(2L).build(),
+                TrainerSummary.builder().id(3L).build()
+        );
+        when(trainerRepo.findTraineeIdByUserName("trainee1")).thenReturn(Optional.of(7L));
+        when(trainerRepo.getUnassignedTrainersPage(7L, TrainingType.YOGA, null, 3)).thenReturn(rows);
 
         // When
-        var actualTrainers = trainerService.findNotAssignedTrainersByTraineeUserName(traineeUsername);
+        var page = trainerService.findNotAssignedTrainersPage("trainee1", TrainingType.YOGA, null, null);
+        var cachedPage = trainerService.findNotAssignedTrainersPage("trainee1", TrainingType.YOGA, null, null);
 
         // Then
-        assertNotNull(actualTrainers);
-        assertEquals(expectedSize, actualTrainers.size());
-        verify(trainerRepo, times(1)).getUnassignedTrainersByTraineeUsername(traineeUsername);
+        assertEquals(rows.subList(0, 2), page.getItems());
+        assertEquals(new TrainerCursor(2L), TrainerCursor.decode(page.getNextCursor()));
+        assertEquals(page, cachedPage);
+        verify(trainerRepo, times(1)).getUnassignedTrainersPage(7L, TrainingType.YOGA, null, 3);
+    }
+
+    @Test
+    @DisplayName("findNotAssignedTrainersPage - should throw EntityNotFoundException when trainee does not exist")
+    void findNotAssignedTrainersPage_ShouldThrowException_WhenTraineeNotFound() {
+        // Given
+        when(trainerRepo.findTraineeIdByUserName("unknown")).thenReturn(Optional.empty());
+
+        // When - Then
+        assertThrows(
+                EntityNotFoundException.class,
+                () -> trainerService.findNotAssignedTrainersPage("unknown", null, null, null)
+        );
+        verify(trainerRepo, never()).getUnassignedTrainersPage(any(), any(), any(), anyInt());
     }
 
     @ParameterizedTest
@@ -260,9 +349,8 @@ class TrainerServiceImplTest extends UnitTestBase {
         // Given
         var fromDate = LocalDate.of(2024, 1, 1);
         var toDate = LocalDate.of(2024, 12, 31);
-        List<Training> expectedTrainings = expectedSize > 0 ? List.of(mock(Training.class)) : Collections.emptyList();
+        List<TrainingView> expectedTrainings = expectedSize > 0 ? List.of(new TrainingView()) : Collections.emptyList();
 
-        lenient().when(conversionService.convert(any(Training.class), eq(TrainingView.class))).thenReturn(new TrainingView());
         when(trainerRepo.getTrainerTrainingsByCriteria(trainerUsername, fromDate, toDate, traineeUsername, trainingType))
                 .thenReturn(expectedTrainings);
 
@@ -275,6 +363,25 @@ class TrainerServiceImplTest extends UnitTestBase {
         verify(trainerRepo, times(1)).getTrainerTrainingsByCriteria(trainerUsername, fromDate, toDate, traineeUsername, trainingType);
     }
 
+    @Test
+    @DisplayName("streamTrainerTrainingsByCriteria - should pass every row to the consumer and close the stream")
+    void streamTrainerTrainingsByCriteria_ShouldConsumeRows_AndCloseStream() {
+        // Given
+        var views = List.of(new TrainingView(), new TrainingView());
+        var isClosed = new AtomicBoolean();
+        when(trainerRepo.streamTrainerTrainingsByCriteria("trainer1", null, null, null, null))
+                .thenReturn(views.stream().onClose(() -> isClosed.set(true)));
+
+        var consumed = new ArrayList<TrainingView>();
+
+        // When
+        trainerService.streamTrainerTrainingsByCriteria("trainer1", null, null, null, null, consumed::add);
+
+        // Then
+        assertEquals(views, consumed);
+        assertTrue(isClosed.get());
+    }
+
     @Test
     @DisplayName("addTrainer - should save trainee and return it")
     void addTrainer_ShouldSave_AndReturnIt() {
@@ -292,19 +399,67 @@ class TrainerServiceImplTest extends UnitTestBase {
         verify(trainerRepo, times(1)).save(trainerArgumentCaptor.capture());
     }
 
+    @Test
+    @DisplayName("deleteByUsername - should delete trainer with its trainings in bulk and drop cached pages")
+    void deleteByUsername_ShouldDeleteTrainerInBulk() {
+        // Given
+        when(trainerRepo.findByUserName(anyString())).thenReturn(Optional.of(testTrainer));
+        when(trainerRepo.deleteWithTrainings(testTrainer)).thenReturn(new DeletedRows(1, 2));
+
+        // When
+        trainerService.deleteByUsername(testTrainer.getUserName());
+
+        // Then
+        verify(trainerRepo, times(1)).deleteWithTrainings(testTrainer);
+        verify(trainerRepo, never()).delete(any(Trainer.class));
+        verify(credentialCache, times(1)).invalidate(testTrainer.getUserName());
+        verify(userSearchIndex, times(1)).remove(testTrainer);
+        verify(gymMetrics, times(1)).recordDeleted(Trainer.class, 1);
+        verify(gymMetrics, times(1)).recordDeleted(Training.class, 2);
+        verify(unassignedTrainersCache, times(1)).invalidateAll();
+    }
+
     @Test
     @DisplayName("findProfileByUserName - should find trainee and return it")
     void findProfileByUserName_ShouldFind_AndReturnIt() {
         // Given
         when(trainerRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainer));
         when(conversionService.convert(any(Trainer.class), eq(TrainerView.class))).thenReturn(new TrainerView());
+        var upcoming = List.of(TrainingView.builder().trainingName("Upcoming").build());
+        var counts = new TrainingCounts(5L, 1L);
+        when(trainerRepo.getUpcomingTrainings(eq(testTrainer.getId()), any(LocalDateTime.class), eq(Limit.of(3)))).thenReturn(upcoming);
+        when(trainerRepo.countTrainings(eq(testTrainer.getId()), any(LocalDateTime.class))).thenReturn(counts);
+        ReflectionTestUtils.setField(trainerService, "trainingsWindow", TrainingWindow.UPCOMING);
+        ReflectionTestUtils.setField(trainerService, "trainingsWindowSize", 3);
 
         // When
         var result = trainerService.findProfileByUserName("username");
 
         // Then
         assertNotNull(result);
+        assertEquals(upcoming, result.getTrainingViews());
+        assertEquals(counts, result.getTrainingCounts());
         verify(trainerRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
+        verify(trainerRepo, never()).getRecentTrainings(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("findProfileByUserName - should embed the most recent trainings in RECENT window mode")
+    void findProfileByUserName_ShouldEmbedRecentTrainings_InRecentWindowMode() {
+        // Given
+        when(trainerRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainer));
+        when(conversionService.convert(any(Trainer.class), eq(TrainerView.class))).thenReturn(new TrainerView());
+        var recent = List.of(TrainingView.builder().trainingName("Recent").build());
+        when(trainerRepo.getRecentTrainings(testTrainer.getId(), Limit.of(3))).thenReturn(recent);
+        ReflectionTestUtils.setField(trainerService, "trainingsWindow", TrainingWindow.RECENT);
+        ReflectionTestUtils.setField(trainerService, "trainingsWindowSize", 3);
+
+        // When
+        var result = trainerService.findProfileByUserName("username");
+
+        // Then
+        assertEquals(recent, result.getTrainingViews());
+        verify(trainerRepo, never()).getUpcomingTrainings(anyLong(), any(LocalDateTime.class), any(Limit.class));
     }
 
     @Test
@@ -312,8 +467,8 @@ class TrainerServiceImplTest extends UnitTestBase {
     void updateTraineeProfile_shouldUpdateTrainee_ThenReturnIt() {
         // Given
         when(trainerRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainer));
-        when(trainerRepo.save(any(Trainer.class))).thenReturn(testTrainer);
-        when(conversionService.convert(any(TrainerDto.class), eq(Trainer.class))).thenReturn(testTrainer);
+        when(conversionService.convert(any(TrainerDto.class), eq(Trainer.class)))
+                .thenReturn(Trainer.builder().specialization(TrainingType.ZUMBA).build());
         when(conversionService.convert(any(Trainer.class), eq(TrainerView.class))).thenReturn(new TrainerView());
         var trainerDto = TrainerDto.builder().userName(testTrainer.getUserName()).build();
 
@@ -322,7 +477,26 @@ class TrainerServiceImplTest extends UnitTestBase {
 
         // Then
         assertNotNull(result);
+        assertEquals(TrainingType.ZUMBA, testTrainer.getSpecialization());
         verify(trainerRepo, times(1)).findByUserName(stringArgumentCaptor.capture());
+        verify(trainerRepo, times(1)).flush();
+        verify(trainerRepo, never()).save(any(Trainer.class));
+    }
+
+    @Test
+    @DisplayName("updateTrainerProfile - should reject a stale version")
+    void updateTrainerProfile_shouldThrowException_WhenVersionIsStale() {
+        // Given
+        when(trainerRepo.findByUserName(anyString())).thenReturn(Optional.ofNullable(testTrainer));
+        testTrainer.setVersion(2);
+        var trainerDto = TrainerDto.builder().userName(testTrainer.getUserName()).version(1L).build();
+
+        // When - Then
+        assertThrows(
+                OptimisticLockingFailureException.class,
+                () -> trainerService.updateTrainerProfile(1L, trainerDto)
+        );
+        verify(trainerRepo, never()).flush();
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.crm.services.impl;
 
 import com.crm.UnitTestBase;
+import com.crm.caches.UnassignedTrainersCache;
 import com.crm.dtos.training.TrainingDto;
 import com.crm.dtos.training.TrainingView;
 import com.crm.repositories.TrainingRepo;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 
@@ -23,6 +25,10 @@ class TrainingServiceImplTest extends UnitTestBase {
     private TrainingRepo trainingRepo;
     @Mock
     private ConversionService conversionService;
+    @Mock
+    private UnassignedTrainersCache unassignedTrainersCache;
+    @Mock
+    private TransactionTemplate transactionTemplate;
     @InjectMocks
     private TrainingServiceImpl trainingService;
     private Training testTraining;
@@ -0,0 +1,223 @@
+package com.crm.services.impl;
+
+import com.crm.UnitTestBase;
+import com.crm.caches.UsernameBloomFilter;
+import com.crm.dtos.BatchItemResult;
+import com.crm.dtos.trainee.TraineeDto;
+import com.crm.repositories.TraineeRepo;
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.Trainee;
+import com.crm.search.UserSearchIndex;
+import com.crm.services.PasswordHashingService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserBatchRegistrarTest extends UnitTestBase {
+    @Mock
+    private UserRepo userRepo;
+    @Mock
+    private TraineeRepo traineeRepo;
+    @Mock
+    private PasswordHashingService passwordHashingService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private UsernameBloomFilter usernameFilter;
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    private ThreadPoolTaskExecutor dbExecutor;
+    private UserBatchRegistrar userBatchRegistrar;
+
+    @BeforeEach
+    void setUpRegistrar() {
+        dbExecutor = new ThreadPoolTaskExecutor();
+        dbExecutor.setThreadNamePrefix("db-");
+        dbExecutor.initialize();
+
+        userBatchRegistrar = new UserBatchRegistrar(
+                userRepo,
+                passwordHashingService,
+                new UsernameAllocator(userRepo, usernameFilter, transactionManager, 1),
+                usernameFilter,
+                userSearchIndex,
+                new TransactionTemplate(transactionManager),
+                dbExecutor,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                5,
+                2
+        );
+
+        lenient().when(passwordHashingService.hashPasswordsAsync(anyList())).thenAnswer(invocation -> {
+            List<String> passwords = invocation.getArgument(0);
+            return CompletableFuture.completedFuture(
+                    passwords.stream().map(password -> "hash-" + password).toList()
+            );
+        });
+        lenient().when(userRepo.findExistingUserNames(anyCollection())).thenReturn(Set.of());
+    }
+
+    @AfterEach
+    void shutDownExecutor() {
+        dbExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("register - should save chunks on the database executor instead of the hashing thread")
+    void register_ShouldSaveChunksOnDbExecutor() {
+        // Given
+        var savingThreads = new CopyOnWriteArraySet<String>();
+        when(traineeRepo.saveAll(anyList())).thenAnswer(invocation -> {
+            savingThreads.add(Thread.currentThread().getName());
+            return invocation.getArgument(0);
+        });
+
+        // When
+        register(List.of(traineeDto("John", "Doe"), traineeDto("Anna", "Smith"), traineeDto("Mark", "Twain")));
+
+        // Then
+        assertFalse(savingThreads.isEmpty());
+        assertTrue(savingThreads.stream().allMatch(thread -> thread.startsWith("db-")));
+    }
+
+    @Test
+    @DisplayName("register - should assign unique usernames using existing ones and hash all passwords")
+    void register_ShouldAssignUniqueUsernames() {
+        // Given
+        when(userRepo.findExistingUserNames(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> candidates = invocation.getArgument(0);
+            return candidates.stream()
+                    .filter(Set.of("John.Doe", "John.Doe1")::contains)
+                    .collect(Collectors.toSet());
+        });
+
+        // When
+        var results = register(List.of(traineeDto("John", "Doe"), traineeDto("John", "Doe"), traineeDto("Anna", "Smith")));
+
+        // Then
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus() == BatchItemResult.Status.CREATED));
+        assertEquals("John.Doe2", results.get(0).getResult().getUserName());
+        assertEquals("John.Doe3", results.get(1).getResult().getUserName());
+        assertEquals("Anna.Smith", results.get(2).getResult().getUserName());
+        assertEquals("hash-Pasrd123", results.get(0).getResult().getPassword());
+        verify(passwordHashingService, times(1)).hashPasswordsAsync(anyList());
+        verify(traineeRepo, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("register - should report invalid and cross-role items without failing the batch")
+    void register_ShouldReportFailedItems() {
+        // Given
+        var invalidDto = traineeDto("John", "Doe");
+        invalidDto.setPassword(null);
+
+        // When
+        var results = userBatchRegistrar.register(
+                List.of(invalidDto, traineeDto("Anna", "Smith"), traineeDto("Mark", "Twain")),
+                UserBatchRegistrarTest::toTrainee,
+                UserBatchRegistrarTest::toTraineeDto,
+                (firstNames, lastNames) -> Set.of("Anna.Smith"),
+                traineeRepo
+        ).join();
+
+        // Then
+        assertEquals(BatchItemResult.Status.FAILED, results.get(0).getStatus());
+        assertEquals("Password is mandatory", results.get(0).getError());
+        assertEquals(BatchItemResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals("You can not be registered as a trainer and trainee simultaneously!", results.get(1).getError());
+        assertEquals(BatchItemResult.Status.CREATED, results.get(2).getStatus());
+        assertEquals("Mark.Twain", results.get(2).getResult().getUserName());
+    }
+
+    @Test
+    @DisplayName("register - should retry failed chunk item by item and report only failed rows")
+    void register_ShouldRetryFailedChunkItemByItem() {
+        // Given
+        when(traineeRepo.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("Unique index violation"));
+        when(traineeRepo.save(any(Trainee.class))).thenAnswer(invocation -> {
+            Trainee trainee = invocation.getArgument(0);
+            if (trainee.getUserName().equals("John.Doe")) {
+                throw new DataIntegrityViolationException("Unique index violation");
+            }
+            return trainee;
+        });
+
+        // When
+        var results = register(List.of(traineeDto("John", "Doe"), traineeDto("Anna", "Smith")));
+
+        // Then
+        assertEquals(BatchItemResult.Status.FAILED, results.get(0).getStatus());
+        assertEquals(BatchItemResult.Status.CREATED, results.get(1).getStatus());
+        verify(traineeRepo, times(2)).save(any(Trainee.class));
+    }
+
+    @Test
+    @DisplayName("register - should reject batch exceeding max size")
+    void register_ShouldReject_WhenBatchIsTooLarge() {
+        // Given
+        var dtos = List.of(
+                traineeDto("Aa", "Bb"), traineeDto("Cc", "Dd"), traineeDto("Ee", "Ff"),
+                traineeDto("Gg", "Hh"), traineeDto("Ii", "Jj"), traineeDto("Kk", "Ll")
+        );
+
+        // When - Then
+        assertThrows(IllegalArgumentException.class, () -> register(dtos));
+        verifyNoInteractions(passwordHashingService, traineeRepo);
+    }
+
+    private List<BatchItemResult<TraineeDto>> register(List<TraineeDto> dtos) {
+        return userBatchRegistrar.register(
+                dtos,
+                UserBatchRegistrarTest::toTrainee,
+                UserBatchRegistrarTest::toTraineeDto,
+                (firstNames, lastNames) -> Set.of(),
+                traineeRepo
+        ).join();
+    }
+
+    private static TraineeDto traineeDto(String firstName, String lastName) {
+        return TraineeDto.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .password("Pasrd123")
+                .build();
+    }
+
+    private static Trainee toTrainee(TraineeDto dto) {
+        return Trainee.builder()
+                .firstName(dto.getFirstName())
+                .lastName(dto.getLastName())
+                .password(dto.getPassword())
+                .build();
+    }
+
+    private static TraineeDto toTraineeDto(Trainee trainee) {
+        return TraineeDto.builder()
+                .firstName(trainee.getFirstName())
+                .lastName(trainee.getLastName())
+                .userName(trainee.getUserName())
+                .password(trainee.getPassword())
+                .isActive(trainee.isActive())
+                .build();
+    }
+}
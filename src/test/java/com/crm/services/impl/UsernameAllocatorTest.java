@@ -0,0 +1,124 @@
+package com.crm.services.impl;
+
+import com.crm.UnitTestBase;
+import com.crm.caches.UsernameBloomFilter;
+import com.crm.repositories.TraineeRepo;
+import com.crm.repositories.UserRepo;
+import com.crm.repositories.entities.Trainee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UsernameAllocatorTest extends UnitTestBase {
+    @Mock
+    private UserRepo userRepo;
+    @Mock
+    private TraineeRepo traineeRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private UsernameBloomFilter usernameFilter;
+
+    private UsernameAllocator usernameAllocator;
+
+    @BeforeEach
+    void setUpAllocator() {
+        usernameAllocator = new UsernameAllocator(userRepo, usernameFilter, transactionManager, 2);
+        testTrainee.setFirstName("John");
+        testTrainee.setLastName("Doe");
+    }
+
+    @Test
+    @DisplayName("allocateUsername - should pick the first free suffix using a single prefix query")
+    void allocateUsername_ShouldPickFirstFreeSuffix() {
+        // Given
+        when(userRepo.findUserNamesLike("John.Doe%"))
+                .thenReturn(Set.of("John.Doe", "John.Doe1", "John.Doe2", "John.Doe4", "John.Doell"));
+
+        // When
+        var result = usernameAllocator.allocateUsername(testTrainee);
+
+        // Then
+        assertEquals("John.Doe3", result);
+        verify(userRepo, times(1)).findUserNamesLike(anyString());
+    }
+
+    @Test
+    @DisplayName("allocateUsername - should escape LIKE wildcards in names")
+    void allocateUsername_ShouldEscapeLikeWildcards() {
+        // Given
+        testTrainee.setFirstName("Jo_hn");
+        testTrainee.setLastName("D%e!");
+
+        // When
+        var result = usernameAllocator.allocateUsername(testTrainee);
+
+        // Then
+        assertEquals("Jo_hn.D%e!", result);
+        verify(userRepo, times(1)).findUserNamesLike("Jo!_hn.D!%e!!%");
+    }
+
+    @Test
+    @DisplayName("saveWithUniqueUsername - should retry with next free username when it was taken concurrently")
+    void saveWithUniqueUsername_ShouldRetry_WhenUsernameTakenConcurrently() {
+        // Given
+        when(userRepo.findUserNamesLike("John.Doe%"))
+                .thenReturn(Set.of())
+                .thenReturn(Set.of("John.Doe"));
+        when(traineeRepo.save(any(Trainee.class)))
+                .thenThrow(new DataIntegrityViolationException("Unique index violation"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        var result = usernameAllocator.saveWithUniqueUsername(testTrainee, traineeRepo);
+
+        // Then
+        assertEquals("John.Doe1", result.getUserName());
+        assertNull(result.getId());
+        verify(traineeRepo, times(2)).save(testTrainee);
+        verify(usernameFilter, times(1)).put(testTrainee);
+    }
+
+    @Test
+    @DisplayName("saveWithUniqueUsername - should give up after max attempts")
+    void saveWithUniqueUsername_ShouldFail_WhenAttemptsExhausted() {
+        // Given
+        when(traineeRepo.save(any(Trainee.class))).thenThrow(new DataIntegrityViolationException("Unique index violation"));
+
+        // When - Then
+        assertThrows(
+                DataIntegrityViolationException.class,
+                () -> usernameAllocator.saveWithUniqueUsername(testTrainee, traineeRepo)
+        );
+        verify(traineeRepo, times(2)).save(testTrainee);
+    }
+
+    @Test
+    @DisplayName("saveWithUniqueUsername - should not retry inside the caller's transaction, which the failed insert made rollback-only")
+    void saveWithUniqueUsername_ShouldNotRetry_InsideCallerTransaction() {
+        // Given
+        when(traineeRepo.save(any(Trainee.class))).thenThrow(new DataIntegrityViolationException("Unique index violation"));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // When - Then
+        try {
+            assertThrows(
+                    DataIntegrityViolationException.class,
+                    () -> usernameAllocator.saveWithUniqueUsername(testTrainee, traineeRepo)
+            );
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verify(traineeRepo, times(1)).save(testTrainee);
+    }
+}